@@ -4,18 +4,25 @@ import android.os.Bundle
 import androidx.activity.compose.setContent
 import androidx.appcompat.app.AppCompatActivity
 import androidx.compose.runtime.Composable
+import androidx.compose.runtime.LaunchedEffect
 import androidx.compose.runtime.getValue
+import androidx.compose.runtime.mutableFloatStateOf
+import androidx.compose.runtime.remember
+import androidx.compose.runtime.setValue
+import androidx.compose.runtime.withFrameNanos
 import com.airbnb.lottie.compose.LottieAnimation
 import com.airbnb.lottie.compose.LottieCompositionSpec
 import com.airbnb.lottie.compose.LottieConstants
 import com.airbnb.lottie.compose.animateLottieCompositionAsState
 import com.airbnb.lottie.compose.rememberLottieComposition
+import kotlin.random.Random
 
 class BenchmarkActivity : AppCompatActivity() {
     override fun onCreate(savedInstanceState: Bundle?) {
         super.onCreate(savedInstanceState)
+        val scrub = intent.getBooleanExtra(EXTRA_SCRUB, false)
         setContent {
-            Content()
+            if (scrub) ScrubbingContent() else Content()
         }
     }
 
@@ -25,4 +32,25 @@ class BenchmarkActivity : AppCompatActivity() {
         val progress by animateLottieCompositionAsState(composition, iterations = LottieConstants.IterateForever)
         LottieAnimation(composition, { progress })
     }
+
+    /**
+     * Jumps to a random progress every frame so that every frame has to look its keyframes up again instead of
+     * continuing from the ones of the previous frame.
+     */
+    @Composable
+    fun ScrubbingContent() {
+        val composition by rememberLottieComposition(LottieCompositionSpec.RawRes(R.raw.benchmark))
+        var progress by remember { mutableFloatStateOf(0f) }
+        LaunchedEffect(Unit) {
+            val random = Random(0)
+            while (true) {
+                withFrameNanos { progress = random.nextFloat() }
+            }
+        }
+        LottieAnimation(composition, { progress })
+    }
+
+    companion object {
+        const val EXTRA_SCRUB = "scrub"
+    }
 }
@@ -0,0 +1,59 @@
+package com.airbnb.lottie.sample.compose.benchmark
+
+import android.content.Intent
+import androidx.benchmark.macro.CompilationMode
+import androidx.benchmark.macro.FrameTimingMetric
+import androidx.benchmark.macro.StartupMode
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Compares the frame times of scrubbing randomly through the benchmark animation with the frame times of playing it.
+ *
+ * Playing an animation continues from the keyframes of the previous frame while scrubbing has to look every keyframe
+ * up again. When keyframes were looked up with a linear scan, scrubbing long keyframe lists was much slower than
+ * playing them. With the binary search, both should take about as long.
+ */
+@RunWith(AndroidJUnit4::class)
+class LottieScrubbingBenchmark {
+
+    @get:Rule
+    val benchmarkRule = MacrobenchmarkRule()
+
+    @Test
+    fun benchmarkPlayback() {
+        benchmark(scrub = false)
+    }
+
+    @Test
+    fun benchmarkScrubbing() {
+        benchmark(scrub = true)
+    }
+
+    private fun benchmark(scrub: Boolean) {
+        benchmarkRule.measureRepeated(
+            packageName = PACKAGE_NAME,
+            metrics = listOf(FrameTimingMetric()),
+            iterations = 5,
+            startupMode = StartupMode.WARM,
+            compilationMode = CompilationMode.Partial(),
+            setupBlock = {
+                pressHome()
+            }
+        ) {
+            val intent = Intent()
+                .setClassName(PACKAGE_NAME, "$PACKAGE_NAME.BenchmarkActivity")
+                .putExtra(EXTRA_SCRUB, scrub)
+            startActivityAndWait(intent)
+            Thread.sleep(5_000L)
+        }
+    }
+
+    companion object {
+        private const val PACKAGE_NAME = "com.airbnb.lottie.benchmark.app"
+        private const val EXTRA_SCRUB = "scrub"
+    }
+}
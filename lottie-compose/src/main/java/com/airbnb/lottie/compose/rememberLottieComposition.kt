@@ -13,6 +13,7 @@ import androidx.compose.ui.platform.LocalContext
 import com.airbnb.lottie.LottieComposition
 import com.airbnb.lottie.LottieCompositionFactory
 import com.airbnb.lottie.LottieImageAsset
+import com.airbnb.lottie.LottieListener
 import com.airbnb.lottie.LottieTask
 import com.airbnb.lottie.model.Font
 import com.airbnb.lottie.utils.Logger
@@ -208,11 +209,18 @@ private fun lottieTask(
 }
 
 private suspend fun <T> LottieTask<T>.await(): T = suspendCancellableCoroutine { cont ->
-    addListener { c ->
+    val listener = LottieListener<T> { c ->
         if (!cont.isCompleted) cont.resume(c)
-    }.addFailureListener { e ->
+    }
+    val failureListener = LottieListener<Throwable> { e ->
         if (!cont.isCompleted) cont.resumeWithException(e)
     }
+    addListener(listener).addFailureListener(failureListener)
+    // The task is cancelled once nothing else is waiting for it.
+    cont.invokeOnCancellation {
+        removeListener(listener)
+        removeFailureListener(failureListener)
+    }
 }
 
 private suspend fun loadImagesFromAssets(
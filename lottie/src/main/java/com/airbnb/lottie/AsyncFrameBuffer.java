@@ -0,0 +1,149 @@
+package com.airbnb.lottie;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.airbnb.lottie.animation.LPaint;
+import com.airbnb.lottie.model.layer.CompositionLayer;
+
+/**
+ * A front and a back bitmap for software rendering with {@link AsyncUpdates}. The background thread sets the layers to
+ * the new progress and renders them into the back bitmap while the main thread keeps drawing the front bitmap. Once a
+ * frame is rendered, the two are swapped so the main thread never waits for the layers to be evaluated.
+ * <p>
+ * A bitmap that was swapped out may still be drawn by the render thread until the main thread draws the next frame
+ * so it is only rendered into again after that. Until then, new frames are not rendered.
+ *
+ * @see LottieDrawable#setAsyncUpdates(AsyncUpdates)
+ */
+class AsyncFrameBuffer {
+  private final Matrix canvasMatrix = new Matrix();
+  private final Matrix renderMatrix = new Matrix();
+  private final RectF deviceBounds = new RectF();
+  private final Canvas renderCanvas = new Canvas();
+  private final Paint paint = new LPaint(Paint.FILTER_BITMAP_FLAG);
+
+  // Guarded by this.
+  @Nullable private Bitmap front;
+  private float frontProgress;
+  private int frontGeneration;
+  /**
+   * The previous front bitmap until the main thread drew a frame without it.
+   */
+  @Nullable private Bitmap retired;
+  /**
+   * A bitmap that nothing draws anymore and that the next frame can be rendered into.
+   */
+  @Nullable private Bitmap back;
+  private int requestedWidth;
+  private int requestedHeight;
+  private int renderCount;
+
+  /**
+   * Draws the front bitmap at the bounds of the canvas's drawable and requests frames at the size that the bounds
+   * have on screen.
+   *
+   * @return false if no frame has been rendered at this size yet.
+   */
+  boolean draw(Canvas canvas, Rect bounds, int alpha) {
+    if (bounds.isEmpty()) {
+      return false;
+    }
+    //noinspection deprecation
+    canvas.getMatrix(canvasMatrix);
+    deviceBounds.set(bounds);
+    canvasMatrix.mapRect(deviceBounds);
+    int width = (int) Math.ceil(deviceBounds.width());
+    int height = (int) Math.ceil(deviceBounds.height());
+    Bitmap front;
+    synchronized (this) {
+      requestedWidth = width;
+      requestedHeight = height;
+      // The frames that the retired bitmap was drawn in have been synced with the render thread by now.
+      if (retired != null) {
+        back = retired;
+        retired = null;
+      }
+      front = this.front;
+    }
+    if (front == null || front.getWidth() != width || front.getHeight() != height) {
+      return false;
+    }
+    paint.setAlpha(alpha);
+    canvas.drawBitmap(front, null, bounds, paint);
+    return true;
+  }
+
+  /**
+   * Returns whether the front bitmap shows the layers at this progress and generation at the requested size.
+   */
+  synchronized boolean isUpToDate(float progress, int generation) {
+    return front != null && frontProgress == progress && frontGeneration == generation &&
+        front.getWidth() == requestedWidth && front.getHeight() == requestedHeight;
+  }
+
+  /**
+   * Renders the layers at their current progress into the back bitmap and swaps it to the front. This is called on
+   * the background thread that set the progress.
+   *
+   * @return false if nothing was rendered because the frame is up to date, no size was requested yet or the main
+   * thread may still draw the back bitmap.
+   */
+  boolean render(CompositionLayer compositionLayer, LottieComposition composition, float progress, int generation) {
+    Rect compositionBounds = composition.getBounds();
+    int width;
+    int height;
+    Bitmap bitmap;
+    synchronized (this) {
+      if (isUpToDate(progress, generation) || retired != null) {
+        return false;
+      }
+      width = requestedWidth;
+      height = requestedHeight;
+      bitmap = back;
+      back = null;
+    }
+    if (width <= 0 || height <= 0 || compositionBounds.isEmpty()) {
+      return false;
+    }
+    if (bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height) {
+      bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    } else {
+      bitmap.eraseColor(0);
+    }
+    renderCanvas.setBitmap(bitmap);
+    renderMatrix.setScale(width / (float) compositionBounds.width(), height / (float) compositionBounds.height());
+    compositionLayer.draw(renderCanvas, renderMatrix, 255);
+    renderCanvas.setBitmap(null);
+    synchronized (this) {
+      retired = front;
+      front = bitmap;
+      frontProgress = progress;
+      frontGeneration = generation;
+      renderCount++;
+    }
+    return true;
+  }
+
+  /**
+   * Drops the rendered frames so that nothing from a previous composition is drawn.
+   */
+  synchronized void clear() {
+    // Not recycled because a view's display list may still draw them.
+    front = null;
+    retired = null;
+    back = null;
+  }
+
+  @VisibleForTesting
+  synchronized int getRenderCount() {
+    return renderCount;
+  }
+}
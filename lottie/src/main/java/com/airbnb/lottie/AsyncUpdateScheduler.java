@@ -0,0 +1,72 @@
+package com.airbnb.lottie;
+
+import com.airbnb.lottie.utils.LottieThreadFactory;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the {@link AsyncUpdates} of every {@link LottieDrawable} on a pool with a thread per core.
+ * <p>
+ * Each drawable has at most one update of a kind queued at a time. Updates set the layers to the drawable's progress
+ * when they run rather than when they were requested, so when a drawable is drawn again before its update ran, the
+ * queued update already brings it to the newest progress and no stale updates pile up behind it. The idle threads
+ * all take the oldest update from the same queue so one busy animation doesn't hold up the others.
+ */
+class AsyncUpdateScheduler {
+  private static final int THREAD_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors());
+  private static final ThreadPoolExecutor executor = createExecutor();
+
+  private static ThreadPoolExecutor createExecutor() {
+    // The core size has to be the maximum size because the queue is unbounded. Otherwise, only one thread would run.
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT,
+        // Each thread will time out after 35ms which gives it enough time to persist for one frame, one dropped frame
+        // and a few extra ms just in case. When no animations are playing, there are no idle threads.
+        35, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(), new LottieThreadFactory());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private AsyncUpdateScheduler() {
+  }
+
+  /**
+   * Queues the update unless it already is.
+   *
+   * @return false if the update was already queued and will run with the newest progress.
+   */
+  static boolean schedule(Update update) {
+    if (!update.isQueued.compareAndSet(false, true)) {
+      return false;
+    }
+    update.queuedAtNanos = System.nanoTime();
+    executor.execute(update);
+    return true;
+  }
+
+  /**
+   * An update of one drawable that is queued at most once at a time.
+   */
+  static final class Update implements Runnable {
+    private final LottieDrawable drawable;
+    private final Runnable work;
+    private final AtomicBoolean isQueued = new AtomicBoolean();
+    private volatile long queuedAtNanos;
+
+    Update(LottieDrawable drawable, Runnable work) {
+      this.drawable = drawable;
+      this.work = work;
+    }
+
+    @Override public void run() {
+      float queueLatencyMs = (System.nanoTime() - queuedAtNanos) / 1_000_000f;
+      // Requests from now on need another run because this one may have read the progress already.
+      isQueued.set(false);
+      drawable.recordAsyncUpdateQueueLatency(queueLatencyMs);
+      work.run();
+    }
+  }
+}
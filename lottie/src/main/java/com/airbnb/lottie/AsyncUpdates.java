@@ -32,8 +32,18 @@ package com.airbnb.lottie;
  * setProgress to be run on a background thread immediately after draw finishes and it will likely complete well
  * before the next frame starts.
  * <p/>
- * The background thread is created via LottieDrawable.setProgressExecutor. You can refer to it for the current default
- * thread pool configuration.
+ * With software rendering, the background thread also draws the whole animation into a bitmap that draw then only
+ * has to copy to the canvas. See {@link RenderMode#SOFTWARE}.
+ * <p/>
+ * Because of that, your {@link com.airbnb.lottie.value.LottieValueCallback}, {@link TextDelegate},
+ * {@link ImageAssetDelegate} and {@link FontAssetDelegate} may be called on the background threads rather than the
+ * main thread, concurrently with other animations. They must be thread safe.
+ * <p/>
+ * Setting value callbacks, delegates or bitmaps never waits for a background thread. If one is using the layers at
+ * the time, the change is applied before the layers are updated next.
+ * <p/>
+ * The background threads are created by AsyncUpdateScheduler. You can refer to it for the current thread pool
+ * configuration.
  */
 public enum AsyncUpdates {
   /**
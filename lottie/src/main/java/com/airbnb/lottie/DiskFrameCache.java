@@ -0,0 +1,534 @@
+package com.airbnb.lottie;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.collection.SparseArrayCompat;
+
+import com.airbnb.lottie.animation.LPaint;
+import com.airbnb.lottie.model.layer.CompositionLayer;
+import com.airbnb.lottie.network.NetworkCache;
+import com.airbnb.lottie.utils.Logger;
+import com.airbnb.lottie.utils.LottieThreadFactory;
+import com.airbnb.lottie.utils.Utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Frames of an animation that are stored in the {@link NetworkCache} so that later launches of the app draw them from
+ * there instead of drawing the animation's layers.
+ * <p>
+ * The frames of each key and size are stored in one file: a header followed by each frame as a PNG. The frames are
+ * written on a background thread while the animation plays for the first time and the file is stored once the
+ * animation shows a frame that was already written, such as when it loops. When a stored file is read, the frames after
+ * the one being drawn are decoded ahead of time on a background thread.
+ * <p>
+ * The thread that draws never compresses or decodes frames. A frame that wasn't decoded in time, or that was rendered
+ * while too many others were waiting to be written, is drawn directly instead.
+ *
+ * @see LottieDrawable#setDiskFrameCacheKey(String)
+ */
+class DiskFrameCache {
+  private static final int MAGIC = 0x4c4f5446;
+  private static final int VERSION = 1;
+  private static final int READ_AHEAD_FRAMES = 3;
+  /**
+   * The most rendered frames that may wait to be compressed and written so that slow compression doesn't hold on to
+   * many full size bitmaps.
+   */
+  private static final int MAX_PENDING_WRITES = 2;
+  /**
+   * A single thread so that frames are written in the order they were rendered in and a file is never read while it
+   * is being stored.
+   */
+  private static final Executor executor = new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS,
+      new LinkedBlockingQueue<>(), new LottieThreadFactory());
+  /**
+   * The files that are being written. Two drawables that show the same animation at the same size would otherwise
+   * write their frames into the same temporary file. Only used on the executor.
+   */
+  private static final Set<String> writingFileKeys = new HashSet<>();
+
+  private final String key;
+  private final Matrix canvasMatrix = new Matrix();
+  private final Matrix renderMatrix = new Matrix();
+  private final RectF deviceBounds = new RectF();
+  private final Canvas renderCanvas = new Canvas();
+  private final Paint paint = new LPaint(Paint.FILTER_BITMAP_FLAG);
+  @Nullable private Frames frames;
+
+  DiskFrameCache(String key) {
+    this.key = key;
+  }
+
+  String getKey() {
+    return key;
+  }
+
+  /**
+   * Draws the frame at the bounds of the canvas's drawable from the stored file or, while the file is being written,
+   * renders it into a bitmap that is written to the file.
+   *
+   * @param frame the frame of the composition to draw.
+   * @return false if the frame has to be drawn directly, such as while the file is being opened.
+   */
+  boolean draw(Canvas canvas, NetworkCache networkCache, CompositionLayer compositionLayer,
+      LottieComposition composition, Rect bounds, int alpha, float frame) {
+    Rect compositionBounds = composition.getBounds();
+    if (bounds.isEmpty() || compositionBounds.isEmpty()) {
+      return false;
+    }
+    //noinspection deprecation
+    canvas.getMatrix(canvasMatrix);
+    deviceBounds.set(bounds);
+    canvasMatrix.mapRect(deviceBounds);
+    int width = (int) Math.ceil(deviceBounds.width());
+    int height = (int) Math.ceil(deviceBounds.height());
+    if (width <= 0 || height <= 0) {
+      return false;
+    }
+
+    Frames frames = this.frames;
+    if (frames == null || frames.width != width || frames.height != height) {
+      close();
+      frames = new Frames(networkCache, key + "_" + width + "x" + height, fingerprint(composition), width, height);
+      this.frames = frames;
+      executor.execute(frames::open);
+      return false;
+    }
+
+    int frameNumber = Math.round(frame);
+    Bitmap bitmap;
+    switch (frames.state) {
+      case Frames.READING:
+        bitmap = frames.read(frameNumber);
+        break;
+      case Frames.WRITING:
+        if (frameNumber == frames.currentFrameNumber) {
+          bitmap = frames.currentBitmap;
+        } else if (frames.written.get(frameNumber, false)) {
+          // The animation played through so the file has every frame that it shows.
+          frames.commit();
+          return false;
+        } else if (!frames.canWrite()) {
+          // Writing fell behind. This frame isn't stored and is drawn directly.
+          return false;
+        } else {
+          bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+          renderCanvas.setBitmap(bitmap);
+          renderMatrix.setScale(width / (float) compositionBounds.width(), height / (float) compositionBounds.height());
+          compositionLayer.setProgress(composition.getProgressForFrame(frameNumber));
+          compositionLayer.draw(renderCanvas, renderMatrix, 255);
+          renderCanvas.setBitmap(null);
+          frames.write(frameNumber, bitmap);
+        }
+        break;
+      default:
+        return false;
+    }
+    if (bitmap == null) {
+      return false;
+    }
+
+    paint.setAlpha(alpha);
+    canvas.drawBitmap(bitmap, null, bounds, paint);
+    return true;
+  }
+
+  /**
+   * Stops reading or writing frames. Frames that were written but not stored yet are discarded.
+   */
+  void close() {
+    Frames frames = this.frames;
+    this.frames = null;
+    if (frames != null) {
+      frames.state = Frames.CLOSED;
+      executor.execute(frames::release);
+    }
+  }
+
+  /**
+   * A number that changes when the composition that a key is used for changes in ways that make its stored frames
+   * unusable.
+   */
+  private static int fingerprint(LottieComposition composition) {
+    Rect bounds = composition.getBounds();
+    int result = bounds.width();
+    result = 31 * result + bounds.height();
+    result = 31 * result + Float.floatToIntBits(composition.getStartFrame());
+    result = 31 * result + Float.floatToIntBits(composition.getEndFrame());
+    result = 31 * result + Float.floatToIntBits(composition.getFrameRate());
+    result = 31 * result + composition.getLayers().size();
+    result = 31 * result + composition.getMaskAndMatteCount();
+    return result;
+  }
+
+  /**
+   * The file of frames for one size.
+   */
+  private static class Frames {
+    static final int OPENING = 0;
+    static final int READING = 1;
+    static final int WRITING = 2;
+    static final int CLOSED = 3;
+
+    final NetworkCache networkCache;
+    final String fileKey;
+    final int fingerprint;
+    final int width;
+    final int height;
+    volatile int state = OPENING;
+
+    /**
+     * The frame that was drawn last. Only used on the thread that draws.
+     */
+    int currentFrameNumber = -1;
+    @Nullable Bitmap currentBitmap;
+    /**
+     * The frame that was drawn before the current one. It may still be drawn by the render thread until the next
+     * frame is drawn. Only used on the thread that draws.
+     */
+    @Nullable private Bitmap retiredBitmap;
+
+    /**
+     * The frames that were rendered while writing. Only used on the thread that draws.
+     */
+    final SparseArrayCompat<Boolean> written = new SparseArrayCompat<>();
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    /**
+     * Whether this has the file key in {@link #writingFileKeys}. Only used on the executor.
+     */
+    private boolean isWriter;
+    @Nullable private DataOutputStream output;
+    private boolean writeFailed;
+
+    /**
+     * The offset and length of each frame in the file, set before the state changes to {@link #READING}.
+     */
+    private final SparseArrayCompat<long[]> index = new SparseArrayCompat<>();
+    /**
+     * Frames that were decoded ahead of time, guarded by this.
+     */
+    private final SparseArrayCompat<Bitmap> decodedFrames = new SparseArrayCompat<>();
+    private final SparseArrayCompat<Boolean> pendingFrames = new SparseArrayCompat<>();
+    /**
+     * Decoded frames that nothing draws anymore and that later frames are decoded into, guarded by this.
+     */
+    private final List<Bitmap> reusableBitmaps = new ArrayList<>();
+    @Nullable private RandomAccessFile file;
+
+    Frames(NetworkCache networkCache, String fileKey, int fingerprint, int width, int height) {
+      this.networkCache = networkCache;
+      this.fileKey = fileKey;
+      this.fingerprint = fingerprint;
+      this.width = width;
+      this.height = height;
+    }
+
+    @WorkerThread
+    void open() {
+      if (state == CLOSED) {
+        return;
+      }
+      File file = networkCache.getFramesFile(fileKey);
+      if (file != null && readIndex(file)) {
+        state = READING;
+      } else if (writingFileKeys.add(fileKey)) {
+        isWriter = true;
+        state = WRITING;
+      } else {
+        // Another drawable is writing the frames of this size. This one draws directly.
+        state = CLOSED;
+      }
+    }
+
+    @WorkerThread
+    private boolean readIndex(File file) {
+      RandomAccessFile randomAccessFile = null;
+      try {
+        randomAccessFile = new RandomAccessFile(file, "r");
+        if (randomAccessFile.readInt() != MAGIC || randomAccessFile.readInt() != VERSION ||
+            randomAccessFile.readInt() != fingerprint || randomAccessFile.readInt() != width ||
+            randomAccessFile.readInt() != height) {
+          Utils.closeQuietly(randomAccessFile);
+          return false;
+        }
+        long length = randomAccessFile.length();
+        while (randomAccessFile.getFilePointer() < length) {
+          int frameNumber = randomAccessFile.readInt();
+          int frameLength = randomAccessFile.readInt();
+          long offset = randomAccessFile.getFilePointer();
+          if (frameNumber < 0 || frameLength <= 0 || offset + frameLength > length) {
+            // Files are only stored once they were completely written so this one is corrupt. It is written again.
+            Logger.warning("Rendered frames " + file.getAbsolutePath() + " are corrupt.");
+            index.clear();
+            Utils.closeQuietly(randomAccessFile);
+            return false;
+          }
+          index.put(frameNumber, new long[]{offset, frameLength});
+          randomAccessFile.seek(offset + frameLength);
+        }
+        synchronized (this) {
+          this.file = randomAccessFile;
+        }
+        return index.size() > 0;
+      } catch (IOException e) {
+        Logger.warning("Unable to read rendered frames.", e);
+        index.clear();
+        Utils.closeQuietly(randomAccessFile);
+        return false;
+      }
+    }
+
+    /**
+     * Returns the frame if it was decoded ahead of time and starts decoding the frames after it. Frames are never
+     * decoded on the thread that draws so null is returned if it wasn't decoded in time.
+     */
+    @Nullable
+    Bitmap read(int frameNumber) {
+      if (frameNumber == currentFrameNumber && currentBitmap != null) {
+        return currentBitmap;
+      }
+      int position = index.indexOfKey(frameNumber);
+      if (position < 0) {
+        return null;
+      }
+      Bitmap bitmap;
+      synchronized (this) {
+        bitmap = decodedFrames.get(frameNumber);
+        decodedFrames.remove(frameNumber);
+        // Keep only the frames that come next. The others were decoded before the animation was seeked.
+        for (int i = decodedFrames.size() - 1; i >= 0; i--) {
+          int distance = index.indexOfKey(decodedFrames.keyAt(i)) - position;
+          if (distance <= 0) {
+            distance += index.size();
+          }
+          if (distance > READ_AHEAD_FRAMES) {
+            addReusableBitmap(decodedFrames.valueAt(i));
+            decodedFrames.removeAt(i);
+          }
+        }
+      }
+
+      for (int i = 1; i <= READ_AHEAD_FRAMES && i < index.size(); i++) {
+        int nextFrameNumber = index.keyAt((position + i) % index.size());
+        synchronized (this) {
+          if (pendingFrames.containsKey(nextFrameNumber) || decodedFrames.containsKey(nextFrameNumber)) {
+            continue;
+          }
+          pendingFrames.put(nextFrameNumber, true);
+        }
+        executor.execute(() -> decodeAhead(nextFrameNumber));
+      }
+      if (bitmap == null) {
+        return null;
+      }
+
+      Bitmap retiredBitmap = this.retiredBitmap;
+      if (retiredBitmap != null) {
+        // It hasn't been drawn since before the current frame.
+        synchronized (this) {
+          addReusableBitmap(retiredBitmap);
+        }
+      }
+      this.retiredBitmap = currentBitmap;
+      currentFrameNumber = frameNumber;
+      currentBitmap = bitmap;
+      return bitmap;
+    }
+
+    /**
+     * Must be called while holding the lock of this.
+     */
+    private void addReusableBitmap(Bitmap bitmap) {
+      if (reusableBitmaps.size() < READ_AHEAD_FRAMES) {
+        reusableBitmaps.add(bitmap);
+      }
+    }
+
+    @WorkerThread
+    private void decodeAhead(int frameNumber) {
+      Bitmap bitmap = state == READING ? decode(frameNumber) : null;
+      synchronized (this) {
+        pendingFrames.remove(frameNumber);
+        if (bitmap != null) {
+          decodedFrames.put(frameNumber, bitmap);
+        }
+      }
+    }
+
+    @WorkerThread
+    @Nullable
+    private Bitmap decode(int frameNumber) {
+      long[] location = index.get(frameNumber);
+      if (location == null) {
+        return null;
+      }
+      byte[] data = new byte[(int) location[1]];
+      BitmapFactory.Options options = new BitmapFactory.Options();
+      // Mutable so that later frames can be decoded into it once it isn't drawn anymore.
+      options.inMutable = true;
+      try {
+        synchronized (this) {
+          RandomAccessFile file = this.file;
+          if (file == null) {
+            return null;
+          }
+          file.seek(location[0]);
+          file.readFully(data);
+          if (!reusableBitmaps.isEmpty()) {
+            options.inBitmap = reusableBitmaps.remove(reusableBitmaps.size() - 1);
+          }
+        }
+      } catch (IOException e) {
+        Logger.warning("Unable to read rendered frame " + frameNumber + ".", e);
+        return null;
+      }
+      try {
+        return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+      } catch (IllegalArgumentException e) {
+        // The frame can't be decoded into the reused bitmap.
+        options.inBitmap = null;
+        return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+      }
+    }
+
+    /**
+     * Whether another frame can be written without exceeding {@link #MAX_PENDING_WRITES}.
+     */
+    boolean canWrite() {
+      return pendingWrites.get() < MAX_PENDING_WRITES;
+    }
+
+    /**
+     * Writes the frame to the file on a background thread. The bitmap must not be changed afterwards.
+     */
+    void write(int frameNumber, Bitmap bitmap) {
+      written.put(frameNumber, true);
+      currentFrameNumber = frameNumber;
+      currentBitmap = bitmap;
+      pendingWrites.incrementAndGet();
+      executor.execute(() -> {
+        append(frameNumber, bitmap);
+        pendingWrites.decrementAndGet();
+      });
+    }
+
+    @WorkerThread
+    private void append(int frameNumber, Bitmap bitmap) {
+      if (state == CLOSED || writeFailed) {
+        return;
+      }
+      try {
+        DataOutputStream output = this.output;
+        if (output == null) {
+          output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(networkCache.framesTempFile(fileKey))));
+          this.output = output;
+          output.writeInt(MAGIC);
+          output.writeInt(VERSION);
+          output.writeInt(fingerprint);
+          output.writeInt(width);
+          output.writeInt(height);
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.PNG, 100, png);
+        output.writeInt(frameNumber);
+        output.writeInt(png.size());
+        png.writeTo(output);
+      } catch (IOException e) {
+        Logger.warning("Unable to write rendered frame " + frameNumber + ".", e);
+        writeFailed = true;
+      }
+    }
+
+    /**
+     * Stores the file once the frames that were written before have been and opens it for reading.
+     */
+    void commit() {
+      state = OPENING;
+      currentFrameNumber = -1;
+      currentBitmap = null;
+      executor.execute(() -> {
+        DataOutputStream output = this.output;
+        this.output = null;
+        boolean stored = false;
+        if (output != null) {
+          try {
+            output.close();
+            stored = !writeFailed;
+          } catch (IOException e) {
+            Logger.warning("Unable to write rendered frames.", e);
+          }
+        }
+        if (stored) {
+          networkCache.commitFramesFile(fileKey);
+          stopWriting();
+          open();
+        } else {
+          networkCache.framesTempFile(fileKey).delete();
+          stopWriting();
+          state = CLOSED;
+        }
+      });
+    }
+
+    @WorkerThread
+    private void stopWriting() {
+      if (isWriter) {
+        isWriter = false;
+        writingFileKeys.remove(fileKey);
+      }
+    }
+
+    @WorkerThread
+    void release() {
+      DataOutputStream output = this.output;
+      this.output = null;
+      if (output != null) {
+        try {
+          output.close();
+        } catch (IOException e) {
+          // Do nothing.
+        }
+        networkCache.framesTempFile(fileKey).delete();
+      }
+      stopWriting();
+      synchronized (this) {
+        RandomAccessFile file = this.file;
+        this.file = null;
+        if (file != null) {
+          try {
+            file.close();
+          } catch (IOException e) {
+            // Do nothing.
+          }
+        }
+        decodedFrames.clear();
+        // Not recycled because a view's display list may still draw them.
+        reusableBitmaps.clear();
+      }
+    }
+  }
+}
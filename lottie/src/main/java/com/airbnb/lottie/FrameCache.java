@@ -0,0 +1,148 @@
+package com.airbnb.lottie;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import androidx.annotation.VisibleForTesting;
+import androidx.collection.SparseArrayCompat;
+
+import com.airbnb.lottie.animation.LPaint;
+import com.airbnb.lottie.model.layer.CompositionLayer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Every frame of a composition, rendered once into a bitmap at the size it is drawn at on screen and drawn from that
+ * bitmap whenever the animation reaches that frame again.
+ * <p>
+ * Frames are cached per whole composition frame so an animation that is drawn in between frames shows the nearest
+ * one. Once the byte budget is used up, frames that aren't cached yet are not drawn from the cache. Cached frames of
+ * the same size are never evicted for them because a looping animation would evict each frame right before it is
+ * drawn again. When a new size is drawn, the sizes that were drawn least recently are evicted to make room for it.
+ *
+ * @see LottieDrawable#setFrameCachingEnabled(boolean)
+ */
+class FrameCache {
+  /**
+   * The frames of each size, in the order they were last drawn in.
+   */
+  private final List<Frames> sizes = new ArrayList<>();
+  private final Matrix canvasMatrix = new Matrix();
+  private final Matrix renderMatrix = new Matrix();
+  private final RectF deviceBounds = new RectF();
+  private final Canvas renderCanvas = new Canvas();
+  private final Paint paint = new LPaint(Paint.FILTER_BITMAP_FLAG);
+  private int maxBytes;
+  private int byteCount;
+  private int renderCount;
+
+  FrameCache(int maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Draws the cached frame at the bounds of the canvas's drawable. If the frame isn't cached yet, the layers are set
+   * to the frame and rendered into a new bitmap first.
+   *
+   * @param frame the frame of the composition to draw.
+   * @return false if the frame has to be drawn directly because it isn't cached and doesn't fit in the budget.
+   */
+  boolean draw(Canvas canvas, CompositionLayer compositionLayer, LottieComposition composition, Rect bounds, int alpha,
+      float frame) {
+    Rect compositionBounds = composition.getBounds();
+    if (bounds.isEmpty() || compositionBounds.isEmpty()) {
+      return false;
+    }
+    //noinspection deprecation
+    canvas.getMatrix(canvasMatrix);
+    deviceBounds.set(bounds);
+    canvasMatrix.mapRect(deviceBounds);
+    int width = (int) Math.ceil(deviceBounds.width());
+    int height = (int) Math.ceil(deviceBounds.height());
+    if (width <= 0 || height <= 0) {
+      return false;
+    }
+
+    Frames frames = getFrames(width, height);
+    int frameNumber = Math.round(frame);
+    Bitmap bitmap = frames.bitmaps.get(frameNumber);
+    if (bitmap == null) {
+      int frameBytes = frames.getFrameByteCount();
+      if (byteCount + frameBytes > maxBytes) {
+        return false;
+      }
+      bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+      byteCount += frameBytes;
+      renderCanvas.setBitmap(bitmap);
+      renderMatrix.setScale(width / (float) compositionBounds.width(), height / (float) compositionBounds.height());
+      compositionLayer.setProgress(composition.getProgressForFrame(frameNumber));
+      compositionLayer.draw(renderCanvas, renderMatrix, 255);
+      renderCanvas.setBitmap(null);
+      frames.bitmaps.put(frameNumber, bitmap);
+      renderCount++;
+    }
+
+    paint.setAlpha(alpha);
+    canvas.drawBitmap(bitmap, null, bounds, paint);
+    return true;
+  }
+
+  private Frames getFrames(int width, int height) {
+    for (int i = sizes.size() - 1; i >= 0; i--) {
+      Frames frames = sizes.get(i);
+      if (frames.width == width && frames.height == height) {
+        sizes.remove(i);
+        sizes.add(frames);
+        return frames;
+      }
+    }
+    Frames frames = new Frames(width, height);
+    while (!sizes.isEmpty() && byteCount + frames.getFrameByteCount() > maxBytes) {
+      // Not recycled because a view's display list may still draw them.
+      Frames evicted = sizes.remove(0);
+      byteCount -= evicted.getFrameByteCount() * evicted.bitmaps.size();
+    }
+    sizes.add(frames);
+    return frames;
+  }
+
+  void setMaxBytes(int maxBytes) {
+    this.maxBytes = maxBytes;
+    if (byteCount > maxBytes) {
+      clear();
+    }
+  }
+
+  void clear() {
+    sizes.clear();
+    byteCount = 0;
+  }
+
+  /**
+   * The number of frames that were rendered rather than drawn from a bitmap that was already rendered.
+   */
+  @VisibleForTesting
+  int getRenderCount() {
+    return renderCount;
+  }
+
+  private static class Frames {
+    final int width;
+    final int height;
+    final SparseArrayCompat<Bitmap> bitmaps = new SparseArrayCompat<>();
+
+    Frames(int width, int height) {
+      this.width = width;
+      this.height = height;
+    }
+
+    int getFrameByteCount() {
+      return width * height * 4;
+    }
+  }
+}
@@ -23,8 +23,10 @@ public class L {
 
   private static boolean traceEnabled = false;
   private static boolean networkCacheEnabled = true;
+  private static long networkCacheMaxBytes = NetworkCache.DEFAULT_MAX_BYTES;
   private static boolean disablePathInterpolatorCache = true;
   private static AsyncUpdates defaultAsyncUpdates = AsyncUpdates.AUTOMATIC;
+  private static boolean lazyPrecompParsing = false;
 
   private static LottieNetworkFetcher fetcher;
   private static LottieNetworkCacheProvider cacheProvider;
@@ -54,6 +56,14 @@ public class L {
     networkCacheEnabled = enabled;
   }
 
+  public static void setNetworkCacheMaxBytes(long maxBytes) {
+    networkCacheMaxBytes = maxBytes;
+    NetworkCache local = networkCache;
+    if (local != null) {
+      local.setMaxBytes(maxBytes);
+    }
+  }
+
   public static void beginSection(String section) {
     if (!traceEnabled) {
       return;
@@ -121,7 +131,8 @@ public class L {
         local = networkCache;
         if (local == null) {
           networkCache = local = new NetworkCache(cacheProvider != null ? cacheProvider :
-              () -> new File(appContext.getCacheDir(), "lottie_network_cache"));
+              () -> new File(appContext.getCacheDir(), "lottie_network_cache"), networkCacheMaxBytes,
+              NetworkCache.DEFAULT_REVALIDATE_AFTER_MILLIS);
         }
       }
     }
@@ -143,4 +154,12 @@ public class L {
   public static AsyncUpdates getDefaultAsyncUpdates() {
     return L.defaultAsyncUpdates;
   }
+
+  public static void setLazyPrecompParsing(boolean lazyPrecompParsing) {
+    L.lazyPrecompParsing = lazyPrecompParsing;
+  }
+
+  public static boolean getLazyPrecompParsing() {
+    return lazyPrecompParsing;
+  }
 }
@@ -2,6 +2,8 @@ package com.airbnb.lottie;
 
 import androidx.annotation.NonNull;
 
+import com.airbnb.lottie.manager.BitmapPool;
+
 /**
  * Class for initializing the library with custom config
  */
@@ -20,7 +22,12 @@ public class Lottie {
     L.setCacheProvider(lottieConfig.cacheProvider);
     L.setTraceEnabled(lottieConfig.enableSystraceMarkers);
     L.setNetworkCacheEnabled(lottieConfig.enableNetworkCache);
+    L.setNetworkCacheMaxBytes(lottieConfig.networkCacheMaxBytes);
     L.setDisablePathInterpolatorCache(lottieConfig.disablePathInterpolatorCache);
     L.setDefaultAsyncUpdates(lottieConfig.defaultAsyncUpdates);
+    L.setLazyPrecompParsing(lottieConfig.enableLazyPrecompParsing);
+    if (lottieConfig.bitmapPoolMaxBytes > 0) {
+      BitmapPool.getInstance().setMaxBytes(lottieConfig.bitmapPoolMaxBytes);
+    }
   }
 }
@@ -7,6 +7,8 @@ import android.content.res.ColorStateList;
 import android.content.res.TypedArray;
 import android.graphics.Bitmap;
 import android.graphics.ColorFilter;
+import android.graphics.Rect;
+import android.graphics.RectF;
 import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
@@ -25,6 +27,7 @@ import androidx.annotation.RawRes;
 import androidx.annotation.RequiresApi;
 import androidx.appcompat.content.res.AppCompatResources;
 import androidx.appcompat.widget.AppCompatImageView;
+import androidx.core.view.ViewCompat;
 import com.airbnb.lottie.model.KeyPath;
 import com.airbnb.lottie.utils.Logger;
 import com.airbnb.lottie.utils.Utils;
@@ -129,6 +132,12 @@ import java.util.zip.ZipInputStream;
    * However, this causes the drawable to get unscheduled briefly. Normally, we would pause the animation but in this case, we don't want to.
    */
   private boolean ignoreUnschedule = false;
+  /**
+   * True while the drawable invalidates the view. It already knows what changed in that case.
+   */
+  private boolean isInvalidatingDrawable = false;
+  private final RectF dirtyRect = new RectF();
+  private final Rect dirtyBounds = new Rect();
 
   private boolean autoPlay = false;
   private boolean cacheComposition = true;
@@ -297,7 +306,7 @@ import java.util.zip.ZipInputStream;
   @Override public void invalidate() {
     super.invalidate();
     Drawable d = getDrawable();
-    if (d instanceof LottieDrawable && ((LottieDrawable) d).getRenderMode() == RenderMode.SOFTWARE) {
+    if (!isInvalidatingDrawable && d instanceof LottieDrawable && ((LottieDrawable) d).getRenderMode() == RenderMode.SOFTWARE) {
       // This normally isn't needed. However, when using software rendering, Lottie caches rendered bitmaps
       // and updates it when the animation changes internally.
       // If you have dynamic properties with a value callback and want to update the value of the dynamic property, you need a way
@@ -309,15 +318,40 @@ import java.util.zip.ZipInputStream;
 
   @Override public void invalidateDrawable(@NonNull Drawable dr) {
     if (getDrawable() == lottieDrawable) {
-      // We always want to invalidate the root drawable so it redraws the whole drawable.
-      // Eventually it would be great to be able to invalidate just the changed region.
-      super.invalidateDrawable(lottieDrawable);
+      isInvalidatingDrawable = true;
+      try {
+        Rect drawableDirtyBounds = lottieDrawable.getDirtyBounds();
+        if (drawableDirtyBounds.equals(lottieDrawable.getBounds())) {
+          // ImageView always redraws the whole drawable.
+          super.invalidateDrawable(lottieDrawable);
+        } else {
+          // Software rendering only rendered the area where the layers changed again.
+          invalidateDrawableArea(drawableDirtyBounds);
+        }
+      } finally {
+        isInvalidatingDrawable = false;
+      }
     } else {
       // Otherwise work as regular ImageView
       super.invalidateDrawable(dr);
     }
   }
 
+  /**
+   * Maps an area of the drawable to the view the way that ImageView draws it and invalidates it.
+   */
+  @SuppressWarnings("deprecation")
+  private void invalidateDrawableArea(Rect area) {
+    if (area.isEmpty()) {
+      return;
+    }
+    dirtyRect.set(area);
+    getImageMatrix().mapRect(dirtyRect);
+    dirtyRect.offset(getPaddingLeft(), getPaddingTop());
+    dirtyRect.roundOut(dirtyBounds);
+    invalidate(dirtyBounds);
+  }
+
   @Override protected Parcelable onSaveInstanceState() {
     Parcelable superState = super.onSaveInstanceState();
     SavedState ss = new SavedState(superState);
@@ -369,6 +403,17 @@ import java.util.zip.ZipInputStream;
     if (!isInEditMode() && autoPlay) {
       lottieDrawable.playAnimation();
     }
+    if (compositionTask != null) {
+      // Load animations that are about to be shown before those that aren't.
+      compositionTask.setPriority(LottieTaskPriority.HIGH);
+    }
+  }
+
+  @Override protected void onDetachedFromWindow() {
+    super.onDetachedFromWindow();
+    if (compositionTask != null) {
+      compositionTask.setPriority(LottieTaskPriority.LOW);
+    }
   }
 
   /**
@@ -626,6 +671,10 @@ import java.util.zip.ZipInputStream;
   }
 
   private void setCompositionTask(LottieTask<LottieComposition> compositionTask) {
+    if (compositionTask == this.compositionTask) {
+      // The same animation is still loading and its listeners are already added.
+      return;
+    }
     LottieResult<LottieComposition> result = compositionTask.getResult();
     LottieDrawable lottieDrawable = this.lottieDrawable;
     if (result != null && lottieDrawable == getDrawable() && lottieDrawable.getComposition() == result.getValue()) {
@@ -635,6 +684,7 @@ import java.util.zip.ZipInputStream;
     clearComposition();
     cancelLoaderTask();
     this.compositionTask = compositionTask
+        .setPriority(ViewCompat.isAttachedToWindow(this) ? LottieTaskPriority.HIGH : LottieTaskPriority.NORMAL)
         .addListener(loadedListener)
         .addFailureListener(wrappedFailureListener);
   }
@@ -643,6 +693,10 @@ import java.util.zip.ZipInputStream;
     if (compositionTask != null) {
       compositionTask.removeListener(loadedListener);
       compositionTask.removeFailureListener(wrappedFailureListener);
+      // Other views may be waiting for the same task. It is only cancelled, interrupting its parsing or fetching,
+      // if nothing else was handed it.
+      compositionTask.cancelIfUnused();
+      compositionTask = null;
     }
   }
 
@@ -985,11 +1039,37 @@ import java.util.zip.ZipInputStream;
     return lottieDrawable.getMaintainOriginalImageBounds();
   }
 
+  /**
+   * Decodes the bitmaps of every image asset in the composition in parallel on a background thread so that
+   * they don't have to be decoded synchronously the first time they are drawn.
+   *
+   * @see LottieDrawable#prefetchImages()
+   */
+  public void prefetchImages() {
+    lottieDrawable.prefetchImages();
+  }
+
+  /**
+   * Sets a bitmap that is drawn in place of images that are still being decoded after {@link #prefetchImages()}.
+   * If null, those image layers are skipped until their images have been decoded.
+   */
+  public void setImagePlaceholder(@Nullable Bitmap imagePlaceholder) {
+    lottieDrawable.setImagePlaceholder(imagePlaceholder);
+  }
+
+  @Nullable
+  public Bitmap getImagePlaceholder() {
+    return lottieDrawable.getImagePlaceholder();
+  }
+
   /**
    * Allows you to modify or clear a bitmap that was loaded for an image either automatically
    * through {@link #setImageAssetsFolder(String)} or with an {@link ImageAssetDelegate}.
    *
-   * @return the previous Bitmap or null.
+   * @return the previous Bitmap or null. Bitmaps that were loaded from the images folder may be shared with other
+   * animations so they aren't returned. With {@link AsyncUpdates}, null is also returned if a frame was being rendered
+   * in the background because that frame may still draw the previous bitmap. The new bitmap is drawn from the next
+   * frame on either way.
    */
   @Nullable
   public Bitmap updateBitmap(String id, @Nullable Bitmap bitmap) {
@@ -1261,6 +1341,22 @@ import java.util.zip.ZipInputStream;
     lottieDrawable.setClipTextToBoundingBox(clipTextToBoundingBox);
   }
 
+  /**
+   * Draws the layers of another drawable at that drawable's progress instead of loading and building a separate
+   * copy of the animation for this view. Set the source to null to stop.
+   *
+   * @see LottieDrawable#setPlaybackSource(LottieDrawable)
+   */
+  public void setPlaybackSource(@Nullable LottieDrawable source) {
+    // A pending load would replace the source's composition.
+    cancelLoaderTask();
+    lottieDrawable.setCallback(this);
+    lottieDrawable.setPlaybackSource(source);
+    if (getDrawable() != lottieDrawable) {
+      setLottieDrawable();
+    }
+  }
+
   /**
    * This API no longer has any effect.
    */
@@ -16,6 +16,7 @@ import com.airbnb.lottie.model.Font;
 import com.airbnb.lottie.model.FontCharacter;
 import com.airbnb.lottie.model.Marker;
 import com.airbnb.lottie.model.layer.Layer;
+import com.airbnb.lottie.parser.LottieCompositionMoshiParser;
 import com.airbnb.lottie.parser.moshi.JsonReader;
 import com.airbnb.lottie.utils.Logger;
 import com.airbnb.lottie.utils.MiscUtils;
@@ -26,6 +27,7 @@ import org.json.JSONObject;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +47,13 @@ public class LottieComposition {
   private final PerformanceTracker performanceTracker = new PerformanceTracker();
   private final HashSet<String> warnings = new HashSet<>();
   private Map<String, List<Layer>> precomps;
+  /**
+   * Precomps whose layers haven't been parsed yet. Each one is parsed the first time it is needed and its raw bytes are
+   * released then. Null once there are none left.
+   *
+   * @see LottieConfig.Builder#setEnableLazyPrecompParsing(boolean)
+   */
+  @Nullable private volatile Map<String, JsonReader.Deferred> deferredPrecomps;
   private Map<String, LottieImageAsset> images;
   private float imagesDpScale;
   /**
@@ -70,6 +79,12 @@ public class LottieComposition {
    * was only faster until you had ~4 masks after which it would actually become slower.
    */
   private int maskAndMatteCount = 0;
+  /**
+   * Counts of parsed objects that are used to estimate how much memory the composition retains.
+   */
+  private int layerCount = 0;
+  private int keyframeCount = 0;
+  private int shapeVertexCount = 0;
 
   private int unscaledWidth;
   private int unscaledHeight;
@@ -96,6 +111,11 @@ public class LottieComposition {
     this.unscaledHeight = unscaledHeight;
   }
 
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public void setDeferredPrecomps(Map<String, JsonReader.Deferred> deferredPrecomps) {
+    this.deferredPrecomps = deferredPrecomps.isEmpty() ? null : deferredPrecomps;
+  }
+
   @RestrictTo(RestrictTo.Scope.LIBRARY)
   public void addWarning(String warning) {
     Logger.warning(warning);
@@ -112,6 +132,21 @@ public class LottieComposition {
     maskAndMatteCount += amount;
   }
 
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public void incrementLayerCount() {
+    layerCount++;
+  }
+
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public void incrementKeyframeCount(int amount) {
+    keyframeCount += amount;
+  }
+
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public void incrementShapeVertexCount(int amount) {
+    shapeVertexCount += amount;
+  }
+
   /**
    * Used to determine if an animation can be drawn with hardware acceleration.
    */
@@ -128,6 +163,24 @@ public class LottieComposition {
     return maskAndMatteCount;
   }
 
+  /**
+   * The number of layers that have been parsed, including those in precomps.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public int getLayerCount() {
+    return layerCount;
+  }
+
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public int getKeyframeCount() {
+    return keyframeCount;
+  }
+
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public int getShapeVertexCount() {
+    return shapeVertexCount;
+  }
+
   public ArrayList<String> getWarnings() {
     return new ArrayList<>(Arrays.asList(warnings.toArray(new String[warnings.size()])));
   }
@@ -182,7 +235,37 @@ public class LottieComposition {
   @RestrictTo(RestrictTo.Scope.LIBRARY)
   @Nullable
   public List<Layer> getPrecomps(String id) {
-    return precomps.get(id);
+    if (deferredPrecomps == null) {
+      return precomps.get(id);
+    }
+    synchronized (this) {
+      Map<String, JsonReader.Deferred> deferredPrecomps = this.deferredPrecomps;
+      JsonReader.Deferred deferred = deferredPrecomps == null ? null : deferredPrecomps.remove(id);
+      if (deferred != null) {
+        precomps.put(id, LottieCompositionMoshiParser.parsePrecompLayers(deferred, this));
+        if (deferredPrecomps.isEmpty()) {
+          // Written after the precomps so that readers that see null also see every parsed precomp.
+          this.deferredPrecomps = null;
+        }
+      }
+      return precomps.get(id);
+    }
+  }
+
+  /**
+   * Like {@link #getPrecomps(String)} but returns an empty list rather than parsing a deferred precomp.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  @Nullable
+  public List<Layer> getPrecompsIfParsed(String id) {
+    if (deferredPrecomps == null) {
+      return precomps.get(id);
+    }
+    synchronized (this) {
+      Map<String, JsonReader.Deferred> deferredPrecomps = this.deferredPrecomps;
+      return deferredPrecomps != null && deferredPrecomps.containsKey(id) ? Collections.<Layer>emptyList() :
+          precomps.get(id);
+    }
   }
 
   public SparseArrayCompat<FontCharacter> getCharacters() {
@@ -0,0 +1,95 @@
+package com.airbnb.lottie;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+/**
+ * A snapshot of the in-memory composition cache's counters.
+ * <p>
+ * Get one with {@link LottieCompositionFactory#getCacheStats()}.
+ */
+public final class LottieCompositionCacheStats {
+  private final long hitCount;
+  private final long missCount;
+  private final long putCount;
+  private final long evictionCount;
+  private final int entryCount;
+  private final int size;
+  private final int maxSize;
+  private final boolean sizeInBytes;
+
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public LottieCompositionCacheStats(long hitCount, long missCount, long putCount, long evictionCount, int entryCount,
+      int size, int maxSize, boolean sizeInBytes) {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.putCount = putCount;
+    this.evictionCount = evictionCount;
+    this.entryCount = entryCount;
+    this.size = size;
+    this.maxSize = maxSize;
+    this.sizeInBytes = sizeInBytes;
+  }
+
+  /**
+   * The number of times a cache key was found in the cache.
+   */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * The number of times a cache key wasn't found in the cache.
+   */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  public long getPutCount() {
+    return putCount;
+  }
+
+  /**
+   * The number of compositions that were dropped to stay within the maximum size or because the cache was cleared.
+   */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * The number of compositions in the cache.
+   */
+  public int getEntryCount() {
+    return entryCount;
+  }
+
+  /**
+   * The total size of the cached compositions. This is their estimated size in bytes if {@link #isSizeInBytes()} or
+   * the number of compositions otherwise.
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * The maximum size of the cache in the same unit as {@link #getSize()}.
+   */
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Whether the cache's size is measured in estimated bytes rather than the number of compositions.
+   *
+   * @see LottieCompositionFactory#setMaxCacheBytes(int)
+   */
+  public boolean isSizeInBytes() {
+    return sizeInBytes;
+  }
+
+  @NonNull @Override public String toString() {
+    return "LottieCompositionCacheStats{hits=" + hitCount + ", misses=" + missCount + ", puts=" + putCount +
+        ", evictions=" + evictionCount + ", entries=" + entryCount + ", size=" + size + "/" + maxSize +
+        (sizeInBytes ? " bytes" : " compositions") + "}";
+  }
+}
@@ -14,12 +14,15 @@ import android.util.Base64;
 
 import androidx.annotation.Nullable;
 import androidx.annotation.RawRes;
+import androidx.annotation.RestrictTo;
 import androidx.annotation.WorkerThread;
 
 import com.airbnb.lottie.model.Font;
+import com.airbnb.lottie.manager.BitmapPool;
 import com.airbnb.lottie.model.LottieCompositionCache;
 import com.airbnb.lottie.network.NetworkCache;
 import com.airbnb.lottie.parser.LottieCompositionMoshiParser;
+import com.airbnb.lottie.parser.moshi.JsonBinaryWriter;
 import com.airbnb.lottie.parser.moshi.JsonReader;
 import com.airbnb.lottie.utils.Logger;
 import com.airbnb.lottie.utils.Utils;
@@ -28,25 +31,33 @@ import org.json.JSONObject;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
+import okio.BufferedSink;
 import okio.BufferedSource;
 import okio.Okio;
+import okio.Sink;
 import okio.Source;
 
 /**
@@ -64,8 +75,11 @@ public class LottieCompositionFactory {
    * Without this, simultaneous requests to parse a composition will trigger multiple parallel
    * parse tasks prior to the cache getting populated.
    */
-  private static final Map<String, LottieTask<LottieComposition>> taskCache = new HashMap<>();
-  private static final Set<LottieTaskIdleListener> taskIdleListeners = new HashSet<>();
+  /**
+   * Tasks that are loading a composition by cache key so that concurrent loads of the same animation share one task.
+   */
+  private static final Map<String, LottieTask<LottieComposition>> taskCache = new ConcurrentHashMap<>();
+  private static final Set<LottieTaskIdleListener> taskIdleListeners = new CopyOnWriteArraySet<>();
 
   /**
    * reference magic bytes for zip compressed files.
@@ -73,6 +87,10 @@ public class LottieCompositionFactory {
    */
   private static final byte[] ZIP_MAGIC = new byte[]{0x50, 0x4b, 0x03, 0x04};
   private static final byte[] GZIP_MAGIC = new byte[]{0x1f, (byte) 0x8b, 0x08};
+  /**
+   * "LOTB", the magic bytes written by {@link #convertJsonToBinarySync(Source, Sink)}.
+   */
+  private static final byte[] BINARY_MAGIC = new byte[]{0x4c, 0x4f, 0x54, 0x42};
 
 
   private LottieCompositionFactory() {
@@ -86,6 +104,24 @@ public class LottieCompositionFactory {
     LottieCompositionCache.getInstance().resize(size);
   }
 
+  /**
+   * Limit the compositions kept cached in memory by their estimated size in bytes rather than by their number.
+   * A composition's size is estimated from its layers, keyframes, shape data and the bitmaps of its image assets
+   * when it is cached. This must be {@literal >} 0.
+   * <p>
+   * Calling {@link #setMaxCacheSize(int)} afterwards limits the cache by the number of compositions again.
+   */
+  public static void setMaxCacheBytes(int maxBytes) {
+    LottieCompositionCache.getInstance().resizeBytes(maxBytes);
+  }
+
+  /**
+   * Returns the hit, miss and eviction counts and the current size of the in-memory composition cache.
+   */
+  public static LottieCompositionCacheStats getCacheStats() {
+    return LottieCompositionCache.getInstance().getStats();
+  }
+
   public static void clearCache(Context context) {
     taskCache.clear();
     LottieCompositionCache.getInstance().clear();
@@ -230,6 +266,8 @@ public class LottieCompositionFactory {
         return fromZipStreamSync(context, new ZipInputStream(source.inputStream()), cacheKey);
       } else if (isGzipCompressed(source)) {
         return fromJsonInputStreamSync(new GZIPInputStream(source.inputStream()), cacheKey);
+      } else if (isBinary(source)) {
+        return fromBinarySourceSync(source, cacheKey);
       }
       return fromJsonReaderSync(JsonReader.of(source), cacheKey);
     } catch (IOException e) {
@@ -311,6 +349,8 @@ public class LottieCompositionFactory {
           // This shouldn't happen because we check the header for magic bytes.
           return new LottieResult<>(e);
         }
+      } else if (isBinary(source)) {
+        return fromBinarySourceSync(source, cacheKey);
       }
       return fromJsonReaderSync(JsonReader.of(source), cacheKey);
     } catch (Resources.NotFoundException e) {
@@ -456,6 +496,101 @@ public class LottieCompositionFactory {
     }
   }
 
+  /**
+   * @see #fromBinaryFileSync(File, String)
+   */
+  public static LottieTask<LottieComposition> fromBinaryFile(final File file, @Nullable final String cacheKey) {
+    return cache(cacheKey, () -> fromBinaryFileSync(file, cacheKey), null);
+  }
+
+  /**
+   * Parse an animation that was precompiled with {@link #convertJsonToBinarySync(Source, Sink)}.
+   * The file is memory mapped rather than read so only the parts of it that are parsed are paged in.
+   */
+  @WorkerThread
+  public static LottieResult<LottieComposition> fromBinaryFileSync(File file, @Nullable String cacheKey) {
+    final LottieComposition cachedComposition = cacheKey == null ? null : LottieCompositionCache.getInstance().get(cacheKey);
+    if (cachedComposition != null) {
+      return new LottieResult<>(cachedComposition);
+    }
+    FileInputStream stream = null;
+    try {
+      stream = new FileInputStream(file);
+      FileChannel channel = stream.getChannel();
+      // The mapping stays valid after the channel is closed.
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return fromJsonReaderSyncInternal(JsonReader.ofBinary(buffer), cacheKey, true);
+    } catch (IOException e) {
+      return new LottieResult<>(e);
+    } finally {
+      closeQuietly(stream);
+    }
+  }
+
+  /**
+   * @see #fromBinaryBytesSync(byte[], String)
+   */
+  public static LottieTask<LottieComposition> fromBinaryBytes(final byte[] bytes, @Nullable final String cacheKey) {
+    return cache(cacheKey, () -> fromBinaryBytesSync(bytes, cacheKey), null);
+  }
+
+  /**
+   * Parse an animation that was precompiled with {@link #convertJsonToBinarySync(Source, Sink)}.
+   */
+  @WorkerThread
+  public static LottieResult<LottieComposition> fromBinaryBytesSync(byte[] bytes, @Nullable String cacheKey) {
+    final LottieComposition cachedComposition = cacheKey == null ? null : LottieCompositionCache.getInstance().get(cacheKey);
+    if (cachedComposition != null) {
+      return new LottieResult<>(cachedComposition);
+    }
+    try {
+      return fromJsonReaderSyncInternal(JsonReader.ofBinary(ByteBuffer.wrap(bytes)), cacheKey, true);
+    } catch (IOException e) {
+      return new LottieResult<>(e);
+    }
+  }
+
+  /**
+   * Parse an animation that was precompiled with {@link #convertJsonToBinarySync(Source, Sink)}.
+   * The source is read fully and closed. Prefer {@link #fromBinaryFileSync(File, String)} for files.
+   */
+  @WorkerThread
+  public static LottieResult<LottieComposition> fromBinarySourceSync(Source source, @Nullable String cacheKey) {
+    final LottieComposition cachedComposition = cacheKey == null ? null : LottieCompositionCache.getInstance().get(cacheKey);
+    if (cachedComposition != null) {
+      closeQuietly(source);
+      return new LottieResult<>(cachedComposition);
+    }
+    try {
+      return fromBinaryBytesSync(buffer(source).readByteArray(), cacheKey);
+    } catch (IOException e) {
+      return new LottieResult<>(e);
+    } finally {
+      closeQuietly(source);
+    }
+  }
+
+  /**
+   * Converts a json animation into Lottie's precompiled binary format. The binary form contains the same
+   * data but is pre-tokenized so it can be parsed without scanning text, unescaping strings or parsing numbers.
+   * It can be loaded with {@link #fromBinaryFile(File, String)}, {@link #fromBinaryBytes(byte[], String)} or
+   * automatically from assets and raw resources.
+   * <p>
+   * This doesn't depend on any Android APIs so it can also run as part of a build to precompile assets.
+   * Both the source and the sink are closed.
+   */
+  @WorkerThread
+  public static void convertJsonToBinarySync(Source json, Sink binary) throws IOException {
+    JsonReader reader = JsonReader.of(buffer(json));
+    BufferedSink sink = buffer(binary);
+    try {
+      JsonBinaryWriter.transcode(reader, sink);
+    } finally {
+      closeQuietly(reader);
+      closeQuietly(sink);
+    }
+  }
+
   /**
    * In this overload, embedded fonts will NOT be parsed. If your zip file has custom fonts, use the overload
    * that takes Context as the first parameter.
@@ -555,7 +690,8 @@ public class LottieCompositionFactory {
   @WorkerThread
   private static LottieResult<LottieComposition> fromZipStreamSyncInternal(@Nullable Context context, ZipInputStream inputStream, @Nullable String cacheKey) {
     LottieComposition composition = null;
-    Map<String, Bitmap> images = new HashMap<>();
+    // Images are decoded once the composition has been parsed and the size they are drawn at is known.
+    Map<String, byte[]> images = new HashMap<>();
     Map<String, Typeface> fonts = new HashMap<>();
 
     try {
@@ -573,11 +709,11 @@ public class LottieCompositionFactory {
         } else if (entry.getName().contains(".json")) {
           JsonReader reader = JsonReader.of(buffer(source(inputStream)));
           composition = LottieCompositionFactory.fromJsonReaderSyncInternal(reader, null, false).getValue();
-        } else if (entryName.contains(".png") || entryName.contains(".webp") || entryName.contains(".jpg") || entryName.contains(".jpeg")) {
+        } else if (isZipImage(entryName)) {
           String[] splitName = entryName.split("/");
           String name = splitName[splitName.length - 1];
-          images.put(name, BitmapFactory.decodeStream(inputStream));
-        } else if (entryName.contains(".ttf") || entryName.contains(".otf")) {
+          images.put(name, buffer(source(inputStream)).readByteArray());
+        } else if (isZipFont(entryName)) {
           String[] splitName = entryName.split("/");
           String fileName = splitName[splitName.length - 1];
           String fontFamily = fileName.split("\\.")[0];
@@ -619,10 +755,10 @@ public class LottieCompositionFactory {
       return new LottieResult<>(new IllegalArgumentException("Unable to parse composition"));
     }
 
-    for (Map.Entry<String, Bitmap> e : images.entrySet()) {
+    for (Map.Entry<String, byte[]> e : images.entrySet()) {
       LottieImageAsset imageAsset = findImageAssetForFileName(composition, e.getKey());
       if (imageAsset != null) {
-        imageAsset.setBitmap(Utils.resizeBitmapIfNeeded(e.getValue(), imageAsset.getWidth(), imageAsset.getHeight()));
+        imageAsset.setBitmap(decodeImage(e.getValue(), imageAsset));
       }
     }
 
@@ -646,10 +782,6 @@ public class LottieCompositionFactory {
           return null;
         }
         String filename = asset.getFileName();
-        BitmapFactory.Options opts = new BitmapFactory.Options();
-        opts.inScaled = true;
-        opts.inDensity = 160;
-
         if (filename.startsWith("data:") && filename.indexOf("base64,") > 0) {
           // Contents look like a base64 data URI, with the format data:image/png;base64,<data>.
           byte[] data;
@@ -659,11 +791,156 @@ public class LottieCompositionFactory {
             Logger.warning("data URL did not have correct base64 format.", e);
             return null;
           }
-          Bitmap bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, opts);
-          bitmap = Utils.resizeBitmapIfNeeded(bitmap, asset.getWidth(), asset.getHeight());
-          asset.setBitmap(bitmap);
+          asset.setBitmap(decodeImage(data, asset));
+        }
+      }
+    }
+
+    if (cacheKey != null) {
+      LottieCompositionCache.getInstance().put(cacheKey, composition);
+    }
+    return new LottieResult<>(composition);
+  }
+
+  /**
+   * Decodes an image at the size of its asset. The zip stream can't be read again so the bitmap is owned by the
+   * asset rather than cached in the {@link BitmapPool}, but it is still sampled down and may reuse a pooled bitmap.
+   */
+  @Nullable
+  private static Bitmap decodeImage(byte[] data, LottieImageAsset asset) {
+    try {
+      return BitmapPool.getInstance().decode(opts -> BitmapFactory.decodeByteArray(data, 0, data.length, opts),
+          asset.getWidth(), asset.getHeight());
+    } catch (IOException | IllegalArgumentException e) {
+      Logger.warning("Unable to decode image `" + asset.getId() + "`.", e);
+      return null;
+    }
+  }
+
+  /**
+   * @see #fromZipFileSync(Context, File, String)
+   */
+  public static LottieTask<LottieComposition> fromZipFile(@Nullable Context context, final File file, @Nullable final String cacheKey) {
+    return cache(cacheKey, () -> fromZipFileSync(context, file, cacheKey), null);
+  }
+
+  /**
+   * Parses a zip or .lottie file into a Lottie composition.
+   * <p>
+   * Unlike {@link #fromZipStreamSync(Context, ZipInputStream, String)}, the file is read through its central directory
+   * so only the animation json and fonts are read up front. Images are read from the file the first time they are
+   * drawn, so the file must not be deleted or modified while the composition is in use.
+   *
+   * @param context is optional and only needed if your zip file contains ttf or otf fonts. If yours doesn't, you may pass null.
+   */
+  @WorkerThread
+  public static LottieResult<LottieComposition> fromZipFileSync(@Nullable Context context, File file, @Nullable String cacheKey) {
+    return fromZipFileSyncInternal(context, file, null, cacheKey, true);
+  }
+
+  /**
+   * Like {@link #fromZipFileSync(Context, File, String)} but for a file in the network cache, which may be evicted or
+   * replaced while the composition is still in use. Its images are decoded right away rather than when they are first
+   * drawn. If a binary file that was converted with {@link #convertZipToBinarySync(File, Sink)} is given, the animation
+   * json is parsed from it rather than from the zip file.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  @WorkerThread
+  public static LottieResult<LottieComposition> fromCachedZipFileSync(@Nullable Context context, File file, @Nullable File binaryFile,
+      @Nullable String cacheKey) {
+    return fromZipFileSyncInternal(context, file, binaryFile, cacheKey, false);
+  }
+
+  @WorkerThread
+  private static LottieResult<LottieComposition> fromZipFileSyncInternal(@Nullable Context context, File file, @Nullable File binaryFile,
+      @Nullable String cacheKey, boolean decodeImagesLazily) {
+    final LottieComposition cachedComposition = cacheKey == null ? null : LottieCompositionCache.getInstance().get(cacheKey);
+    if (cachedComposition != null) {
+      return new LottieResult<>(cachedComposition);
+    }
+
+    LottieComposition composition = null;
+    if (binaryFile != null) {
+      LottieResult<LottieComposition> result = fromBinaryFileSync(binaryFile, null);
+      if (result.getException() != null) {
+        return result;
+      }
+      composition = result.getValue();
+    }
+    Map<String, String> imageEntries = new HashMap<>();
+    Map<String, String> fontEntries = new HashMap<>();
+    ZipFile zipFile = null;
+    try {
+      zipFile = new ZipFile(file);
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        String entryName = entry.getName();
+        if (isIgnoredZipEntry(entry)) {
+          continue;
+        }
+        String[] splitName = entryName.split("/");
+        String fileName = splitName[splitName.length - 1];
+        if (entryName.contains(".json")) {
+          if (composition != null) {
+            continue;
+          }
+          JsonReader reader = JsonReader.of(buffer(source(zipFile.getInputStream(entry))));
+          LottieResult<LottieComposition> result = fromJsonReaderSyncInternal(reader, null, true);
+          if (result.getException() != null) {
+            return result;
+          }
+          composition = result.getValue();
+        } else if (isZipImage(entryName)) {
+          imageEntries.put(fileName, entryName);
+        } else if (isZipFont(entryName)) {
+          fontEntries.put(fileName.split("\\.")[0], entryName);
+        }
+      }
+
+      if (composition == null) {
+        return new LottieResult<>(new IllegalArgumentException("Unable to parse composition"));
+      }
+
+      for (Map.Entry<String, String> e : imageEntries.entrySet()) {
+        LottieImageAsset imageAsset = findImageAssetForFileName(composition, e.getKey());
+        if (imageAsset == null) {
+          continue;
+        }
+        String entryName = e.getValue();
+        if (decodeImagesLazily) {
+          imageAsset.setBitmapSource(opts -> decodeZipImage(file, entryName, opts));
+        } else {
+          imageAsset.setBitmap(decodeZipImage(zipFile, entryName, imageAsset));
+        }
+      }
+
+      if (!fontEntries.isEmpty() && context == null) {
+        return new LottieResult<>(new IllegalStateException("Unable to extract fonts from " + file.getName() +
+            " please pass a non-null Context parameter"));
+      }
+      // Fonts are loaded now rather than when they are first drawn because extracting them takes file I/O.
+      for (Map.Entry<String, String> e : fontEntries.entrySet()) {
+        String fontFamily = e.getKey();
+        Typeface typeface = null;
+        boolean found = false;
+        for (Font font : composition.getFonts().values()) {
+          if (font.getFamily().equals(fontFamily)) {
+            if (!found) {
+              typeface = loadZipFont(context.getCacheDir(), zipFile, file, e.getValue());
+              found = true;
+            }
+            font.setTypeface(typeface);
+          }
+        }
+        if (!found) {
+          Logger.warning("Found font for " + fontFamily + " however it was not found in the animation.");
         }
       }
+    } catch (IOException e) {
+      return new LottieResult<>(e);
+    } finally {
+      closeZipFile(zipFile);
     }
 
     if (cacheKey != null) {
@@ -672,6 +949,137 @@ public class LottieCompositionFactory {
     return new LottieResult<>(composition);
   }
 
+  /**
+   * Converts the animation json in a zip or .lottie file into Lottie's precompiled binary format.
+   * Only the json is converted. Images and fonts stay in the zip file.
+   *
+   * @see #convertJsonToBinarySync(Source, Sink)
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  @WorkerThread
+  public static void convertZipToBinarySync(File file, Sink binary) throws IOException {
+    ZipFile zipFile = null;
+    try {
+      zipFile = new ZipFile(file);
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        if (!isIgnoredZipEntry(entry) && entry.getName().contains(".json")) {
+          convertJsonToBinarySync(source(zipFile.getInputStream(entry)), binary);
+          return;
+        }
+      }
+      throw new FileNotFoundException("Unable to find an animation in " + file.getName() + ".");
+    } finally {
+      closeQuietly(binary);
+      closeZipFile(zipFile);
+    }
+  }
+
+  @Nullable
+  private static Bitmap decodeZipImage(File file, String entryName, BitmapFactory.Options opts) throws IOException {
+    ZipFile zipFile = new ZipFile(file);
+    try {
+      return decodeZipEntry(zipFile, entryName, opts);
+    } finally {
+      closeZipFile(zipFile);
+    }
+  }
+
+  /**
+   * Decodes an image at the size of its asset. The bitmap is owned by the asset rather than cached in the
+   * {@link BitmapPool} because the file may not be there anymore when the pool needs it again.
+   */
+  @Nullable
+  private static Bitmap decodeZipImage(ZipFile zipFile, String entryName, LottieImageAsset asset) {
+    try {
+      return BitmapPool.getInstance().decode(opts -> decodeZipEntry(zipFile, entryName, opts),
+          asset.getWidth(), asset.getHeight());
+    } catch (IOException | IllegalArgumentException e) {
+      Logger.warning("Unable to decode image `" + asset.getId() + "`.", e);
+      return null;
+    }
+  }
+
+  @Nullable
+  private static Bitmap decodeZipEntry(ZipFile zipFile, String entryName, BitmapFactory.Options opts) throws IOException {
+    ZipEntry entry = zipFile.getEntry(entryName);
+    if (entry == null) {
+      throw new FileNotFoundException("Unable to find " + entryName + " in " + zipFile.getName() + ".");
+    }
+    InputStream inputStream = zipFile.getInputStream(entry);
+    try {
+      return BitmapFactory.decodeStream(inputStream, null, opts);
+    } finally {
+      closeQuietly(inputStream);
+    }
+  }
+
+  /**
+   * Typefaces can only be created from files so the font is extracted to a temporary file first.
+   */
+  @Nullable
+  private static Typeface loadZipFont(File cacheDir, ZipFile zipFile, File file, String entryName) {
+    File tempFile = null;
+    try {
+      ZipEntry entry = zipFile.getEntry(entryName);
+      if (entry == null) {
+        Logger.warning("Unable to find font " + entryName + " in " + file.getName() + ".");
+        return null;
+      }
+      String extension = entryName.substring(entryName.lastIndexOf('.'));
+      tempFile = File.createTempFile("lottie_font", extension, cacheDir);
+      InputStream inputStream = zipFile.getInputStream(entry);
+      try (OutputStream output = new FileOutputStream(tempFile)) {
+        byte[] buffer = new byte[4 * 1024];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+          output.write(buffer, 0, read);
+        }
+        output.flush();
+      } finally {
+        closeQuietly(inputStream);
+      }
+      return Typeface.createFromFile(tempFile);
+    } catch (IOException | RuntimeException e) {
+      Logger.warning("Unable to load font " + entryName + " from " + file.getName() + ".", e);
+      return null;
+    } finally {
+      if (tempFile != null && !tempFile.delete()) {
+        Logger.warning("Failed to delete temp font file " + tempFile.getAbsolutePath() + ".");
+      }
+    }
+  }
+
+  /**
+   * ZipFile isn't {@link java.io.Closeable} before API 19.
+   */
+  private static void closeZipFile(@Nullable ZipFile zipFile) {
+    if (zipFile == null) {
+      return;
+    }
+    try {
+      zipFile.close();
+    } catch (IOException ignored) {
+    }
+  }
+
+  /**
+   * Directories, macOS metadata and the .lottie manifest.
+   */
+  private static boolean isIgnoredZipEntry(ZipEntry entry) {
+    String entryName = entry.getName();
+    return entry.isDirectory() || entryName.contains("__MACOSX") || entryName.equalsIgnoreCase("manifest.json");
+  }
+
+  private static boolean isZipImage(String entryName) {
+    return entryName.contains(".png") || entryName.contains(".webp") || entryName.contains(".jpg") || entryName.contains(".jpeg");
+  }
+
+  private static boolean isZipFont(String entryName) {
+    return entryName.contains(".ttf") || entryName.contains(".otf");
+  }
+
   /**
    * Check if a given InputStream points to a .zip compressed file
    */
@@ -686,6 +1094,13 @@ public class LottieCompositionFactory {
     return matchesMagicBytes(inputSource, GZIP_MAGIC);
   }
 
+  /**
+   * Check if a given InputStream points to a precompiled binary animation
+   */
+  private static Boolean isBinary(BufferedSource inputSource) {
+    return matchesMagicBytes(inputSource, BINARY_MAGIC);
+  }
+
   private static Boolean matchesMagicBytes(BufferedSource inputSource, byte[] magic) {
     try {
       BufferedSource peek = inputSource.peek();
@@ -722,49 +1137,44 @@ public class LottieCompositionFactory {
    */
   private static LottieTask<LottieComposition> cache(@Nullable final String cacheKey, Callable<LottieResult<LottieComposition>> callable,
       @Nullable Runnable onCached) {
-    LottieTask<LottieComposition> task = null;
     final LottieComposition cachedComposition = cacheKey == null ? null : LottieCompositionCache.getInstance().get(cacheKey);
     if (cachedComposition != null) {
-      task = new LottieTask<>(cachedComposition);
-    }
-    if (cacheKey != null && taskCache.containsKey(cacheKey)) {
-      task = taskCache.get(cacheKey);
-    }
-    if (task != null) {
       if (onCached != null) {
         onCached.run();
       }
-      return task;
+      return new LottieTask<>(cachedComposition);
+    }
+    if (cacheKey == null) {
+      return new LottieTask<>(callable);
     }
 
-    task = new LottieTask<>(callable);
-    if (cacheKey != null) {
-      AtomicBoolean resultAlreadyCalled = new AtomicBoolean(false);
-      task.addListener(result -> {
-        taskCache.remove(cacheKey);
-        resultAlreadyCalled.set(true);
-        if (taskCache.size() == 0) {
-          notifyTaskCacheIdleListeners(true);
-        }
-      });
-      task.addFailureListener(result -> {
-        taskCache.remove(cacheKey);
-        resultAlreadyCalled.set(true);
-        if (taskCache.size() == 0) {
-          notifyTaskCacheIdleListeners(true);
-        }
-      });
-      // It is technically possible for the task to finish and for the listeners to get called
-      // before this code runs. If this happens, the task will be put in taskCache but never removed.
-      // This would require this thread to be sleeping at exactly this point in the code
-      // for long enough for the task to finish and call the listeners. Unlikely but not impossible.
-      if (!resultAlreadyCalled.get()) {
-        taskCache.put(cacheKey, task);
-        if (taskCache.size() == 1) {
-          notifyTaskCacheIdleListeners(false);
+    LottieTask<LottieComposition> task = taskCache.get(cacheKey);
+    if (task == null || task.isCancelled()) {
+      // Only creating the task is serialized so that two threads can't both start loading the same animation.
+      synchronized (taskCache) {
+        task = taskCache.get(cacheKey);
+        if (task == null || task.isCancelled()) {
+          task = new LottieTask<>(callable);
+          taskCache.put(cacheKey, task);
+          if (taskCache.size() == 1) {
+            notifyTaskCacheIdleListeners(false);
+          }
+          LottieTask<LottieComposition> newTask = task;
+          // Runs once the task completes or is cancelled because nothing uses it anymore.
+          task.addCompletionCallback(() -> {
+            if (taskCache.remove(cacheKey, newTask) && taskCache.isEmpty()) {
+              notifyTaskCacheIdleListeners(true);
+            }
+          });
+          return task;
         }
       }
     }
+    // Cancelling it for one caller would cancel it for this one too.
+    task.addHolder();
+    if (onCached != null) {
+      onCached.run();
+    }
     return task;
   }
 
@@ -5,6 +5,7 @@ import androidx.annotation.Nullable;
 
 import com.airbnb.lottie.network.LottieNetworkCacheProvider;
 import com.airbnb.lottie.network.LottieNetworkFetcher;
+import com.airbnb.lottie.network.NetworkCache;
 
 import java.io.File;
 
@@ -21,16 +22,22 @@ public class LottieConfig {
   final boolean enableNetworkCache;
   final boolean disablePathInterpolatorCache;
   final AsyncUpdates defaultAsyncUpdates;
+  final boolean enableLazyPrecompParsing;
+  final long bitmapPoolMaxBytes;
+  final long networkCacheMaxBytes;
 
   private LottieConfig(@Nullable LottieNetworkFetcher networkFetcher, @Nullable LottieNetworkCacheProvider cacheProvider,
       boolean enableSystraceMarkers, boolean enableNetworkCache, boolean disablePathInterpolatorCache,
-      AsyncUpdates defaultAsyncUpdates) {
+      AsyncUpdates defaultAsyncUpdates, boolean enableLazyPrecompParsing, long bitmapPoolMaxBytes, long networkCacheMaxBytes) {
     this.networkFetcher = networkFetcher;
     this.cacheProvider = cacheProvider;
     this.enableSystraceMarkers = enableSystraceMarkers;
     this.enableNetworkCache = enableNetworkCache;
     this.disablePathInterpolatorCache = disablePathInterpolatorCache;
     this.defaultAsyncUpdates = defaultAsyncUpdates;
+    this.enableLazyPrecompParsing = enableLazyPrecompParsing;
+    this.bitmapPoolMaxBytes = bitmapPoolMaxBytes;
+    this.networkCacheMaxBytes = networkCacheMaxBytes;
   }
 
   public static final class Builder {
@@ -43,6 +50,9 @@ public class LottieConfig {
     private boolean enableNetworkCache = true;
     private boolean disablePathInterpolatorCache = true;
     private AsyncUpdates defaultAsyncUpdates = AsyncUpdates.AUTOMATIC;
+    private boolean enableLazyPrecompParsing = false;
+    private long bitmapPoolMaxBytes = 0;
+    private long networkCacheMaxBytes = NetworkCache.DEFAULT_MAX_BYTES;
 
     /**
      * Lottie has a default network fetching stack built on {@link java.net.HttpURLConnection}. However, if you would like to hook into your own
@@ -95,6 +105,21 @@ public class LottieConfig {
       return this;
     }
 
+    /**
+     * The maximum number of bytes of animations to keep in the network cache. Once it is full, the animations that were
+     * used least recently are deleted.
+     * <p>
+     * Defaults to 20MB.
+     */
+    @NonNull
+    public Builder setNetworkCacheMaxBytes(long maxBytes) {
+      if (maxBytes <= 0) {
+        throw new IllegalArgumentException("maxBytes must be > 0");
+      }
+      networkCacheMaxBytes = maxBytes;
+      return this;
+    }
+
     /**
      * Enable this if you want to run systrace to debug the performance of animations.
      * <p/>
@@ -141,10 +166,47 @@ public class LottieConfig {
       return this;
     }
 
+    /**
+     * When enabled, the layers of each precomp are not parsed along with the rest of the composition. Instead, their
+     * location in the file is recorded and they are parsed the first time a layer that references them is created.
+     * Precomps that are never used or are only used by hidden layers are never parsed at all.
+     * <p>
+     * This trades a faster initial parse and a smaller composition for some parsing work when the composition is first
+     * set on a {@link LottieDrawable}. Mattes, masks and dash patterns inside of a deferred precomp aren't known until
+     * it is parsed so {@link RenderMode#AUTOMATIC} may not account for them.
+     * <p>
+     * Until a precomp is parsed, the composition keeps its raw bytes: a copy of its json or, for binary animations,
+     * the whole binary document. A composition whose precomps all end up being used therefore holds more memory until
+     * the last one is parsed than one that was parsed eagerly. Each precomp's bytes are released once it is parsed.
+     * <p>
+     * This is disabled by default.
+     */
+    @NonNull
+    public Builder setEnableLazyPrecompParsing(boolean enable) {
+      enableLazyPrecompParsing = enable;
+      return this;
+    }
+
+    /**
+     * Image assets that are loaded from the images folder or embedded in the animation are decoded once and shared by
+     * every animation that shows them. Once no animation is showing them, they stay in memory until this many bytes of
+     * images are cached. Memory pressure from the system drops them sooner.
+     * <p>
+     * Defaults to an eighth of the maximum heap size.
+     */
+    @NonNull
+    public Builder setBitmapPoolMaxBytes(long maxBytes) {
+      if (maxBytes <= 0) {
+        throw new IllegalArgumentException("maxBytes must be > 0");
+      }
+      bitmapPoolMaxBytes = maxBytes;
+      return this;
+    }
+
     @NonNull
     public LottieConfig build() {
       return new LottieConfig(networkFetcher, cacheProvider, enableSystraceMarkers, enableNetworkCache, disablePathInterpolatorCache,
-          defaultAsyncUpdates);
+          defaultAsyncUpdates, enableLazyPrecompParsing, bitmapPoolMaxBytes, networkCacheMaxBytes);
     }
   }
 }
@@ -10,6 +10,7 @@ import android.graphics.ColorFilter;
 import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.PixelFormat;
+import android.graphics.PorterDuff;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Typeface;
@@ -31,6 +32,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
 
 import com.airbnb.lottie.animation.LPaint;
 import com.airbnb.lottie.manager.FontAssetManager;
@@ -39,9 +41,9 @@ import com.airbnb.lottie.model.Font;
 import com.airbnb.lottie.model.KeyPath;
 import com.airbnb.lottie.model.Marker;
 import com.airbnb.lottie.model.layer.CompositionLayer;
+import com.airbnb.lottie.network.NetworkCache;
 import com.airbnb.lottie.parser.LayerParser;
 import com.airbnb.lottie.utils.Logger;
-import com.airbnb.lottie.utils.LottieThreadFactory;
 import com.airbnb.lottie.utils.LottieValueAnimator;
 import com.airbnb.lottie.utils.MiscUtils;
 import com.airbnb.lottie.value.LottieFrameInfo;
@@ -49,6 +51,7 @@ import com.airbnb.lottie.value.LottieValueCallback;
 import com.airbnb.lottie.value.SimpleLottieValueCallback;
 
 import java.lang.annotation.Retention;
+import java.lang.ref.WeakReference;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -56,14 +59,17 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executor;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Semaphore;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 /**
  * This can be used to show an lottie animation in any place that would normally take a drawable.
+ * <p>
+ * With software rendering, only the area where the layers changed is rendered again and reported by
+ * {@link #getDirtyBounds()} so that the view only redraws that area. Hardware accelerated views redraw all of their
+ * display list no matter what area is invalidated, so the damage isn't tracked for hardware rendering.
  *
  * @see <a href="http://airbnb.io/lottie">Full Documentation</a>
  */
@@ -140,18 +146,53 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
   @Nullable String defaultFontFileExtension;
   @Nullable
   FontAssetDelegate fontAssetDelegate;
+  /**
+   * Text layers read this once per frame so it can be swapped while a background thread renders them.
+   */
   @Nullable
-  TextDelegate textDelegate;
+  volatile TextDelegate textDelegate;
   private final LottieFeatureFlags lottieFeatureFlags = new LottieFeatureFlags();
+  @Nullable private Bitmap imagePlaceholder;
   private boolean maintainOriginalImageBounds = false;
   private boolean clipToCompositionBounds = true;
   @Nullable
   private CompositionLayer compositionLayer;
+  /**
+   * The drawable whose layers and progress this drawable draws instead of its own.
+   *
+   * @see #setPlaybackSource(LottieDrawable)
+   */
+  @Nullable private LottieDrawable playbackSource;
+  /**
+   * The drawables that draw this drawable's layers. They are weakly referenced so that a drawable that is no longer
+   * used doesn't have to be detached from its source to be garbage collected.
+   */
+  private final List<WeakReference<LottieDrawable>> playbackFollowers = new CopyOnWriteArrayList<>();
+  /**
+   * Non-null when frame sharing is enabled.
+   *
+   * @see #setFrameSharingEnabled(boolean)
+   */
+  @Nullable private SharedFrameCache sharedFrameCache;
+  @Nullable private FrameCache frameCache;
+  @Nullable private DiskFrameCache diskFrameCache;
+  private int frameCacheMaxBytes = 8 * 1024 * 1024;
+  /**
+   * Changes every time this drawable is invalidated so that shared frames know when they are out of date.
+   */
+  private volatile int frameGeneration;
   private int alpha = 255;
   private boolean performanceTrackingEnabled;
   private boolean outlineMasksAndMattes;
   private boolean isApplyingOpacityToLayersEnabled;
   private boolean clipTextToBoundingBox = false;
+  private boolean staticLayerCachingEnabled = true;
+  /**
+   * The memory used by the bitmaps of static layers.
+   *
+   * @see #setStaticLayerCachingEnabled(boolean)
+   */
+  private int staticLayerCacheBytes;
 
   private RenderMode renderMode = RenderMode.AUTOMATIC;
   /**
@@ -170,6 +211,34 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
   private RectF softwareRenderingTransformedBounds;
   private Matrix softwareRenderingOriginalCanvasMatrix;
   private Matrix softwareRenderingOriginalCanvasMatrixInverse;
+  /**
+   * The matrix that the software rendering bitmap was last rendered with.
+   */
+  private Matrix softwareRenderingLastMatrix;
+  private Matrix softwareRenderingDamageMatrix;
+  private RectF softwareRenderingDamage;
+  private Rect softwareRenderingDamageRect;
+  /**
+   * The area of the composition where the layers changed since the software rendering bitmap was last rendered, as far
+   * as it was known when the drawable was invalidated.
+   *
+   * @see #getDirtyBounds()
+   */
+  private final RectF invalidatedDamage = new RectF();
+  private final Rect dirtyBounds = new Rect();
+  /**
+   * True if something other than the layers changed since the software rendering bitmap was last rendered so all of
+   * it has to be rendered again rather than only where the layers changed.
+   */
+  private boolean isFullyDamaged = true;
+  /**
+   * The thread that is setting the progress of the layers. While it does, their invalidations are coalesced into one
+   * that is flushed once all of them are set.
+   *
+   * @see #setLayerProgress(CompositionLayer, float)
+   */
+  @Nullable private volatile Thread layerProgressThread;
+  private boolean hasPendingLayerInvalidation;
 
   /**
    * True if the drawable has not been drawn since the last invalidateSelf.
@@ -181,14 +250,17 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
   /** Use the getter so that it can fall back to {@link L#getDefaultAsyncUpdates()}. */
   @Nullable private AsyncUpdates asyncUpdates;
   private final ValueAnimator.AnimatorUpdateListener progressUpdateListener = animation -> {
-    if (getAsyncUpdatesEnabled()) {
+    if (cachesFrames()) {
+      // The layers are only set to a frame when it isn't cached yet, which draw takes care of.
+      invalidateSelf();
+    } else if (getAsyncUpdatesEnabled()) {
       // Render a new frame.
       // If draw is called while lastDrawnProgress is still recent enough, it will
       // draw straight away and then enqueue a background setProgress immediately after draw
       // finishes.
       invalidateSelf();
     } else if (compositionLayer != null) {
-      compositionLayer.setProgress(animator.getAnimatedValueAbsolute());
+      setLayerProgress(compositionLayer, animator.getAnimatedValueAbsolute());
     }
   };
 
@@ -199,20 +271,12 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
    */
   private final Semaphore setProgressDrawLock = new Semaphore(1);
   /**
-   * The executor that {@link AsyncUpdates} will be run on.
-   * <p/>
-   * Defaults to a core size of 0 so that when no animations are playing, there will be no
-   * idle cores consuming resources.
-   * <p/>
-   * Allows up to two active threads so that if there are many animations, they can all work in parallel.
-   * Two was arbitrarily chosen but should be sufficient for most uses cases. In the case of a single
-   * animation, this should never exceed one.
-   * <p/>
-   * Each thread will timeout after 35ms which gives it enough time to persist for one frame, one dropped frame
-   * and a few extra ms just in case.
+   * Changes to what the layers draw that were made while a background thread was evaluating or rendering them. The
+   * next thread that holds {@link #setProgressDrawLock} applies them before it uses the layers.
+   *
+   * @see #updateLayers(Runnable)
    */
-  private static final Executor setProgressExecutor = new ThreadPoolExecutor(0, 2, 35, TimeUnit.MILLISECONDS,
-      new LinkedBlockingQueue<>(), new LottieThreadFactory());
+  private final Queue<Runnable> pendingLayerUpdates = new ConcurrentLinkedQueue<>();
   private Handler mainThreadHandler;
   private Runnable invalidateSelfRunnable;
 
@@ -223,19 +287,43 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
     }
     try {
       setProgressDrawLock.acquire();
-      compositionLayer.setProgress(animator.getAnimatedValueAbsolute());
+      applyPendingLayerUpdates(compositionLayer);
+      setLayerProgress(compositionLayer, animator.getAnimatedValueAbsolute());
       // Refer to invalidateSelfOnMainThread for more info.
       if (invalidateSelfOnMainThread && isDirty) {
-        if (mainThreadHandler == null) {
-          mainThreadHandler = new Handler(Looper.getMainLooper());
-          invalidateSelfRunnable = () -> {
-            final Callback callback = getCallback();
-            if (callback != null) {
-              callback.invalidateDrawable(this);
-            }
-          };
-        }
-        mainThreadHandler.post(invalidateSelfRunnable);
+        postInvalidateSelfToMainThread();
+      }
+    } catch (InterruptedException e) {
+      // Do nothing.
+    } finally {
+      setProgressDrawLock.release();
+    }
+  };
+  private final AsyncUpdateScheduler.Update progressUpdate = new AsyncUpdateScheduler.Update(this, updateProgressRunnable);
+
+  /**
+   * The bitmaps that software rendering draws with {@link AsyncUpdates} so that draw doesn't wait for the layers.
+   *
+   * @see #usesAsyncFrameBuffer(LottieDrawable)
+   */
+  @Nullable private AsyncFrameBuffer asyncFrameBuffer;
+  private final Runnable updateAsyncFrameBufferRunnable = () -> {
+    CompositionLayer compositionLayer = this.compositionLayer;
+    LottieComposition composition = this.composition;
+    AsyncFrameBuffer asyncFrameBuffer = this.asyncFrameBuffer;
+    if (compositionLayer == null || composition == null || asyncFrameBuffer == null) {
+      return;
+    }
+    try {
+      // Only other drawing paths that draw the layers directly wait for this.
+      setProgressDrawLock.acquire();
+      applyPendingLayerUpdates(compositionLayer);
+      float progress = animator.getAnimatedValueAbsolute();
+      if (compositionLayer.getProgress() != progress) {
+        setLayerProgress(compositionLayer, progress);
+      }
+      if (asyncFrameBuffer.render(compositionLayer, composition, progress, frameGeneration)) {
+        postInvalidateSelfToMainThread();
       }
     } catch (InterruptedException e) {
       // Do nothing.
@@ -243,8 +331,14 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
       setProgressDrawLock.release();
     }
   };
+  private final AsyncUpdateScheduler.Update asyncFrameBufferUpdate =
+      new AsyncUpdateScheduler.Update(this, updateAsyncFrameBufferRunnable);
   private float lastDrawnProgress = -Float.MAX_VALUE;
   private static final float MAX_DELTA_MS_ASYNC_SET_PROGRESS = 3 / 60f * 1000;
+  /**
+   * The most memory that the bitmaps of static layers may use per drawable. Layers that don't fit are drawn directly.
+   */
+  private static final int MAX_STATIC_LAYER_CACHE_BYTES = 8 * 1024 * 1024;
 
   @IntDef({RESTART, REVERSE})
   @Retention(RetentionPolicy.SOURCE)
@@ -275,6 +369,7 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
    * Returns whether or not any layers in this composition has masks.
    */
   public boolean hasMasks() {
+    CompositionLayer compositionLayer = getPlayback().compositionLayer;
     return compositionLayer != null && compositionLayer.hasMasks();
   }
 
@@ -282,9 +377,263 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
    * Returns whether or not any layers in this composition has a matte layer.
    */
   public boolean hasMatte() {
+    CompositionLayer compositionLayer = getPlayback().compositionLayer;
     return compositionLayer != null && compositionLayer.hasMatte();
   }
 
+  /**
+   * Draws the layers of another drawable at that drawable's progress instead of building a separate copy of the
+   * animation for this one. Use this when the same animation is shown in many places at once, such as a sticker in
+   * every row of a list. All of them then share one copy of the animation's layers and update them once per frame
+   * instead of once per drawable.
+   * <p>
+   * Playback, progress, value callbacks, images, fonts and text are controlled by the source. The playback methods
+   * of this drawable have no effect while it has a source and {@link #addValueCallback(KeyPath, Object, LottieValueCallback)}
+   * applies to the source. Each drawable still has its own bounds, alpha and {@link RenderMode}.
+   * <p>
+   * The source doesn't have to be drawn itself. If it isn't attached to a view, it uses the context of one of the
+   * drawables that follow it to load images and fonts.
+   * <p>
+   * Set the source to null to build this drawable's own layers again. If this drawable has followers itself when it
+   * gets a source, they follow the new source from then on.
+   */
+  public void setPlaybackSource(@Nullable LottieDrawable source) {
+    if (source != null && source.playbackSource != null) {
+      // Follow the drawable that actually owns the layers.
+      source = source.playbackSource;
+    }
+    if (source == this) {
+      throw new IllegalArgumentException("A LottieDrawable can't be its own playback source.");
+    }
+    LottieDrawable previousSource = playbackSource;
+    if (previousSource == source) {
+      return;
+    }
+    if (previousSource != null) {
+      previousSource.removePlaybackFollower(this);
+    }
+    playbackSource = source;
+    if (source == null) {
+      buildCompositionLayer();
+      invalidateSelf();
+      return;
+    }
+    animator.cancel();
+    lazyCompositionTasks.clear();
+    onVisibleAction = OnVisibleAction.NONE;
+    // Also drops followers that were garbage collected.
+    source.removePlaybackFollower(this);
+    source.playbackFollowers.add(new WeakReference<>(this));
+    LottieComposition composition = source.composition;
+    if (composition == null || !setComposition(composition)) {
+      compositionLayer = null;
+      invalidateSelf();
+    }
+    // This drawable no longer has layers to draw for its followers so they follow the drawable that does.
+    for (WeakReference<LottieDrawable> reference : playbackFollowers) {
+      LottieDrawable follower = reference.get();
+      if (follower != null) {
+        follower.setPlaybackSource(source);
+      }
+    }
+    playbackFollowers.clear();
+  }
+
+  /**
+   * @see #setPlaybackSource(LottieDrawable)
+   */
+  @Nullable
+  public LottieDrawable getPlaybackSource() {
+    return playbackSource;
+  }
+
+  /**
+   * Renders each frame once into a bitmap that this drawable and the drawables that follow it with
+   * {@link #setPlaybackSource(LottieDrawable)} draw instead of each of them drawing the animation's layers. A frame
+   * is rendered for each size, in pixels, that the drawables are drawn at. This is worth it when several drawables
+   * show the same animation at the same size at once, such as a reaction in every row of a feed.
+   * <p>
+   * The frames are bitmaps at the size the drawables are drawn at on screen so they use more memory than drawing the
+   * layers directly. Setting this on a drawable that has a playback source sets it on its source.
+   * <p>
+   * Defaults to false.
+   */
+  public void setFrameSharingEnabled(boolean enabled) {
+    LottieDrawable source = playbackSource;
+    if (source != null) {
+      source.setFrameSharingEnabled(enabled);
+      return;
+    }
+    if (enabled == (sharedFrameCache != null)) {
+      return;
+    }
+    sharedFrameCache = enabled ? new SharedFrameCache() : null;
+    invalidateSelf();
+  }
+
+  /**
+   * @see #setFrameSharingEnabled(boolean)
+   */
+  public boolean isFrameSharingEnabled() {
+    return getPlayback().sharedFrameCache != null;
+  }
+
+  /**
+   * Renders each frame of the animation once, at the size it is drawn at, and draws it from a bitmap whenever the
+   * animation reaches that frame again. After the first loop, the layers are neither updated nor drawn. This is worth
+   * it for small animations that loop for a long time, such as spinners and badges.
+   * <p>
+   * Frames are cached per frame of the composition so the animation shows the nearest frame when it is drawn in
+   * between two of them. The frames use at most {@link #setFrameCacheMaxBytes(int)} bytes. Frames that don't fit are
+   * drawn directly. The cached frames are cleared when the composition, the value callbacks or other settings that
+   * change how the animation looks change. Value callbacks that return a different value for the same frame are not
+   * supported.
+   * <p>
+   * Setting this on a drawable that has a playback source sets it on its source. Defaults to false.
+   *
+   * @see #setFrameSharingEnabled(boolean)
+   */
+  public void setFrameCachingEnabled(boolean enabled) {
+    LottieDrawable source = playbackSource;
+    if (source != null) {
+      source.setFrameCachingEnabled(enabled);
+      return;
+    }
+    if (enabled == (frameCache != null)) {
+      return;
+    }
+    frameCache = enabled ? new FrameCache(frameCacheMaxBytes) : null;
+    onFrameCachingChanged();
+  }
+
+  private void onFrameCachingChanged() {
+    CompositionLayer compositionLayer = this.compositionLayer;
+    if (!cachesFrames() && compositionLayer != null) {
+      // The layers may still be on the frame that was cached last.
+      setLayerProgress(compositionLayer, animator.getAnimatedValueAbsolute());
+    }
+    invalidateSelf();
+  }
+
+  /**
+   * @see #setFrameCachingEnabled(boolean)
+   */
+  public boolean isFrameCachingEnabled() {
+    return getPlayback().frameCache != null;
+  }
+
+  /**
+   * The maximum number of bytes that the frames of {@link #setFrameCachingEnabled(boolean)} may use. A frame uses
+   * four bytes per pixel that the animation is drawn at.
+   * <p>
+   * Defaults to 8MB.
+   */
+  public void setFrameCacheMaxBytes(int maxBytes) {
+    LottieDrawable source = playbackSource;
+    if (source != null) {
+      source.setFrameCacheMaxBytes(maxBytes);
+      return;
+    }
+    frameCacheMaxBytes = maxBytes;
+    if (frameCache != null) {
+      frameCache.setMaxBytes(maxBytes);
+    }
+  }
+
+  /**
+   * @see #setFrameCacheMaxBytes(int)
+   */
+  public int getFrameCacheMaxBytes() {
+    return getPlayback().frameCacheMaxBytes;
+  }
+
+  /**
+   * Stores the frames that this drawable renders on disk, in the network cache, under the given key so that later
+   * launches of the app draw them from there instead of drawing the animation's layers. This is worth it for
+   * animations that are expensive to draw and shown at the same size on every launch.
+   * <p>
+   * The frames are rendered and written to disk in the background the first time the animation plays through at a
+   * size. After that, each frame is read from disk and the next few frames are decoded ahead of time. Frames are
+   * stored per frame of the composition so the animation shows the nearest frame when it is drawn in between two of
+   * them. The stored frames count towards {@link LottieConfig.Builder#setNetworkCacheMaxBytes(long)} and are evicted
+   * with the least recently used animations.
+   * <p>
+   * The key has to be different for every version of the animation and every set of value callbacks, text or images
+   * that makes it look different, such as the url of the animation and a version number. Frames are only stored while
+   * the drawable is in a {@link View} and the network cache is enabled. This takes precedence over
+   * {@link #setFrameCachingEnabled(boolean)}.
+   * <p>
+   * Setting this on a drawable that has a playback source sets it on its source. Set it to null to stop using the
+   * stored frames.
+   */
+  public void setDiskFrameCacheKey(@Nullable String key) {
+    LottieDrawable source = playbackSource;
+    if (source != null) {
+      source.setDiskFrameCacheKey(key);
+      return;
+    }
+    DiskFrameCache diskFrameCache = this.diskFrameCache;
+    if (diskFrameCache == null ? key == null : diskFrameCache.getKey().equals(key)) {
+      return;
+    }
+    if (diskFrameCache != null) {
+      diskFrameCache.close();
+    }
+    this.diskFrameCache = key == null ? null : new DiskFrameCache(key);
+    onFrameCachingChanged();
+  }
+
+  /**
+   * @see #setDiskFrameCacheKey(String)
+   */
+  @Nullable
+  public String getDiskFrameCacheKey() {
+    DiskFrameCache diskFrameCache = getPlayback().diskFrameCache;
+    return diskFrameCache == null ? null : diskFrameCache.getKey();
+  }
+
+  /**
+   * The drawable whose layers and progress are drawn by this one.
+   */
+  private LottieDrawable getPlayback() {
+    LottieDrawable source = playbackSource;
+    return source == null ? this : source;
+  }
+
+  private void removePlaybackFollower(LottieDrawable follower) {
+    for (WeakReference<LottieDrawable> reference : playbackFollowers) {
+      LottieDrawable drawable = reference.get();
+      if (drawable == null || drawable == follower) {
+        playbackFollowers.remove(reference);
+      }
+    }
+  }
+
+  private void invalidatePlaybackFollowers() {
+    for (int i = 0; i < playbackFollowers.size(); i++) {
+      LottieDrawable follower = playbackFollowers.get(i).get();
+      if (follower != null) {
+        follower.invalidateSelf();
+      }
+    }
+  }
+
+  /**
+   * Like {@link #invalidatePlaybackFollowers()} for followers whose invalidation couldn't be dispatched because it
+   * happened off of the main thread.
+   *
+   * @see #invalidateSelfOnMainThread
+   */
+  private void invalidatePlaybackFollowerCallbacks() {
+    for (int i = 0; i < playbackFollowers.size(); i++) {
+      LottieDrawable follower = playbackFollowers.get(i).get();
+      Callback callback = follower == null ? null : follower.getCallback();
+      if (callback != null && follower.isDirty) {
+        callback.invalidateDrawable(follower);
+      }
+    }
+  }
+
   @Deprecated
   public boolean enableMergePathsForKitKatAndAbove() {
     return lottieFeatureFlags.isFlagEnabled(LottieFeatureFlag.MergePathsApi19);
@@ -344,6 +693,7 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
       if (compositionLayer != null) {
         compositionLayer.setClipToCompositionBounds(clipToCompositionBounds);
       }
+      clearCachedFrames();
       invalidateSelf();
     }
   }
@@ -389,6 +739,7 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
    */
   public void setMaintainOriginalImageBounds(boolean maintainOriginalImageBounds) {
     this.maintainOriginalImageBounds = maintainOriginalImageBounds;
+    clearCachedFrames();
   }
 
   /**
@@ -401,6 +752,45 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
     return maintainOriginalImageBounds;
   }
 
+  /**
+   * Decodes the bitmaps of every image asset in the composition in parallel on a background thread so that
+   * they don't have to be decoded synchronously the first time they are drawn.
+   * <p>
+   * Until an image has been decoded, its layer draws the bitmap set with {@link #setImagePlaceholder(Bitmap)}
+   * or isn't drawn at all. Images provided by an {@link ImageAssetDelegate} aren't prefetched.
+   */
+  public void prefetchImages() {
+    if (composition == null) {
+      lazyCompositionTasks.add(c -> prefetchImages());
+      return;
+    }
+    ImageAssetManager assetManager = getImageAssetManager();
+    if (assetManager == null) {
+      return;
+    }
+    Handler handler = new Handler(Looper.getMainLooper());
+    assetManager.prefetchBitmaps(LottieTask.EXECUTOR, () -> handler.post(this::invalidateSelf));
+  }
+
+  /**
+   * Sets a bitmap that is drawn, at the size of the original image, in place of images that are still being
+   * decoded after {@link #prefetchImages()}. If null, those image layers are skipped until their images have
+   * been decoded.
+   * <p>
+   * Defaults to null.
+   */
+  public void setImagePlaceholder(@Nullable Bitmap imagePlaceholder) {
+    this.imagePlaceholder = imagePlaceholder;
+    if (imageAssetManager != null) {
+      imageAssetManager.setPlaceholder(imagePlaceholder);
+    }
+  }
+
+  @Nullable
+  public Bitmap getImagePlaceholder() {
+    return imagePlaceholder;
+  }
+
   /**
    * Create a composition with {@link LottieCompositionFactory}
    *
@@ -443,6 +833,13 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
       ((ImageView) callback).setImageDrawable(this);
     }
 
+    for (int i = 0; i < playbackFollowers.size(); i++) {
+      LottieDrawable follower = playbackFollowers.get(i).get();
+      if (follower != null) {
+        follower.setComposition(composition);
+      }
+    }
+
     return true;
   }
 
@@ -535,6 +932,7 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
     if (compositionLayer != null) {
       compositionLayer.setOutlineMasksAndMattes(outline);
     }
+    clearCachedFrames();
   }
 
   @Nullable
@@ -560,6 +958,66 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
    */
   public void setApplyingOpacityToLayersEnabled(boolean isApplyingOpacityToLayersEnabled) {
     this.isApplyingOpacityToLayersEnabled = isApplyingOpacityToLayersEnabled;
+    if (compositionLayer != null) {
+      compositionLayer.invalidateStaticContent();
+    }
+    clearCachedFrames();
+  }
+
+  /**
+   * Layers that are the same on every frame, such as backgrounds and logos, are rendered into a bitmap once and drawn
+   * from it on later frames instead of drawing all of their shapes, masks and mattes again. A layer is drawn from a
+   * bitmap when none of its properties are animated and none of them have value callbacks. The bitmap is rendered
+   * again when the scale the animation is drawn at changes.
+   * <p>
+   * The bitmaps of each drawable use at most 8MB. Layers that are larger than the canvas or don't fit are drawn
+   * directly.
+   * <p>
+   * Defaults to true.
+   */
+  public void setStaticLayerCachingEnabled(boolean enabled) {
+    if (staticLayerCachingEnabled == enabled) {
+      return;
+    }
+    staticLayerCachingEnabled = enabled;
+    if (compositionLayer != null) {
+      compositionLayer.invalidateStaticContent();
+    }
+    invalidateSelf();
+  }
+
+  /**
+   * @see #setStaticLayerCachingEnabled(boolean)
+   */
+  public boolean isStaticLayerCachingEnabled() {
+    return staticLayerCachingEnabled;
+  }
+
+  /**
+   * Reserves memory for the bitmap of a static layer.
+   *
+   * @return false if the bitmap would exceed the drawable's budget and the layer should be drawn directly.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public boolean reserveStaticLayerCacheBytes(int bytes) {
+    if (staticLayerCacheBytes + bytes > MAX_STATIC_LAYER_CACHE_BYTES) {
+      return false;
+    }
+    staticLayerCacheBytes += bytes;
+    return true;
+  }
+
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public void releaseStaticLayerCacheBytes(int bytes) {
+    staticLayerCacheBytes = Math.max(0, staticLayerCacheBytes - bytes);
+  }
+
+  /**
+   * Changes every time anything this drawable draws may have changed.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public int getFrameGeneration() {
+    return frameGeneration;
   }
 
   /**
@@ -569,6 +1027,38 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
   public void disableExtraScaleModeInFitXY() {
   }
 
+  @VisibleForTesting
+  int getSharedFrameRenderCount() {
+    return sharedFrameCache == null ? 0 : sharedFrameCache.getRenderCount();
+  }
+
+  @VisibleForTesting
+  int getCachedFrameRenderCount() {
+    return frameCache == null ? 0 : frameCache.getRenderCount();
+  }
+
+  @VisibleForTesting
+  int getAsyncFrameRenderCount() {
+    AsyncFrameBuffer asyncFrameBuffer = this.asyncFrameBuffer;
+    return asyncFrameBuffer == null ? 0 : asyncFrameBuffer.getRenderCount();
+  }
+
+  /**
+   * Clears the frames of {@link #setFrameCachingEnabled(boolean)} after something that isn't animated but changes
+   * how the animation looks has changed.
+   */
+  void clearCachedFrames() {
+    if (frameCache != null) {
+      frameCache.clear();
+    }
+    if (asyncFrameBuffer != null) {
+      asyncFrameBuffer.clear();
+    }
+    if (diskFrameCache != null) {
+      diskFrameCache.close();
+    }
+  }
+
   public boolean isApplyingOpacityToLayersEnabled() {
     return isApplyingOpacityToLayersEnabled;
   }
@@ -587,15 +1077,19 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
   public void setClipTextToBoundingBox(boolean clipTextToBoundingBox) {
     if (clipTextToBoundingBox != this.clipTextToBoundingBox) {
       this.clipTextToBoundingBox = clipTextToBoundingBox;
+      clearCachedFrames();
       invalidateSelf();
     }
   }
 
   private void buildCompositionLayer() {
     LottieComposition composition = this.composition;
-    if (composition == null) {
+    if (composition == null || playbackSource != null) {
+      // Drawables with a playback source draw the source's layers.
       return;
     }
+    staticLayerCacheBytes = 0;
+    clearCachedFrames();
     compositionLayer = new CompositionLayer(
         this, LayerParser.parse(composition), composition.getLayers(), composition);
     if (outlineMasksAndMattes) {
@@ -613,6 +1107,14 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
     }
     composition = null;
     compositionLayer = null;
+    staticLayerCacheBytes = 0;
+    if (sharedFrameCache != null) {
+      sharedFrameCache.clear();
+    }
+    clearCachedFrames();
+    if (imageAssetManager != null) {
+      imageAssetManager.releaseBitmaps();
+    }
     imageAssetManager = null;
     lastDrawnProgress = -Float.MAX_VALUE;
     animator.clearComposition();
@@ -633,7 +1135,28 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
 
   @Override
   public void invalidateSelf() {
-    if (isDirty) {
+    isFullyDamaged = true;
+    invalidateLayers();
+  }
+
+  /**
+   * Invalidates the drawable because the values of layers changed. Unlike {@link #invalidateSelf()}, software
+   * rendering only renders the area where the layers changed again.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public void invalidateLayers() {
+    if (layerProgressThread == Thread.currentThread()) {
+      hasPendingLayerInvalidation = true;
+      recordInvalidation(true);
+      return;
+    }
+    recordInvalidation(false);
+    frameGeneration++;
+    if (!playbackFollowers.isEmpty()) {
+      invalidatePlaybackFollowers();
+    }
+    // With dirty bounds, the view only redraws the area it was told about so it has to be told about every change.
+    if (isDirty && !reportsDirtyBounds()) {
       return;
     }
     isDirty = true;
@@ -648,6 +1171,201 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
     }
   }
 
+  /**
+   * Invalidates the drawable and its playback followers on the main thread once a background thread updated them.
+   */
+  private void postInvalidateSelfToMainThread() {
+    if (mainThreadHandler == null) {
+      mainThreadHandler = new Handler(Looper.getMainLooper());
+      invalidateSelfRunnable = () -> {
+        final Callback callback = getCallback();
+        if (callback != null) {
+          callback.invalidateDrawable(this);
+        }
+        invalidatePlaybackFollowerCallbacks();
+      };
+    }
+    mainThreadHandler.post(invalidateSelfRunnable);
+  }
+
+  /**
+   * Whether draw only draws the front bitmap of {@link #asyncFrameBuffer} while the layers are evaluated and rendered
+   * on a background thread. That is the case for software rendering with {@link AsyncUpdates} unless other caches or
+   * drawables draw the layers too.
+   */
+  private boolean usesAsyncFrameBuffer(LottieDrawable playback) {
+    return playback == this && playbackFollowers.isEmpty() && useSoftwareRendering && getAsyncUpdatesEnabled() &&
+        !cachesFrames() && sharedFrameCache == null;
+  }
+
+  /**
+   * Draws the last frame that the background thread rendered and has it render the next one if it is out of date.
+   *
+   * @return false if no frame was rendered at this size yet and it has to be drawn directly this time.
+   */
+  private boolean drawFromAsyncFrameBuffer(Canvas canvas) {
+    AsyncFrameBuffer asyncFrameBuffer = this.asyncFrameBuffer;
+    if (asyncFrameBuffer == null) {
+      asyncFrameBuffer = new AsyncFrameBuffer();
+      this.asyncFrameBuffer = asyncFrameBuffer;
+    }
+    if (L.isTraceEnabled()) {
+      L.beginSection("Drawable#drawFromAsyncFrameBuffer");
+    }
+    boolean drawn = asyncFrameBuffer.draw(canvas, getBounds(), alpha);
+    if (L.isTraceEnabled()) {
+      L.endSection("Drawable#drawFromAsyncFrameBuffer");
+    }
+    if (!asyncFrameBuffer.isUpToDate(animator.getAnimatedValueAbsolute(), frameGeneration)) {
+      scheduleAsyncUpdate(asyncFrameBufferUpdate);
+    }
+    if (drawn) {
+      isDirty = false;
+    }
+    return drawn;
+  }
+
+  /**
+   * Queues the update on {@link AsyncUpdateScheduler} unless it already is. In that case, the queued one will update
+   * to the newest progress instead.
+   */
+  private void scheduleAsyncUpdate(AsyncUpdateScheduler.Update update) {
+    if (!AsyncUpdateScheduler.schedule(update)) {
+      LottieComposition composition = this.composition;
+      if (composition != null) {
+        composition.getPerformanceTracker().recordSupersededAsyncUpdate();
+      }
+    }
+  }
+
+  void recordAsyncUpdateQueueLatency(float millis) {
+    LottieComposition composition = this.composition;
+    if (composition != null) {
+      composition.getPerformanceTracker().recordAsyncUpdateQueueLatency(millis);
+    }
+  }
+
+  /**
+   * Sets the progress of the layers. Each keyframe animation that changes invalidates the drawable so they are
+   * coalesced into a single invalidation once all of them are set.
+   */
+  private void setLayerProgress(CompositionLayer compositionLayer, float progress) {
+    layerProgressThread = Thread.currentThread();
+    try {
+      compositionLayer.setProgress(progress);
+    } finally {
+      layerProgressThread = null;
+    }
+    if (hasPendingLayerInvalidation) {
+      hasPendingLayerInvalidation = false;
+      addInvalidatedDamage(compositionLayer);
+      invalidateLayers();
+    }
+  }
+
+  /**
+   * Adds the area where the layers changed to {@link #invalidatedDamage} before the view is invalidated so that
+   * {@link #getDirtyBounds()} can report it.
+   */
+  private void addInvalidatedDamage(CompositionLayer compositionLayer) {
+    if (!reportsDirtyBounds() || isFullyDamaged) {
+      return;
+    }
+    if (!compositionLayer.addDamage(invalidatedDamage, softwareRenderingDamageMatrix, true)) {
+      isFullyDamaged = true;
+    }
+  }
+
+  /**
+   * Whether only the main thread renders the layers into the software rendering bitmap so that what changed when the
+   * drawable was invalidated is what will be rendered again.
+   */
+  private boolean reportsDirtyBounds() {
+    return useSoftwareRendering && !getAsyncUpdatesEnabled() && softwareRenderingDamageMatrix != null &&
+        playbackSource == null && playbackFollowers.isEmpty() && !cachesFrames() && sharedFrameCache == null;
+  }
+
+  /**
+   * With software rendering, this is the area that changed when the layers were invalidated. Otherwise, it is the
+   * bounds of the drawable.
+   */
+  @NonNull
+  @Override
+  public Rect getDirtyBounds() {
+    Rect bounds = getBounds();
+    if (!reportsDirtyBounds() || isFullyDamaged || bounds.isEmpty()) {
+      return bounds;
+    }
+    // Like renderAndDrawAsBitmap, this scales the composition to the size of the bounds.
+    float scaleX = bounds.width() / (float) getIntrinsicWidth();
+    float scaleY = bounds.height() / (float) getIntrinsicHeight();
+    dirtyBounds.set(
+        (int) Math.floor(invalidatedDamage.left * scaleX),
+        (int) Math.floor(invalidatedDamage.top * scaleY),
+        (int) Math.ceil(invalidatedDamage.right * scaleX),
+        (int) Math.ceil(invalidatedDamage.bottom * scaleY)
+    );
+    // Anti-aliasing may touch the pixels around the bounds.
+    dirtyBounds.inset(-1, -1);
+    if (!dirtyBounds.intersect(bounds)) {
+      dirtyBounds.setEmpty();
+    }
+    return dirtyBounds;
+  }
+
+  private void recordInvalidation(boolean coalesced) {
+    LottieComposition composition = this.composition;
+    if (composition != null) {
+      composition.getPerformanceTracker().recordInvalidation(coalesced);
+    }
+  }
+
+  /**
+   * Changes what the layers draw. Without {@link AsyncUpdates}, only the main thread uses the layers so the change is
+   * applied right away. Otherwise, it is applied right away only if no background thread is evaluating or rendering the
+   * layers. If one is, the main thread doesn't wait for it. The change is queued instead and applied before the layers
+   * are used next.
+   *
+   * @return whether the change was applied when this returns.
+   */
+  private boolean updateLayers(Runnable update) {
+    if (!getAsyncUpdatesEnabled()) {
+      // Changes that were queued before async updates were disabled go first.
+      applyPendingLayerUpdates(compositionLayer);
+      update.run();
+      return true;
+    }
+    pendingLayerUpdates.add(update);
+    if (!setProgressDrawLock.tryAcquire()) {
+      return false;
+    }
+    try {
+      applyPendingLayerUpdates(compositionLayer);
+    } finally {
+      setProgressDrawLock.release();
+    }
+    return true;
+  }
+
+  /**
+   * Applies the changes that {@link #updateLayers(Runnable)} queued. With {@link AsyncUpdates}, this must only be called
+   * while holding {@link #setProgressDrawLock}. The layers are set to the current progress again afterwards because
+   * some changes, like time remapping callbacks, only apply once the progress is set.
+   */
+  private void applyPendingLayerUpdates(@Nullable CompositionLayer compositionLayer) {
+    Runnable update = pendingLayerUpdates.poll();
+    if (update == null) {
+      return;
+    }
+    do {
+      update.run();
+      update = pendingLayerUpdates.poll();
+    } while (update != null);
+    if (compositionLayer != null) {
+      setLayerProgress(compositionLayer, animator.getAnimatedValueAbsolute());
+    }
+  }
+
   @Override
   public void setAlpha(@IntRange(from = 0, to = 255) int alpha) {
     this.alpha = alpha;
@@ -695,42 +1413,44 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
 
   @Override
   public void draw(@NonNull Canvas canvas) {
-    CompositionLayer compositionLayer = this.compositionLayer;
+    // The layers, progress and lock of the playback source if there is one.
+    LottieDrawable playback = getPlayback();
+    CompositionLayer compositionLayer = playback.compositionLayer;
     if (compositionLayer == null) {
       return;
     }
-    boolean asyncUpdatesEnabled = getAsyncUpdatesEnabled();
+    if (usesAsyncFrameBuffer(playback) && drawFromAsyncFrameBuffer(canvas)) {
+      return;
+    }
+    boolean asyncUpdatesEnabled = playback.getAsyncUpdatesEnabled();
+    // Cached frames set the layers' progress themselves when they are rendered.
+    boolean updatesProgress = !playback.cachesFrames();
     try {
       if (asyncUpdatesEnabled) {
-        setProgressDrawLock.acquire();
+        playback.setProgressDrawLock.acquire();
       }
       if (L.isTraceEnabled()) {
         L.beginSection("Drawable#draw");
       }
+      playback.applyPendingLayerUpdates(compositionLayer);
 
-      if (asyncUpdatesEnabled && shouldSetProgressBeforeDrawing()) {
-        setProgress(animator.getAnimatedValueAbsolute());
+      if (asyncUpdatesEnabled && updatesProgress && playback.shouldSetProgressBeforeDrawing()) {
+        playback.setProgress(playback.animator.getAnimatedValueAbsolute());
       }
 
       if (safeMode) {
         try {
-          if (useSoftwareRendering) {
-            renderAndDrawAsBitmap(canvas, compositionLayer);
-          } else {
-            drawDirectlyToCanvas(canvas);
-          }
+          drawFrame(canvas, playback, compositionLayer);
         } catch (Throwable e) {
           Logger.error("Lottie crashed in draw!", e);
         }
       } else {
-        if (useSoftwareRendering) {
-          renderAndDrawAsBitmap(canvas, compositionLayer);
-        } else {
-          drawDirectlyToCanvas(canvas);
-        }
+        drawFrame(canvas, playback, compositionLayer);
       }
 
       isDirty = false;
+      // The source may not be drawn itself. It has to be invalidated again for its followers to be.
+      playback.isDirty = false;
     } catch (InterruptedException e) {
       // Do nothing.
     } finally {
@@ -738,9 +1458,9 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
         L.endSection("Drawable#draw");
       }
       if (asyncUpdatesEnabled) {
-        setProgressDrawLock.release();
-        if (compositionLayer.getProgress() != animator.getAnimatedValueAbsolute()) {
-          setProgressExecutor.execute(updateProgressRunnable);
+        playback.setProgressDrawLock.release();
+        if (updatesProgress && compositionLayer.getProgress() != playback.animator.getAnimatedValueAbsolute()) {
+          playback.scheduleAsyncUpdate(playback.progressUpdate);
         }
       }
     }
@@ -751,36 +1471,56 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
    */
   @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
   public void draw(Canvas canvas, Matrix matrix) {
-    CompositionLayer compositionLayer = this.compositionLayer;
+    LottieDrawable playback = getPlayback();
+    CompositionLayer compositionLayer = playback.compositionLayer;
     LottieComposition composition = this.composition;
     if (compositionLayer == null || composition == null) {
       return;
     }
-    boolean asyncUpdatesEnabled = getAsyncUpdatesEnabled();
+    boolean asyncUpdatesEnabled = playback.getAsyncUpdatesEnabled();
+    boolean updatesProgress = !playback.cachesFrames();
     try {
       if (asyncUpdatesEnabled) {
-        setProgressDrawLock.acquire();
-        if (shouldSetProgressBeforeDrawing()) {
-          setProgress(animator.getAnimatedValueAbsolute());
-        }
+        playback.setProgressDrawLock.acquire();
+      }
+      playback.applyPendingLayerUpdates(compositionLayer);
+      if (asyncUpdatesEnabled && updatesProgress && playback.shouldSetProgressBeforeDrawing()) {
+        playback.setProgress(playback.animator.getAnimatedValueAbsolute());
       }
 
-      if (useSoftwareRendering) {
+      boolean drewCachedFrame = false;
+      if (!updatesProgress) {
         canvas.save();
         canvas.concat(matrix);
-        renderAndDrawAsBitmap(canvas, compositionLayer);
+        drewCachedFrame = drawCachedFrame(canvas, playback, compositionLayer, composition, composition.getBounds());
         canvas.restore();
-      } else {
-        compositionLayer.draw(canvas, matrix, alpha);
+      }
+
+      SharedFrameCache sharedFrameCache = playback.sharedFrameCache;
+      if (!drewCachedFrame) {
+        if (sharedFrameCache != null) {
+          canvas.save();
+          canvas.concat(matrix);
+          sharedFrameCache.draw(canvas, compositionLayer, composition, composition.getBounds(), alpha, playback.frameGeneration);
+          canvas.restore();
+        } else if (useSoftwareRendering) {
+          canvas.save();
+          canvas.concat(matrix);
+          renderAndDrawAsBitmap(canvas, compositionLayer);
+          canvas.restore();
+        } else {
+          compositionLayer.draw(canvas, matrix, alpha);
+        }
       }
       isDirty = false;
+      playback.isDirty = false;
     } catch (InterruptedException e) {
       // Do nothing.
     } finally {
       if (asyncUpdatesEnabled) {
-        setProgressDrawLock.release();
-        if (compositionLayer.getProgress() != animator.getAnimatedValueAbsolute()) {
-          setProgressExecutor.execute(updateProgressRunnable);
+        playback.setProgressDrawLock.release();
+        if (updatesProgress && compositionLayer.getProgress() != playback.animator.getAnimatedValueAbsolute()) {
+          playback.scheduleAsyncUpdate(playback.progressUpdate);
         }
       }
     }
@@ -816,6 +1556,9 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
    */
   @MainThread
   public void playAnimation() {
+    if (playbackSource != null) {
+      return;
+    }
     if (compositionLayer == null) {
       lazyCompositionTasks.add(c -> playAnimation());
       return;
@@ -878,6 +1621,9 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
    */
   @MainThread
   public void resumeAnimation() {
+    if (playbackSource != null) {
+      return;
+    }
     if (compositionLayer == null) {
       lazyCompositionTasks.add(c -> resumeAnimation());
       return;
@@ -1299,20 +2045,24 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
    * Sketch or Illustrator to avoid this.
    */
   public void setImageAssetDelegate(ImageAssetDelegate assetDelegate) {
-    this.imageAssetDelegate = assetDelegate;
-    if (imageAssetManager != null) {
-      imageAssetManager.setDelegate(assetDelegate);
-    }
+    updateLayers(() -> {
+      this.imageAssetDelegate = assetDelegate;
+      if (imageAssetManager != null) {
+        imageAssetManager.setDelegate(assetDelegate);
+      }
+    });
   }
 
   /**
    * Use this to manually set fonts.
    */
   public void setFontAssetDelegate(FontAssetDelegate assetDelegate) {
-    this.fontAssetDelegate = assetDelegate;
-    if (fontAssetManager != null) {
-      fontAssetManager.setDelegate(assetDelegate);
-    }
+    updateLayers(() -> {
+      this.fontAssetDelegate = assetDelegate;
+      if (fontAssetManager != null) {
+        fontAssetManager.setDelegate(assetDelegate);
+      }
+    });
   }
 
   /**
@@ -1331,11 +2081,13 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
       return;
     }
     this.fontMap = fontMap;
+    clearCachedFrames();
     invalidateSelf();
   }
 
   public void setTextDelegate(@SuppressWarnings("NullableProblems") TextDelegate textDelegate) {
     this.textDelegate = textDelegate;
+    clearCachedFrames();
   }
 
   @Nullable
@@ -1369,7 +2121,7 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
 
   @FloatRange(from = 0f, to = 1f)
   public float getProgress() {
-    return animator.getAnimatedValueAbsolute();
+    return getPlayback().animator.getAnimatedValueAbsolute();
   }
 
   @Override
@@ -1391,6 +2143,10 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
    * and won't trigger a tree walk of the animation contents when applied.
    */
   public List<KeyPath> resolveKeyPath(KeyPath keyPath) {
+    LottieDrawable source = playbackSource;
+    if (source != null) {
+      return source.resolveKeyPath(keyPath);
+    }
     if (compositionLayer == null) {
       Logger.warning("Cannot resolve KeyPath. Composition is not set yet.");
       return Collections.emptyList();
@@ -1411,27 +2167,39 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
    */
   public <T> void addValueCallback(
       final KeyPath keyPath, final T property, @Nullable final LottieValueCallback<T> callback) {
+    LottieDrawable source = playbackSource;
+    if (source != null) {
+      source.addValueCallback(keyPath, property, callback);
+      return;
+    }
     if (compositionLayer == null) {
       lazyCompositionTasks.add(c -> addValueCallback(keyPath, property, callback));
       return;
     }
-    boolean invalidate;
+    final CompositionLayer compositionLayer = this.compositionLayer;
+    final List<KeyPath> elements;
     if (keyPath == KeyPath.COMPOSITION) {
-      compositionLayer.addValueCallback(property, callback);
-      invalidate = true;
+      elements = Collections.emptyList();
     } else if (keyPath.getResolvedElement() != null) {
-      keyPath.getResolvedElement().addValueCallback(property, callback);
-      invalidate = true;
+      elements = Collections.singletonList(keyPath);
     } else {
-      List<KeyPath> elements = resolveKeyPath(keyPath);
-
-      for (int i = 0; i < elements.size(); i++) {
-        //noinspection ConstantConditions
-        elements.get(i).getResolvedElement().addValueCallback(property, callback);
-      }
-      invalidate = !elements.isEmpty();
+      // Resolving only reads the layers so it doesn't wait for a background thread that uses them.
+      elements = resolveKeyPath(keyPath);
     }
+    boolean invalidate = keyPath == KeyPath.COMPOSITION || !elements.isEmpty();
     if (invalidate) {
+      updateLayers(() -> {
+        if (keyPath == KeyPath.COMPOSITION) {
+          compositionLayer.addValueCallback(property, callback);
+        }
+        for (int i = 0; i < elements.size(); i++) {
+          //noinspection ConstantConditions
+          elements.get(i).getResolvedElement().addValueCallback(property, callback);
+        }
+        // Layers that had or now have a value callback may no longer be static.
+        compositionLayer.invalidateStaticContent();
+      });
+      clearCachedFrames();
       invalidateSelf();
       if (property == LottieProperty.TIME_REMAP) {
         // Time remapping values are read in setProgress. In order for the new value
@@ -1462,7 +2230,10 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
    * Allows you to modify or clear a bitmap that was loaded for an image either automatically
    * through {@link #setImagesAssetsFolder(String)} or with an {@link ImageAssetDelegate}.
    *
-   * @return the previous Bitmap or null.
+   * @return the previous Bitmap or null. Bitmaps that were loaded from the images folder may be shared with other
+   * animations so they aren't returned. With {@link AsyncUpdates}, null is also returned if a frame was being rendered
+   * in the background because that frame may still draw the previous bitmap. The new bitmap is drawn from the next
+   * frame on either way.
    */
   @Nullable
   public Bitmap updateBitmap(String id, @Nullable Bitmap bitmap) {
@@ -1472,9 +2243,12 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
           "which prevents Lottie from getting a Context.");
       return null;
     }
-    Bitmap ret = bm.updateBitmap(id, bitmap);
+    Bitmap[] previousBitmap = new Bitmap[1];
+    boolean updated = updateLayers(() -> previousBitmap[0] = bm.updateBitmap(id, bitmap));
+    clearCachedFrames();
     invalidateSelf();
-    return ret;
+    // A frame that is being rendered in the background may still draw the previous bitmap so it can't be recycled yet.
+    return updated ? previousBitmap[0] : null;
   }
 
   /**
@@ -1536,12 +2310,14 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
 
   private ImageAssetManager getImageAssetManager() {
     if (imageAssetManager != null && !imageAssetManager.hasSameContext(getContext())) {
+      imageAssetManager.releaseBitmaps();
       imageAssetManager = null;
     }
 
     if (imageAssetManager == null) {
       imageAssetManager = new ImageAssetManager(getCallback(),
           imageAssetsFolder, imageAssetDelegate, composition.getImages());
+      imageAssetManager.setPlaceholder(imagePlaceholder);
     }
 
     return imageAssetManager;
@@ -1612,13 +2388,17 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
   @Nullable
   private Context getContext() {
     Callback callback = getCallback();
-    if (callback == null) {
-      return null;
-    }
-
     if (callback instanceof View) {
       return ((View) callback).getContext();
     }
+    // A playback source that isn't attached to a view loads its images and fonts with the context of a follower.
+    for (int i = 0; i < playbackFollowers.size(); i++) {
+      LottieDrawable follower = playbackFollowers.get(i).get();
+      Callback followerCallback = follower == null ? null : follower.getCallback();
+      if (followerCallback instanceof View) {
+        return ((View) followerCallback).getContext();
+      }
+    }
     return null;
   }
 
@@ -1676,11 +2456,67 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
     callback.unscheduleDrawable(this, what);
   }
 
+  private void drawFrame(Canvas canvas, LottieDrawable playback, CompositionLayer compositionLayer) {
+    LottieComposition composition = this.composition;
+    if (composition != null && drawCachedFrame(canvas, playback, compositionLayer, composition, getBounds())) {
+      return;
+    }
+    SharedFrameCache sharedFrameCache = playback.sharedFrameCache;
+    if (sharedFrameCache != null && composition != null &&
+        sharedFrameCache.draw(canvas, compositionLayer, composition, getBounds(), alpha, playback.frameGeneration)) {
+      return;
+    }
+    if (useSoftwareRendering) {
+      renderAndDrawAsBitmap(canvas, compositionLayer);
+    } else {
+      drawDirectlyToCanvas(canvas, compositionLayer);
+    }
+  }
+
+  /**
+   * Draws the frame from {@link #setDiskFrameCacheKey(String)} or {@link #setFrameCachingEnabled(boolean)} if either
+   * of them has it. Otherwise, the layers are set to the current progress because the caches leave them on the frame
+   * that they rendered last.
+   *
+   * @return false if the frame has to be drawn from the layers.
+   */
+  private boolean drawCachedFrame(Canvas canvas, LottieDrawable playback, CompositionLayer compositionLayer,
+      LottieComposition composition, Rect bounds) {
+    if (!playback.cachesFrames()) {
+      return false;
+    }
+    float frame = playback.animator.getFrame();
+    DiskFrameCache diskFrameCache = playback.diskFrameCache;
+    if (diskFrameCache != null) {
+      Context context = getContext();
+      NetworkCache networkCache = context == null ? null : L.networkCache(context);
+      if (networkCache != null &&
+          diskFrameCache.draw(canvas, networkCache, compositionLayer, composition, bounds, alpha, frame)) {
+        return true;
+      }
+    }
+    FrameCache frameCache = playback.frameCache;
+    if (frameCache != null && frameCache.draw(canvas, compositionLayer, composition, bounds, alpha, frame)) {
+      return true;
+    }
+    float progress = playback.animator.getAnimatedValueAbsolute();
+    if (compositionLayer.getProgress() != progress) {
+      setLayerProgress(compositionLayer, progress);
+    }
+    return false;
+  }
+
+  /**
+   * Whether the layers are only updated when a cached frame is rendered rather than on every frame.
+   */
+  private boolean cachesFrames() {
+    return frameCache != null || diskFrameCache != null;
+  }
+
   /**
    * Hardware accelerated render path.
    */
-  private void drawDirectlyToCanvas(Canvas canvas) {
-    CompositionLayer compositionLayer = this.compositionLayer;
+  private void drawDirectlyToCanvas(Canvas canvas, CompositionLayer compositionLayer) {
     LottieComposition composition = this.composition;
     if (compositionLayer == null || composition == null) {
       return;
@@ -1759,8 +2595,25 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
       // bitmap to avoid allocating and copying the empty space on the left and top. renderWidth and renderHeight take this into account.
       renderingMatrix.postTranslate(-softwareRenderingTransformedBounds.left, -softwareRenderingTransformedBounds.top);
 
-      softwareRenderingBitmap.eraseColor(0);
-      compositionLayer.draw(softwareRenderingCanvas, renderingMatrix, alpha);
+      if (updateSoftwareRenderingDamage(compositionLayer)) {
+        // Only the area where the layers changed is cleared and rendered again.
+        renderingMatrix.mapRect(softwareRenderingDamage);
+        convertRect(softwareRenderingDamage, softwareRenderingDamageRect);
+        // Anti-aliasing may touch the pixels around the bounds.
+        softwareRenderingDamageRect.inset(-1, -1);
+        if (softwareRenderingDamageRect.intersect(0, 0, renderWidth, renderHeight)) {
+          softwareRenderingCanvas.save();
+          softwareRenderingCanvas.clipRect(softwareRenderingDamageRect);
+          softwareRenderingCanvas.drawColor(0, PorterDuff.Mode.CLEAR);
+          compositionLayer.draw(softwareRenderingCanvas, renderingMatrix, alpha);
+          softwareRenderingCanvas.restore();
+        }
+      } else {
+        softwareRenderingBitmap.eraseColor(0);
+        compositionLayer.draw(softwareRenderingCanvas, renderingMatrix, alpha);
+      }
+      softwareRenderingLastMatrix.set(renderingMatrix);
+      isFullyDamaged = false;
 
       // Calculate the dst bounds.
       // We need to map the rendered coordinates back to the canvas's coordinates. To do so, we need to invert the transform
@@ -1776,6 +2629,31 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
     originalCanvas.drawBitmap(softwareRenderingBitmap, softwareRenderingSrcBoundsRect, softwareRenderingDstBoundsRect, softwareRenderingPaint);
   }
 
+  /**
+   * Sets {@link #softwareRenderingDamage} to the area of the composition where the layers changed since the software
+   * rendering bitmap was last rendered.
+   *
+   * @return false if all of the bitmap has to be rendered again.
+   */
+  private boolean updateSoftwareRenderingDamage(CompositionLayer compositionLayer) {
+    if (getPlayback() != this) {
+      // The layers remember how the source drew them.
+      return false;
+    }
+    if (L.isTraceEnabled()) {
+      L.beginSection("Drawable#updateDamage");
+    }
+    // Damage that was reported when the drawable was invalidated has already been taken from the layers.
+    softwareRenderingDamage.set(invalidatedDamage);
+    invalidatedDamage.setEmpty();
+    // The layers are always asked so that they remember how they were drawn this time.
+    boolean isKnown = compositionLayer.addDamage(softwareRenderingDamage, softwareRenderingDamageMatrix, true);
+    if (L.isTraceEnabled()) {
+      L.endSection("Drawable#updateDamage");
+    }
+    return isKnown && !isFullyDamaged && renderingMatrix.equals(softwareRenderingLastMatrix);
+  }
+
   private void ensureSoftwareRenderingObjectsInitialized() {
     if (softwareRenderingCanvas != null) {
       return;
@@ -1784,6 +2662,10 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
     softwareRenderingTransformedBounds = new RectF();
     softwareRenderingOriginalCanvasMatrix = new Matrix();
     softwareRenderingOriginalCanvasMatrixInverse = new Matrix();
+    softwareRenderingLastMatrix = new Matrix();
+    softwareRenderingDamageMatrix = new Matrix();
+    softwareRenderingDamage = new RectF();
+    softwareRenderingDamageRect = new Rect();
     canvasClipBounds = new Rect();
     canvasClipBoundsRectF = new RectF();
     softwareRenderingPaint = new LPaint();
@@ -1800,11 +2682,13 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
       softwareRenderingBitmap = Bitmap.createBitmap(renderWidth, renderHeight, Bitmap.Config.ARGB_8888);
       softwareRenderingCanvas.setBitmap(softwareRenderingBitmap);
       isDirty = true;
+      isFullyDamaged = true;
     } else if (softwareRenderingBitmap.getWidth() > renderWidth || softwareRenderingBitmap.getHeight() > renderHeight) {
       // The bitmap is smaller. Take subset of the original.
       softwareRenderingBitmap = Bitmap.createBitmap(softwareRenderingBitmap, 0, 0, renderWidth, renderHeight);
       softwareRenderingCanvas.setBitmap(softwareRenderingBitmap);
       isDirty = true;
+      isFullyDamaged = true;
     }
   }
 
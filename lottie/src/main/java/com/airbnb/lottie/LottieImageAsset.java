@@ -5,6 +5,8 @@ import android.graphics.Bitmap;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 
+import com.airbnb.lottie.manager.BitmapPool;
+
 /**
  * Data class describing an image asset embedded in a Lottie json file.
  */
@@ -18,6 +20,10 @@ public class LottieImageAsset {
    * Pre-set a bitmap for this asset
    */
   @Nullable private Bitmap bitmap;
+  /**
+   * Decodes the image from the file it was loaded from, such as an entry in a zip file, when it is first drawn.
+   */
+  @Nullable private BitmapPool.Source bitmapSource;
 
   @RestrictTo(RestrictTo.Scope.LIBRARY)
   public LottieImageAsset(int width, int height, String id, String fileName, String dirName) {
@@ -70,6 +76,16 @@ public class LottieImageAsset {
     this.bitmap = bitmap;
   }
 
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  @Nullable public BitmapPool.Source getBitmapSource() {
+    return bitmapSource;
+  }
+
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public void setBitmapSource(@Nullable BitmapPool.Source bitmapSource) {
+    this.bitmapSource = bitmapSource;
+  }
+
   /**
    * Returns a new {@link LottieImageAsset} with the same properties as this one but with the
    * dimensions and bitmap scaled.
@@ -80,13 +96,15 @@ public class LottieImageAsset {
       Bitmap scaledBitmap = Bitmap.createScaledBitmap(bitmap, newAsset.width, newAsset.height, true);
       newAsset.setBitmap(scaledBitmap);
     }
+    newAsset.setBitmapSource(bitmapSource);
     return newAsset;
   }
 
   /**
-   * Returns whether this asset has an embedded Bitmap or whether the fileName is a base64 encoded bitmap.
+   * Returns whether this asset has an embedded Bitmap, whether it can be decoded from the zip file it was loaded from
+   * or whether the fileName is a base64 encoded bitmap.
    */
   public boolean hasBitmap() {
-    return bitmap != null || (fileName.startsWith("data:") && fileName.indexOf("base64,") > 0);
+    return bitmap != null || bitmapSource != null || (fileName.startsWith("data:") && fileName.indexOf("base64,") > 0);
   }
 }
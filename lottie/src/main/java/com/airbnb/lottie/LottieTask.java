@@ -7,7 +7,7 @@ import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 
 import com.airbnb.lottie.utils.Logger;
-import com.airbnb.lottie.utils.LottieThreadFactory;
+import com.airbnb.lottie.utils.PriorityExecutor;
 
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
@@ -16,7 +16,6 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 import java.util.concurrent.FutureTask;
 
 /**
@@ -24,19 +23,29 @@ import java.util.concurrent.FutureTask;
  * Results can be obtained with {@link #addListener(LottieListener)}.
  * Failures can be obtained with {@link #addFailureListener(LottieListener)}.
  * <p>
- * A task will produce a single result or a single failure.
+ * A task will produce a single result or a single failure. If it is {@link #cancel() cancelled} before then, it
+ * will produce neither.
  */
 @SuppressWarnings("UnusedReturnValue")
 public class LottieTask<T> {
 
+  /**
+   * The number of tasks the default {@link #EXECUTOR} runs at once. More threads than this would mostly compete for
+   * the same cores and the same network connection.
+   */
+  public static final int MAX_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
   /**
    * Set this to change the executor that LottieTasks are run on. This will be the executor that composition parsing and url
    * fetching happens on.
    * <p>
+   * The default executor runs at most {@link #MAX_THREADS} tasks at a time and runs queued tasks in order of their
+   * {@link LottieTaskPriority}.
+   * <p>
    * You may change this to run deserialization synchronously for testing.
    */
   @SuppressWarnings("WeakerAccess")
-  public static Executor EXECUTOR = Executors.newCachedThreadPool(new LottieThreadFactory());
+  public static Executor EXECUTOR = new PriorityExecutor(MAX_THREADS);
 
   /* Preserve add order. */
   private final Set<LottieListener<T>> successListeners = new LinkedHashSet<>(1);
@@ -44,6 +53,14 @@ public class LottieTask<T> {
   private final Handler handler = new Handler(Looper.getMainLooper());
 
   @Nullable private volatile LottieResult<T> result = null;
+  @Nullable private LottieFutureTask<T> futureTask;
+  private final List<Runnable> completionCallbacks = new ArrayList<>(1);
+  private boolean cancelled = false;
+  /**
+   * The number of callers that {@link LottieCompositionFactory} handed this task to.
+   */
+  private int holderCount = 1;
+  private LottieTaskPriority priority = LottieTaskPriority.NORMAL;
 
   @RestrictTo(RestrictTo.Scope.LIBRARY)
   public LottieTask(Callable<LottieResult<T>> runnable) {
@@ -65,7 +82,8 @@ public class LottieTask<T> {
         setResult(new LottieResult<>(e));
       }
     } else {
-      EXECUTOR.execute(new LottieFutureTask<T>(this, runnable));
+      futureTask = new LottieFutureTask<>(this, runnable);
+      EXECUTOR.execute(futureTask);
     }
   }
 
@@ -74,6 +92,7 @@ public class LottieTask<T> {
       throw new IllegalStateException("A task may only be set once.");
     }
     this.result = result;
+    runCompletionCallbacks();
     notifyListeners();
   }
 
@@ -130,6 +149,114 @@ public class LottieTask<T> {
     return this;
   }
 
+  /**
+   * Sets the order in which this task runs relative to other queued tasks. Has no effect once the task has started.
+   *
+   * @return the task for call chaining.
+   */
+  public synchronized LottieTask<T> setPriority(LottieTaskPriority priority) {
+    if (this.priority == priority) {
+      return this;
+    }
+    this.priority = priority;
+    LottieFutureTask<T> futureTask = this.futureTask;
+    if (futureTask != null && result == null) {
+      futureTask.priority = executorPriority(priority);
+      if (EXECUTOR instanceof PriorityExecutor) {
+        ((PriorityExecutor) EXECUTOR).reprioritize(futureTask);
+      }
+    }
+    return this;
+  }
+
+  public synchronized LottieTaskPriority getPriority() {
+    return priority;
+  }
+
+  public synchronized boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Runs the callback once the task has a result or has been cancelled, before any listeners are notified. The
+   * callback is run immediately if that has already happened. Unlike listeners, callbacks don't keep the task from
+   * being cancelled.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  synchronized void addCompletionCallback(Runnable callback) {
+    if (result != null || cancelled) {
+      callback.run();
+    } else {
+      completionCallbacks.add(callback);
+    }
+  }
+
+  /**
+   * Other work on the executor, like image decoding, runs at the same priority as normal tasks.
+   */
+  private static int executorPriority(LottieTaskPriority priority) {
+    return priority.ordinal() - LottieTaskPriority.NORMAL.ordinal();
+  }
+
+  /**
+   * Cancels the task for every listener. If it hasn't started, it never will. If it is running, the thread that is
+   * parsing or fetching the composition is interrupted so that it stops at the next layer or network read.
+   * Listeners are never called once the task is cancelled.
+   * <p>
+   * Tasks for the same cache key are shared. To only stop waiting for a shared task, remove your listeners instead.
+   *
+   * @return true if the task was cancelled or false if it had already completed.
+   */
+  public synchronized boolean cancel() {
+    if (cancelled) {
+      return true;
+    }
+    LottieFutureTask<T> futureTask = this.futureTask;
+    if (result != null || futureTask == null || !futureTask.cancel(true)) {
+      // It has already completed.
+      return false;
+    }
+    cancelled = true;
+    successListeners.clear();
+    failureListeners.clear();
+    if (EXECUTOR instanceof PriorityExecutor) {
+      // Remove it from the queue right away rather than leaving it to be skipped when it is dequeued.
+      ((PriorityExecutor) EXECUTOR).remove(futureTask);
+    }
+    runCompletionCallbacks();
+    return true;
+  }
+
+  /**
+   * Records that a caller other than the one that created this task was handed it too.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  synchronized void addHolder() {
+    holderCount++;
+  }
+
+  /**
+   * Cancels the task if nothing listens to it and it was never handed to anyone other than the caller that created
+   * it. Shared tasks keep running because their other holders may still add listeners.
+   *
+   * @return true if the task was cancelled.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  synchronized boolean cancelIfUnused() {
+    if (holderCount > 1 || !successListeners.isEmpty() || !failureListeners.isEmpty()) {
+      return false;
+    }
+    return cancel();
+  }
+
+  private synchronized void runCompletionCallbacks() {
+    List<Runnable> callbacks = new ArrayList<>(completionCallbacks);
+    completionCallbacks.clear();
+    for (int i = 0; i < callbacks.size(); i++) {
+      callbacks.get(i).run();
+    }
+  }
+
   @Nullable
   public LottieResult<T> getResult() {
     return result;
@@ -180,15 +307,20 @@ public class LottieTask<T> {
     }
   }
 
-  private static class LottieFutureTask<T> extends FutureTask<LottieResult<T>> {
+  private static class LottieFutureTask<T> extends FutureTask<LottieResult<T>> implements PriorityExecutor.Prioritized {
 
     private LottieTask<T> lottieTask;
+    volatile int priority = executorPriority(LottieTaskPriority.NORMAL);
 
     LottieFutureTask(LottieTask<T> task, Callable<LottieResult<T>> callable) {
       super(callable);
       lottieTask = task;
     }
 
+    @Override public int getPriority() {
+      return priority;
+    }
+
     @Override
     protected void done() {
       try {
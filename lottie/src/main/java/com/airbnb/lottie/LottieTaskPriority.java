@@ -0,0 +1,20 @@
+package com.airbnb.lottie;
+
+/**
+ * The order in which queued {@link LottieTask}s are run when more compositions are being loaded than
+ * {@link LottieTask#EXECUTOR} has threads for.
+ * Defaults to {@link LottieTaskPriority#NORMAL}.
+ *
+ * @see LottieTask#setPriority(LottieTaskPriority)
+ */
+public enum LottieTaskPriority {
+  /**
+   * For animations that aren't on screen, such as those that are only being preloaded.
+   */
+  LOW,
+  NORMAL,
+  /**
+   * For animations that are about to be shown.
+   */
+  HIGH
+}
@@ -15,15 +15,29 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+/**
+ * Records how the layers of a composition render. A composition and its tracker may be shared by drawables that are
+ * drawn on the main thread and on the threads of {@link AsyncUpdates} at the same time so every record is synchronized.
+ */
 public class PerformanceTracker {
 
+  /**
+   * Called on the thread that rendered the frame, which may be a background thread with {@link AsyncUpdates}.
+   */
   public interface FrameListener {
     void onFrameRendered(float renderTimeMs);
   }
 
-  private boolean enabled = false;
+  private volatile boolean enabled = false;
   private final Set<FrameListener> frameListeners = new ArraySet<>();
   private final Map<String, MeanCalculator> layerRenderTimes = new HashMap<>();
+  private int drawnLayerCount;
+  private int culledLayerCount;
+  private int invalidationCount;
+  private int coalescedInvalidationCount;
+  private final MeanCalculator asyncUpdateQueueLatency = new MeanCalculator();
+  private float maxAsyncUpdateQueueLatency;
+  private int supersededAsyncUpdateCount;
   private final Comparator<Pair<String, Float>> floatComparator =
       new Comparator<Pair<String, Float>>() {
         @Override public int compare(Pair<String, Float> o1, Pair<String, Float> o2) {
@@ -46,33 +60,157 @@ public class PerformanceTracker {
     if (!enabled) {
       return;
     }
-    MeanCalculator meanCalculator = layerRenderTimes.get(layerName);
-    if (meanCalculator == null) {
-      meanCalculator = new MeanCalculator();
-      layerRenderTimes.put(layerName, meanCalculator);
+    synchronized (this) {
+      MeanCalculator meanCalculator = layerRenderTimes.get(layerName);
+      if (meanCalculator == null) {
+        meanCalculator = new MeanCalculator();
+        layerRenderTimes.put(layerName, meanCalculator);
+      }
+      meanCalculator.add(millis);
     }
-    meanCalculator.add(millis);
 
     if (layerName.equals("__container")) {
-      for (FrameListener listener : frameListeners) {
-        listener.onFrameRendered(millis);
+      List<FrameListener> listeners;
+      synchronized (this) {
+        if (frameListeners.isEmpty()) {
+          return;
+        }
+        // Copied so that the listeners are called without holding the lock.
+        listeners = new ArrayList<>(frameListeners);
+      }
+      for (int i = 0; i < listeners.size(); i++) {
+        listeners.get(i).onFrameRendered(millis);
+      }
+    }
+  }
+
+  /**
+   * @param drawn false if the layer was skipped because it was entirely outside the canvas.
+   */
+  public void recordLayerDrawn(boolean drawn) {
+    if (!enabled) {
+      return;
+    }
+    synchronized (this) {
+      if (drawn) {
+        drawnLayerCount++;
+      } else {
+        culledLayerCount++;
+      }
+    }
+  }
+
+  /**
+   * The number of times a layer was drawn since the render times were last cleared.
+   */
+  public synchronized int getDrawnLayerCount() {
+    return drawnLayerCount;
+  }
+
+  /**
+   * The number of times a layer was skipped because it was outside the canvas since the render times were last
+   * cleared.
+   */
+  public synchronized int getCulledLayerCount() {
+    return culledLayerCount;
+  }
+
+  /**
+   * @param coalesced true if the invalidation was deferred until the progress of all layers was set and merged with
+   * the others from the same frame.
+   */
+  public void recordInvalidation(boolean coalesced) {
+    if (!enabled) {
+      return;
+    }
+    synchronized (this) {
+      invalidationCount++;
+      if (coalesced) {
+        coalescedInvalidationCount++;
       }
     }
   }
 
-  public void addFrameListener(FrameListener frameListener) {
+  /**
+   * The number of times the drawable was invalidated since the render times were last cleared, including the
+   * invalidations that were coalesced.
+   */
+  public synchronized int getInvalidationCount() {
+    return invalidationCount;
+  }
+
+  /**
+   * The number of invalidations that didn't reach the drawable's callback on their own because they were coalesced
+   * with the others from the same frame.
+   */
+  public synchronized int getCoalescedInvalidationCount() {
+    return coalescedInvalidationCount;
+  }
+
+  /**
+   * @param millis how long an async update waited in the queue before it ran.
+   */
+  public void recordAsyncUpdateQueueLatency(float millis) {
+    if (!enabled) {
+      return;
+    }
+    synchronized (this) {
+      asyncUpdateQueueLatency.add(millis);
+      maxAsyncUpdateQueueLatency = Math.max(maxAsyncUpdateQueueLatency, millis);
+    }
+  }
+
+  /**
+   * Records that an async update was requested while another one was still queued and was merged with it.
+   */
+  public void recordSupersededAsyncUpdate() {
+    if (!enabled) {
+      return;
+    }
+    synchronized (this) {
+      supersededAsyncUpdateCount++;
+    }
+  }
+
+  /**
+   * The mean time that async updates waited in the queue since the render times were last cleared.
+   */
+  public synchronized float getMeanAsyncUpdateQueueLatency() {
+    return asyncUpdateQueueLatency.getMean();
+  }
+
+  public synchronized float getMaxAsyncUpdateQueueLatency() {
+    return maxAsyncUpdateQueueLatency;
+  }
+
+  /**
+   * The number of async updates that weren't queued because an older one was still queued and will update to the
+   * newest progress instead.
+   */
+  public synchronized int getSupersededAsyncUpdateCount() {
+    return supersededAsyncUpdateCount;
+  }
+
+  public synchronized void addFrameListener(FrameListener frameListener) {
     frameListeners.add(frameListener);
   }
 
-  @SuppressWarnings("unused") public void removeFrameListener(FrameListener frameListener) {
+  @SuppressWarnings("unused") public synchronized void removeFrameListener(FrameListener frameListener) {
     frameListeners.remove(frameListener);
   }
 
-  public void clearRenderTimes() {
+  public synchronized void clearRenderTimes() {
     layerRenderTimes.clear();
+    drawnLayerCount = 0;
+    culledLayerCount = 0;
+    invalidationCount = 0;
+    coalescedInvalidationCount = 0;
+    asyncUpdateQueueLatency.clear();
+    maxAsyncUpdateQueueLatency = 0;
+    supersededAsyncUpdateCount = 0;
   }
 
-  public void logRenderTimes() {
+  public synchronized void logRenderTimes() {
     if (!enabled) {
       return;
     }
@@ -82,9 +220,13 @@ public class PerformanceTracker {
       Pair<String, Float> layer = sortedRenderTimes.get(i);
       Log.d(L.TAG, String.format("\t\t%30s:%.2f", layer.first, layer.second));
     }
+    Log.d(L.TAG, "Culled layers: " + culledLayerCount + " of " + (culledLayerCount + drawnLayerCount));
+    Log.d(L.TAG, "Coalesced invalidations: " + coalescedInvalidationCount + " of " + invalidationCount);
+    Log.d(L.TAG, String.format("Async update queue latency: %.2fms mean, %.2fms max, %d superseded",
+        asyncUpdateQueueLatency.getMean(), maxAsyncUpdateQueueLatency, supersededAsyncUpdateCount));
   }
 
-  public List<Pair<String, Float>> getSortedRenderTimes() {
+  public synchronized List<Pair<String, Float>> getSortedRenderTimes() {
     if (!enabled) {
       return Collections.emptyList();
     }
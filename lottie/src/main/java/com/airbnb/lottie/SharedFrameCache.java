@@ -0,0 +1,122 @@
+package com.airbnb.lottie;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.airbnb.lottie.animation.LPaint;
+import com.airbnb.lottie.model.layer.CompositionLayer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The frames of a {@link LottieDrawable} and the drawables that follow it, rendered once per size into bitmaps that
+ * each of them draws.
+ * <p>
+ * A frame is rendered again when its drawable was invalidated or its layers' progress changed since it was rendered.
+ * Frames are rendered with full opacity so that drawables with different alphas can share them.
+ *
+ * @see LottieDrawable#setFrameSharingEnabled(boolean)
+ */
+class SharedFrameCache {
+  /**
+   * The number of sizes that frames are kept for. When more are drawn, the least recently drawn size is replaced.
+   */
+  private static final int MAX_FRAMES = 4;
+
+  private final List<Frame> frames = new ArrayList<>(MAX_FRAMES);
+  private final Matrix canvasMatrix = new Matrix();
+  private final Matrix renderMatrix = new Matrix();
+  private final RectF deviceBounds = new RectF();
+  private final Canvas renderCanvas = new Canvas();
+  private final Paint paint = new LPaint(Paint.FILTER_BITMAP_FLAG);
+  private int renderCount;
+
+  /**
+   * Draws the frame of the layers at the bounds of the canvas's drawable, rendering it first if it is out of date.
+   *
+   * @param generation a number that changes whenever the layers must be rendered again.
+   * @return false if nothing was drawn because the frame would be empty.
+   */
+  boolean draw(Canvas canvas, CompositionLayer compositionLayer, LottieComposition composition, Rect bounds, int alpha,
+      int generation) {
+    Rect compositionBounds = composition.getBounds();
+    if (bounds.isEmpty() || compositionBounds.isEmpty()) {
+      return false;
+    }
+    // Render at the size that the bounds have on screen so that the bitmap isn't scaled up.
+    //noinspection deprecation
+    canvas.getMatrix(canvasMatrix);
+    deviceBounds.set(bounds);
+    canvasMatrix.mapRect(deviceBounds);
+    int width = (int) Math.ceil(deviceBounds.width());
+    int height = (int) Math.ceil(deviceBounds.height());
+    if (width <= 0 || height <= 0) {
+      return false;
+    }
+
+    Frame frame = getFrame(width, height);
+    float progress = compositionLayer.getProgress();
+    if (frame.generation != generation || frame.progress != progress) {
+      frame.bitmap.eraseColor(0);
+      renderCanvas.setBitmap(frame.bitmap);
+      renderMatrix.setScale(width / (float) compositionBounds.width(), height / (float) compositionBounds.height());
+      compositionLayer.draw(renderCanvas, renderMatrix, 255);
+      renderCanvas.setBitmap(null);
+      frame.generation = generation;
+      frame.progress = progress;
+      renderCount++;
+    }
+
+    paint.setAlpha(alpha);
+    canvas.drawBitmap(frame.bitmap, null, bounds, paint);
+    return true;
+  }
+
+  private Frame getFrame(int width, int height) {
+    for (int i = 0; i < frames.size(); i++) {
+      Frame frame = frames.get(i);
+      if (frame.bitmap.getWidth() == width && frame.bitmap.getHeight() == height) {
+        // Move it to the end so that the first frame is the least recently drawn one.
+        frames.remove(i);
+        frames.add(frame);
+        return frame;
+      }
+    }
+    if (frames.size() == MAX_FRAMES) {
+      // Not recycled because a view's display list may still draw it.
+      frames.remove(0);
+    }
+    Frame frame = new Frame(Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888));
+    frames.add(frame);
+    return frame;
+  }
+
+  void clear() {
+    frames.clear();
+  }
+
+  /**
+   * The number of times a frame was rendered rather than drawn from a bitmap that was already rendered.
+   */
+  @VisibleForTesting
+  int getRenderCount() {
+    return renderCount;
+  }
+
+  private static class Frame {
+    final Bitmap bitmap;
+    int generation;
+    float progress = -1f;
+
+    Frame(Bitmap bitmap) {
+      this.bitmap = bitmap;
+    }
+  }
+}
@@ -107,9 +107,13 @@ public class TextDelegate {
 
   private void invalidate() {
     if (animationView != null) {
+      if (animationView.getDrawable() instanceof LottieDrawable) {
+        ((LottieDrawable) animationView.getDrawable()).clearCachedFrames();
+      }
       animationView.invalidate();
     }
     if (drawable != null) {
+      drawable.clearCachedFrames();
       drawable.invalidateSelf();
     }
   }
@@ -43,6 +43,7 @@ public abstract class BaseStrokeContent
   private final Path path = new Path();
   private final Path trimPathPath = new Path();
   private final RectF rect = new RectF();
+  private final float[] scaleVectors = new float[4];
   private final LottieDrawable lottieDrawable;
   protected final BaseLayer layer;
   private final List<PathGroup> pathGroups = new ArrayList<>();
@@ -116,7 +117,7 @@ public abstract class BaseStrokeContent
   }
 
   @Override public void onValueChanged() {
-    lottieDrawable.invalidateSelf();
+    lottieDrawable.invalidateLayers();
   }
 
   @Override public void setContents(List<Content> contentsBefore, List<Content> contentsAfter) {
@@ -322,9 +323,11 @@ public abstract class BaseStrokeContent
     }
     path.computeBounds(rect, false);
 
-    float width = ((FloatKeyframeAnimation) widthAnimation).getFloatValue();
-    rect.set(rect.left - width / 2f, rect.top - width / 2f,
-        rect.right + width / 2f, rect.bottom + width / 2f);
+    // The stroke is drawn with the parent matrix so its width is scaled too. Miter joins and square caps reach further
+    // out from the path than half the width.
+    float outset = ((FloatKeyframeAnimation) widthAnimation).getFloatValue() / 2f * getMaxScale(parentMatrix) *
+        getStrokeOutsetFactor();
+    rect.set(rect.left - outset, rect.top - outset, rect.right + outset, rect.bottom + outset);
     outBounds.set(rect);
     // Add padding to account for rounding errors.
     outBounds.set(
@@ -338,6 +341,32 @@ public abstract class BaseStrokeContent
     }
   }
 
+  /**
+   * Returns how much the matrix scales lengths along its most scaled axis.
+   */
+  private float getMaxScale(Matrix matrix) {
+    scaleVectors[0] = 1;
+    scaleVectors[1] = 0;
+    scaleVectors[2] = 0;
+    scaleVectors[3] = 1;
+    matrix.mapVectors(scaleVectors);
+    return (float) Math.max(Math.hypot(scaleVectors[0], scaleVectors[1]), Math.hypot(scaleVectors[2], scaleVectors[3]));
+  }
+
+  /**
+   * Returns how far the stroke may reach out from the path in multiples of half its width.
+   */
+  private float getStrokeOutsetFactor() {
+    float factor = 1f;
+    if (paint.getStrokeJoin() == Paint.Join.MITER) {
+      factor = Math.max(factor, paint.getStrokeMiter());
+    }
+    if (paint.getStrokeCap() == Paint.Cap.SQUARE) {
+      factor = Math.max(factor, (float) Math.sqrt(2));
+    }
+    return factor;
+  }
+
   private void applyDashPatternIfNeeded() {
     if (L.isTraceEnabled()) {
       L.beginSection("StrokeContent#applyDashPattern");
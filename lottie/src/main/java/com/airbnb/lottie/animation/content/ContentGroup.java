@@ -97,7 +97,7 @@ public class ContentGroup implements DrawingContent, PathContent,
   }
 
   @Override public void onValueChanged() {
-    lottieDrawable.invalidateSelf();
+    lottieDrawable.invalidateLayers();
   }
 
   @Override public String getName() {
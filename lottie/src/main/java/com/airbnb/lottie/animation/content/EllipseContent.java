@@ -52,7 +52,7 @@ public class EllipseContent
 
   private void invalidate() {
     isPathValid = false;
-    lottieDrawable.invalidateSelf();
+    lottieDrawable.invalidateLayers();
   }
 
   @Override public void setContents(List<Content> contentsBefore, List<Content> contentsAfter) {
@@ -79,7 +79,7 @@ public class FillContent
   }
 
   @Override public void onValueChanged() {
-    lottieDrawable.invalidateSelf();
+    lottieDrawable.invalidateLayers();
   }
 
   @Override public void setContents(List<Content> contentsBefore, List<Content> contentsAfter) {
@@ -102,7 +102,7 @@ public class GradientFillContent
   }
 
   @Override public void onValueChanged() {
-    lottieDrawable.invalidateSelf();
+    lottieDrawable.invalidateLayers();
   }
 
   @Override public void setContents(List<Content> contentsBefore, List<Content> contentsAfter) {
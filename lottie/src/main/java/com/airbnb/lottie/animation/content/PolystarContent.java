@@ -95,7 +95,7 @@ public class PolystarContent
 
   private void invalidate() {
     isPathValid = false;
-    lottieDrawable.invalidateSelf();
+    lottieDrawable.invalidateLayers();
   }
 
   @Override public void setContents(List<Content> contentsBefore, List<Content> contentsAfter) {
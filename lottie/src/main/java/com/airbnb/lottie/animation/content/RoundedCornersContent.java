@@ -40,7 +40,7 @@ public class RoundedCornersContent implements ShapeModifierContent, BaseKeyframe
   }
 
   @Override public void onValueChanged() {
-    lottieDrawable.invalidateSelf();
+    lottieDrawable.invalidateLayers();
   }
 
   @Override public void setContents(List<Content> contentsBefore, List<Content> contentsAfter) {
@@ -45,7 +45,7 @@ public class ShapeContent implements PathContent, BaseKeyframeAnimation.Animatio
 
   private void invalidate() {
     isPathValid = false;
-    lottieDrawable.invalidateSelf();
+    lottieDrawable.invalidateLayers();
   }
 
   @Override public void setContents(List<Content> contentsBefore, List<Content> contentsAfter) {
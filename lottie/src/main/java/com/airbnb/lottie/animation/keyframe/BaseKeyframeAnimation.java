@@ -37,7 +37,15 @@ public abstract class BaseKeyframeAnimation<K, A> {
   private float cachedEndProgress = -1f;
 
   BaseKeyframeAnimation(List<? extends Keyframe<K>> keyframes) {
-    keyframesWrapper = wrap(keyframes);
+    this(keyframes, null);
+  }
+
+  /**
+   * @param primitives The flattened form of keyframes. When it is null and there are multiple keyframes, it is
+   *                   created for just this animation.
+   */
+  BaseKeyframeAnimation(List<? extends Keyframe<K>> keyframes, @Nullable PrimitiveKeyframes primitives) {
+    keyframesWrapper = wrap(keyframes, primitives);
   }
 
   public void setIsDiscrete() {
@@ -102,6 +110,13 @@ public abstract class BaseKeyframeAnimation<K, A> {
     return keyframe;
   }
 
+  /**
+   * Returns the index of the current keyframe in the list of keyframes or -1 if there are none.
+   */
+  int getCurrentKeyframeIndex() {
+    return keyframesWrapper.getCurrentKeyframeIndex();
+  }
+
   /**
    * Returns the progress into the current keyframe between 0 and 1. This does not take into account
    * any interpolation that the keyframe may have.
@@ -194,6 +209,14 @@ public abstract class BaseKeyframeAnimation<K, A> {
     return valueCallback != null;
   }
 
+  /**
+   * Returns whether the value of this animation is the same at every progress. Animations with a value callback
+   * never are because the callback may return a different value every frame.
+   */
+  public boolean isStatic() {
+    return valueCallback == null && keyframesWrapper.isStatic();
+  }
+
   /**
    * keyframeProgress will be [0, 1] unless the interpolator has overshoot in which case, this
    * should be able to handle values outside of that range.
@@ -207,24 +230,28 @@ public abstract class BaseKeyframeAnimation<K, A> {
     throw new UnsupportedOperationException("This animation does not support split dimensions!");
   }
 
-  private static <T> KeyframesWrapper<T> wrap(List<? extends Keyframe<T>> keyframes) {
+  private static <T> KeyframesWrapper<T> wrap(List<? extends Keyframe<T>> keyframes, @Nullable PrimitiveKeyframes primitives) {
     if (keyframes.isEmpty()) {
       return new EmptyKeyframeWrapper<>();
     }
     if (keyframes.size() == 1) {
       return new SingleKeyframeWrapper<>(keyframes);
     }
-    return new KeyframesWrapperImpl<>(keyframes);
+    return new KeyframesWrapperImpl<>(keyframes, primitives == null ? PrimitiveKeyframes.timingOf(keyframes) : primitives);
   }
 
   private interface KeyframesWrapper<T> {
 
     boolean isEmpty();
 
+    boolean isStatic();
+
     boolean isValueChanged(float progress);
 
     Keyframe<T> getCurrentKeyframe();
 
+    int getCurrentKeyframeIndex();
+
     @FloatRange(from = 0f, to = 1f)
     float getStartDelayProgress();
 
@@ -241,6 +268,11 @@ public abstract class BaseKeyframeAnimation<K, A> {
       return true;
     }
 
+    @Override
+    public boolean isStatic() {
+      return true;
+    }
+
     @Override
     public boolean isValueChanged(float progress) {
       return false;
@@ -251,6 +283,11 @@ public abstract class BaseKeyframeAnimation<K, A> {
       throw new IllegalStateException("not implemented");
     }
 
+    @Override
+    public int getCurrentKeyframeIndex() {
+      return -1;
+    }
+
     @Override
     public float getStartDelayProgress() {
       return 0f;
@@ -282,6 +319,11 @@ public abstract class BaseKeyframeAnimation<K, A> {
       return false;
     }
 
+    @Override
+    public boolean isStatic() {
+      return keyframe.isStatic();
+    }
+
     @Override
     public boolean isValueChanged(float progress) {
       return !keyframe.isStatic();
@@ -292,6 +334,11 @@ public abstract class BaseKeyframeAnimation<K, A> {
       return keyframe;
     }
 
+    @Override
+    public int getCurrentKeyframeIndex() {
+      return 0;
+    }
+
     @Override
     public float getStartDelayProgress() {
       return keyframe.getStartProgress();
@@ -315,14 +362,30 @@ public abstract class BaseKeyframeAnimation<K, A> {
   private static final class KeyframesWrapperImpl<T> implements KeyframesWrapper<T> {
 
     private final List<? extends Keyframe<T>> keyframes;
+    /**
+     * The start and end progress of each keyframe. Keeping them in arrays lets lookups binary search
+     * without touching the keyframes themselves.
+     */
+    private final float[] startProgresses;
+    private final float[] endProgresses;
+    /**
+     * Whether the start progresses are in ascending order. Animations exported from After Effects always
+     * are but if they aren't, lookups fall back to a linear scan.
+     */
+    private final boolean sorted;
     @NonNull
     private Keyframe<T> currentKeyframe;
+    private int currentIndex;
     private Keyframe<T> cachedCurrentKeyframe = null;
     private float cachedInterpolatedProgress = -1f;
 
-    KeyframesWrapperImpl(List<? extends Keyframe<T>> keyframes) {
+    KeyframesWrapperImpl(List<? extends Keyframe<T>> keyframes, PrimitiveKeyframes primitives) {
       this.keyframes = keyframes;
-      currentKeyframe = findKeyframe(0);
+      startProgresses = primitives.startProgresses;
+      endProgresses = primitives.endProgresses;
+      sorted = primitives.sorted;
+      currentIndex = findKeyframeIndex(0);
+      currentKeyframe = keyframes.get(currentIndex);
     }
 
     @Override
@@ -330,30 +393,80 @@ public abstract class BaseKeyframeAnimation<K, A> {
       return false;
     }
 
+    @Override
+    public boolean isStatic() {
+      return false;
+    }
+
     @Override
     public boolean isValueChanged(float progress) {
-      if (currentKeyframe.containsProgress(progress)) {
+      if (containsProgress(currentIndex, progress)) {
         return !currentKeyframe.isStatic();
       }
-      currentKeyframe = findKeyframe(progress);
+      currentIndex = findKeyframeIndex(progress);
+      currentKeyframe = keyframes.get(currentIndex);
       return true;
     }
 
-    private Keyframe<T> findKeyframe(float progress) {
-      Keyframe<T> keyframe = keyframes.get(keyframes.size() - 1);
-      if (progress >= keyframe.getStartProgress()) {
-        return keyframe;
+    /**
+     * Returns the index of the last keyframe that contains progress. If none do, returns the last keyframe if
+     * progress is past its start and the first keyframe otherwise.
+     */
+    private int findKeyframeIndex(float progress) {
+      int last = startProgresses.length - 1;
+      if (progress >= startProgresses[last]) {
+        return last;
+      }
+      if (!sorted) {
+        return findKeyframeIndexLinear(progress, last - 1);
+      }
+
+      // During playback, progress almost always moves to an adjacent keyframe.
+      int next = currentIndex + 1;
+      if (next >= 1 && next < last && isLastKeyframeContaining(next, progress)) {
+        return next;
+      }
+      int previous = currentIndex - 1;
+      if (previous >= 1 && isLastKeyframeContaining(previous, progress)) {
+        return previous;
       }
-      for (int i = keyframes.size() - 2; i >= 1; i--) {
-        keyframe = keyframes.get(i);
-        if (currentKeyframe == keyframe) {
-          continue;
+
+      // Find the last keyframe that starts at or before progress.
+      int low = 0;
+      int high = last - 1;
+      while (low < high) {
+        int mid = (low + high + 1) >>> 1;
+        if (startProgresses[mid] <= progress) {
+          low = mid;
+        } else {
+          high = mid - 1;
         }
-        if (keyframe.containsProgress(progress)) {
-          return keyframe;
+      }
+      if (low == 0 || containsProgress(low, progress)) {
+        return low;
+      }
+      // Progress is in a gap between keyframes or an earlier keyframe overlaps it.
+      return findKeyframeIndexLinear(progress, low - 1);
+    }
+
+    private int findKeyframeIndexLinear(float progress, int from) {
+      for (int i = from; i >= 1; i--) {
+        if (containsProgress(i, progress)) {
+          return i;
         }
       }
-      return keyframes.get(0);
+      return 0;
+    }
+
+    /**
+     * Whether the keyframe at index contains progress and no later keyframe could. Only valid when sorted.
+     */
+    private boolean isLastKeyframeContaining(int index, float progress) {
+      return containsProgress(index, progress) && startProgresses[index + 1] > progress;
+    }
+
+    private boolean containsProgress(int index, float progress) {
+      return progress >= startProgresses[index] && progress < endProgresses[index];
     }
 
     @Override
@@ -362,6 +475,11 @@ public abstract class BaseKeyframeAnimation<K, A> {
       return currentKeyframe;
     }
 
+    @Override
+    public int getCurrentKeyframeIndex() {
+      return currentIndex;
+    }
+
     @Override
     public float getStartDelayProgress() {
       return keyframes.get(0).getStartProgress();
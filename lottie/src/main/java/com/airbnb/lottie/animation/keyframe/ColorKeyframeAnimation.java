@@ -1,5 +1,7 @@
 package com.airbnb.lottie.animation.keyframe;
 
+import androidx.annotation.Nullable;
+
 import com.airbnb.lottie.utils.GammaEvaluator;
 import com.airbnb.lottie.utils.MiscUtils;
 import com.airbnb.lottie.value.Keyframe;
@@ -9,7 +11,11 @@ import java.util.List;
 public class ColorKeyframeAnimation extends KeyframeAnimation<Integer> {
 
   public ColorKeyframeAnimation(List<Keyframe<Integer>> keyframes) {
-    super(keyframes);
+    this(keyframes, null);
+  }
+
+  public ColorKeyframeAnimation(List<Keyframe<Integer>> keyframes, @Nullable PrimitiveKeyframes primitives) {
+    super(keyframes, primitives);
   }
 
   @Override
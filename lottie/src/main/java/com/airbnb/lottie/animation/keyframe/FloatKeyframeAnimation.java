@@ -1,14 +1,24 @@
 package com.airbnb.lottie.animation.keyframe;
 
+import androidx.annotation.Nullable;
+
 import com.airbnb.lottie.utils.MiscUtils;
 import com.airbnb.lottie.value.Keyframe;
 
 import java.util.List;
 
 public class FloatKeyframeAnimation extends KeyframeAnimation<Float> {
+  @Nullable private final float[] startValues;
+  @Nullable private final float[] endValues;
 
   public FloatKeyframeAnimation(List<Keyframe<Float>> keyframes) {
-    super(keyframes);
+    this(keyframes, null);
+  }
+
+  public FloatKeyframeAnimation(List<Keyframe<Float>> keyframes, @Nullable PrimitiveKeyframes primitives) {
+    super(keyframes, primitives);
+    startValues = primitives == null ? null : primitives.startValues;
+    endValues = primitives == null ? null : primitives.endValues;
   }
 
   @Override Float getValue(Keyframe<Float> keyframe, float keyframeProgress) {
@@ -19,6 +29,10 @@ public class FloatKeyframeAnimation extends KeyframeAnimation<Float> {
    * Optimization to avoid autoboxing.
    */
   float getFloatValue(Keyframe<Float> keyframe, float keyframeProgress) {
+    if (valueCallback == null && startValues != null && endValues != null && keyframe == getCurrentKeyframe()) {
+      int index = getCurrentKeyframeIndex();
+      return MiscUtils.lerp(startValues[index], endValues[index], keyframeProgress);
+    }
     if (keyframe.startValue == null || keyframe.endValue == null) {
       throw new IllegalStateException("Missing values for keyframe.");
     }
@@ -1,5 +1,7 @@
 package com.airbnb.lottie.animation.keyframe;
 
+import androidx.annotation.Nullable;
+
 import com.airbnb.lottie.model.content.GradientColor;
 import com.airbnb.lottie.value.Keyframe;
 
@@ -9,7 +11,12 @@ public class GradientColorKeyframeAnimation extends KeyframeAnimation<GradientCo
   private final GradientColor gradientColor;
 
   public GradientColorKeyframeAnimation(List<Keyframe<GradientColor>> keyframes) {
-    super(keyframes);
+    this(keyframes, null);
+  }
+
+  public GradientColorKeyframeAnimation(List<Keyframe<GradientColor>> keyframes,
+      @Nullable PrimitiveKeyframes primitives) {
+    super(keyframes, primitives);
     // Not all keyframes that this GradientColor are used for will have the same length.
     // AnimatableGradientColorValue.ensureInterpolatableKeyframes may add extra positions
     // for some keyframes but not others to ensure that it is interpolatable.
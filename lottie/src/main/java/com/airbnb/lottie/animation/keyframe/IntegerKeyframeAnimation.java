@@ -1,14 +1,24 @@
 package com.airbnb.lottie.animation.keyframe;
 
+import androidx.annotation.Nullable;
+
 import com.airbnb.lottie.utils.MiscUtils;
 import com.airbnb.lottie.value.Keyframe;
 
 import java.util.List;
 
 public class IntegerKeyframeAnimation extends KeyframeAnimation<Integer> {
+  @Nullable private final int[] startValues;
+  @Nullable private final int[] endValues;
 
   public IntegerKeyframeAnimation(List<Keyframe<Integer>> keyframes) {
-    super(keyframes);
+    this(keyframes, null);
+  }
+
+  public IntegerKeyframeAnimation(List<Keyframe<Integer>> keyframes, @Nullable PrimitiveKeyframes primitives) {
+    super(keyframes, primitives);
+    startValues = primitives == null ? null : primitives.startIntValues;
+    endValues = primitives == null ? null : primitives.endIntValues;
   }
 
   @Override
@@ -20,6 +30,10 @@ public class IntegerKeyframeAnimation extends KeyframeAnimation<Integer> {
    * Optimization to avoid autoboxing.
    */
   int getIntValue(Keyframe<Integer> keyframe, float keyframeProgress) {
+    if (valueCallback == null && startValues != null && endValues != null && keyframe == getCurrentKeyframe()) {
+      int index = getCurrentKeyframeIndex();
+      return MiscUtils.lerp(startValues[index], endValues[index], keyframeProgress);
+    }
     if (keyframe.startValue == null) {
       throw new IllegalStateException("Missing values for keyframe.");
     }
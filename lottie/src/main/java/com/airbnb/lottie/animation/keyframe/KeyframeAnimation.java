@@ -1,5 +1,7 @@
 package com.airbnb.lottie.animation.keyframe;
 
+import androidx.annotation.Nullable;
+
 import com.airbnb.lottie.value.Keyframe;
 
 import java.util.List;
@@ -8,4 +10,8 @@ abstract class KeyframeAnimation<T> extends BaseKeyframeAnimation<T, T> {
   KeyframeAnimation(List<? extends Keyframe<T>> keyframes) {
     super(keyframes);
   }
+
+  KeyframeAnimation(List<? extends Keyframe<T>> keyframes, @Nullable PrimitiveKeyframes primitives) {
+    super(keyframes, primitives);
+  }
 }
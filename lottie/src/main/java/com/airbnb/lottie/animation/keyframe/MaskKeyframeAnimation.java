@@ -25,6 +25,18 @@ public class MaskKeyframeAnimation {
     }
   }
 
+  /**
+   * Returns whether the paths and opacities of the masks are the same at every progress.
+   */
+  public boolean isStatic() {
+    for (int i = 0; i < masks.size(); i++) {
+      if (!maskAnimations.get(i).isStatic() || !opacityAnimations.get(i).isStatic()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public List<Mask> getMasks() {
     return masks;
   }
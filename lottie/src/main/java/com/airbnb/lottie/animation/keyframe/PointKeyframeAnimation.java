@@ -2,15 +2,25 @@ package com.airbnb.lottie.animation.keyframe;
 
 import android.graphics.PointF;
 
+import androidx.annotation.Nullable;
+
 import com.airbnb.lottie.value.Keyframe;
 
 import java.util.List;
 
 public class PointKeyframeAnimation extends KeyframeAnimation<PointF> {
   private final PointF point = new PointF();
+  @Nullable private final float[] startValues;
+  @Nullable private final float[] endValues;
 
   public PointKeyframeAnimation(List<Keyframe<PointF>> keyframes) {
-    super(keyframes);
+    this(keyframes, null);
+  }
+
+  public PointKeyframeAnimation(List<Keyframe<PointF>> keyframes, @Nullable PrimitiveKeyframes primitives) {
+    super(keyframes, primitives);
+    startValues = primitives == null ? null : primitives.startValues;
+    endValues = primitives == null ? null : primitives.endValues;
   }
 
   @Override public PointF getValue(Keyframe<PointF> keyframe, float keyframeProgress) {
@@ -18,6 +28,13 @@ public class PointKeyframeAnimation extends KeyframeAnimation<PointF> {
   }
 
   @Override protected PointF getValue(Keyframe<PointF> keyframe, float linearKeyframeProgress, float xKeyframeProgress, float yKeyframeProgress) {
+    if (valueCallback == null && startValues != null && endValues != null && keyframe == getCurrentKeyframe()) {
+      int x = getCurrentKeyframeIndex() * 2;
+      int y = x + 1;
+      point.set(startValues[x] + xKeyframeProgress * (endValues[x] - startValues[x]),
+          startValues[y] + yKeyframeProgress * (endValues[y] - startValues[y]));
+      return point;
+    }
     if (keyframe.startValue == null || keyframe.endValue == null) {
       throw new IllegalStateException("Missing values for keyframe.");
     }
@@ -0,0 +1,125 @@
+package com.airbnb.lottie.animation.keyframe;
+
+import android.graphics.PointF;
+
+import androidx.annotation.Nullable;
+
+import com.airbnb.lottie.value.Keyframe;
+
+import java.util.List;
+
+/**
+ * The timing and values of a list of keyframes flattened into primitive arrays.
+ * <p>
+ * One instance is created per animatable value and shared by every animation created from it so each
+ * {@link com.airbnb.lottie.LottieDrawable} doesn't have to build its own lookup tables. Animations read
+ * keyframe values from here rather than unboxing them from their {@link Keyframe}.
+ * <p>
+ * This must only be created after the composition has been initialized because keyframe progress depends
+ * on the composition's start and end frames.
+ */
+public final class PrimitiveKeyframes {
+  final float[] startProgresses;
+  final float[] endProgresses;
+  /**
+   * Whether the start progresses are in ascending order and can be binary searched.
+   */
+  final boolean sorted;
+  /**
+   * Start and end values with {@link #dimensions} entries per keyframe, or null if they aren't stored as floats.
+   */
+  @Nullable final float[] startValues;
+  @Nullable final float[] endValues;
+  /**
+   * Start and end values of integer keyframes, or null if they aren't stored as ints.
+   */
+  @Nullable final int[] startIntValues;
+  @Nullable final int[] endIntValues;
+  final int dimensions;
+
+  private PrimitiveKeyframes(List<? extends Keyframe<?>> keyframes, @Nullable float[] startValues, @Nullable float[] endValues,
+      @Nullable int[] startIntValues, @Nullable int[] endIntValues, int dimensions) {
+    int size = keyframes.size();
+    startProgresses = new float[size];
+    endProgresses = new float[size];
+    boolean sorted = true;
+    for (int i = 0; i < size; i++) {
+      Keyframe<?> keyframe = keyframes.get(i);
+      startProgresses[i] = keyframe.getStartProgress();
+      endProgresses[i] = keyframe.getEndProgress();
+      if (i > 0 && startProgresses[i] < startProgresses[i - 1]) {
+        sorted = false;
+      }
+    }
+    this.sorted = sorted;
+    this.startValues = startValues;
+    this.endValues = endValues;
+    this.startIntValues = startIntValues;
+    this.endIntValues = endIntValues;
+    this.dimensions = dimensions;
+  }
+
+  /**
+   * Only stores keyframe timing. Values are read from the keyframes themselves.
+   */
+  public static PrimitiveKeyframes timingOf(List<? extends Keyframe<?>> keyframes) {
+    return new PrimitiveKeyframes(keyframes, null, null, null, null, 0);
+  }
+
+  public static PrimitiveKeyframes ofFloats(List<Keyframe<Float>> keyframes) {
+    int size = keyframes.size();
+    float[] startValues = new float[size];
+    float[] endValues = new float[size];
+    for (int i = 0; i < size; i++) {
+      Keyframe<Float> keyframe = keyframes.get(i);
+      if (keyframe.startValue == null || keyframe.endValue == null) {
+        // FloatKeyframeAnimation reports missing values when the keyframe is reached.
+        return timingOf(keyframes);
+      }
+      startValues[i] = keyframe.getStartValueFloat();
+      endValues[i] = keyframe.getEndValueFloat();
+    }
+    return new PrimitiveKeyframes(keyframes, startValues, endValues, null, null, 1);
+  }
+
+  public static PrimitiveKeyframes ofIntegers(List<Keyframe<Integer>> keyframes) {
+    int size = keyframes.size();
+    int[] startValues = new int[size];
+    int[] endValues = new int[size];
+    for (int i = 0; i < size; i++) {
+      Keyframe<Integer> keyframe = keyframes.get(i);
+      if (keyframe.startValue == null) {
+        // IntegerKeyframeAnimation reports missing values when the keyframe is reached.
+        return timingOf(keyframes);
+      }
+      startValues[i] = keyframe.getStartValueInt();
+      // Integer keyframes can omit their end value and hold their start value.
+      endValues[i] = keyframe.endValue == null ? startValues[i] : keyframe.getEndValueInt();
+    }
+    return new PrimitiveKeyframes(keyframes, null, null, startValues, endValues, 1);
+  }
+
+  public static PrimitiveKeyframes ofPoints(List<Keyframe<PointF>> keyframes) {
+    int size = keyframes.size();
+    float[] startValues = new float[size * 2];
+    float[] endValues = new float[size * 2];
+    for (int i = 0; i < size; i++) {
+      Keyframe<PointF> keyframe = keyframes.get(i);
+      PointF startPoint = keyframe.startValue;
+      PointF endPoint = keyframe.endValue;
+      if (startPoint == null || endPoint == null) {
+        // PointKeyframeAnimation reports missing values when the keyframe is reached.
+        return timingOf(keyframes);
+      }
+      startValues[i * 2] = startPoint.x;
+      startValues[i * 2 + 1] = startPoint.y;
+      endValues[i * 2] = endPoint.x;
+      endValues[i * 2 + 1] = endPoint.y;
+    }
+    return new PrimitiveKeyframes(keyframes, startValues, endValues, null, null, 2);
+  }
+
+  public int size() {
+    return startProgresses.length;
+  }
+}
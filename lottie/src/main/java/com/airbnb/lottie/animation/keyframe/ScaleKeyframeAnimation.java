@@ -1,5 +1,7 @@
 package com.airbnb.lottie.animation.keyframe;
 
+import androidx.annotation.Nullable;
+
 import com.airbnb.lottie.utils.MiscUtils;
 import com.airbnb.lottie.value.Keyframe;
 import com.airbnb.lottie.value.ScaleXY;
@@ -11,7 +13,11 @@ public class ScaleKeyframeAnimation extends KeyframeAnimation<ScaleXY> {
   private final ScaleXY scaleXY = new ScaleXY();
 
   public ScaleKeyframeAnimation(List<Keyframe<ScaleXY>> keyframes) {
-    super(keyframes);
+    this(keyframes, null);
+  }
+
+  public ScaleKeyframeAnimation(List<Keyframe<ScaleXY>> keyframes, @Nullable PrimitiveKeyframes primitives) {
+    super(keyframes, primitives);
   }
 
   @Override public ScaleXY getValue(Keyframe<ScaleXY> keyframe, float keyframeProgress) {
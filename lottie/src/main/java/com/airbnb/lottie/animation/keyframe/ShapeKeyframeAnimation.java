@@ -20,7 +20,11 @@ public class ShapeKeyframeAnimation extends BaseKeyframeAnimation<ShapeData, Pat
   private List<ShapeModifierContent> shapeModifiers;
 
   public ShapeKeyframeAnimation(List<Keyframe<ShapeData>> keyframes) {
-    super(keyframes);
+    this(keyframes, null);
+  }
+
+  public ShapeKeyframeAnimation(List<Keyframe<ShapeData>> keyframes, @Nullable PrimitiveKeyframes primitives) {
+    super(keyframes, primitives);
   }
 
   @Override public Path getValue(Keyframe<ShapeData> keyframe, float keyframeProgress) {
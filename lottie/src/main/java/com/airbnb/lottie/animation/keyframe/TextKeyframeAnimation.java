@@ -1,5 +1,7 @@
 package com.airbnb.lottie.animation.keyframe;
 
+import androidx.annotation.Nullable;
+
 import com.airbnb.lottie.model.DocumentData;
 import com.airbnb.lottie.value.Keyframe;
 import com.airbnb.lottie.value.LottieFrameInfo;
@@ -9,7 +11,11 @@ import java.util.List;
 
 public class TextKeyframeAnimation extends KeyframeAnimation<DocumentData> {
   public TextKeyframeAnimation(List<Keyframe<DocumentData>> keyframes) {
-    super(keyframes);
+    this(keyframes, null);
+  }
+
+  public TextKeyframeAnimation(List<Keyframe<DocumentData>> keyframes, @Nullable PrimitiveKeyframes primitives) {
+    super(keyframes, primitives);
   }
 
   @Override DocumentData getValue(Keyframe<DocumentData> keyframe, float keyframeProgress) {
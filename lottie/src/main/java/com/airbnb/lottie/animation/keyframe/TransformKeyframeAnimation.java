@@ -156,6 +156,18 @@ public class TransformKeyframeAnimation {
     }
   }
 
+  /**
+   * Returns whether the matrix and opacity of this transform are the same at every progress.
+   */
+  public boolean isStatic() {
+    return isStatic(opacity) && isStatic(startOpacity) && isStatic(endOpacity) && isStatic(anchorPoint) &&
+        isStatic(position) && isStatic(scale) && isStatic(rotation) && isStatic(skew) && isStatic(skewAngle);
+  }
+
+  private static boolean isStatic(@Nullable BaseKeyframeAnimation<?, ?> animation) {
+    return animation == null || animation.isStatic();
+  }
+
   @Nullable public BaseKeyframeAnimation<?, Integer> getOpacity() {
     return opacity;
   }
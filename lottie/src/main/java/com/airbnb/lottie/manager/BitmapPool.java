@@ -0,0 +1,352 @@
+package com.airbnb.lottie.manager;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.airbnb.lottie.utils.Logger;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A process-wide cache of decoded image asset bitmaps shared by every {@link ImageAssetManager}.
+ * <p>
+ * Bitmaps are reference counted. A bitmap stays cached while any manager references it and, once it is no
+ * longer referenced, until it is the least recently used bitmap and the cache exceeds its byte budget. Evicted
+ * bitmaps are kept in a smaller reuse pool so that a later decode can write into them with
+ * {@link BitmapFactory.Options#inBitmap} rather than allocating a new bitmap.
+ * <p>
+ * Unreferenced bitmaps are dropped when the system asks the app to trim its memory.
+ */
+public class BitmapPool implements ComponentCallbacks2 {
+
+  private static final BitmapPool INSTANCE = new BitmapPool(defaultMaxBytes());
+
+  public static BitmapPool getInstance() {
+    return INSTANCE;
+  }
+
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final ArrayDeque<Entry> reusableBitmaps = new ArrayDeque<>();
+  private long maxBytes;
+  private long bytes;
+  private long reusableBytes;
+  private boolean registered;
+
+  @VisibleForTesting BitmapPool(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  private static long defaultMaxBytes() {
+    return Runtime.getRuntime().maxMemory() / 8;
+  }
+
+  /**
+   * Trims the pool when the system is low on memory. Only the first context registers.
+   */
+  public synchronized void registerComponentCallbacks(Context context) {
+    if (registered) {
+      return;
+    }
+    registered = true;
+    context.getApplicationContext().registerComponentCallbacks(this);
+  }
+
+  /**
+   * Returns the cached bitmap for the key and adds a reference to it or null if it isn't cached.
+   * Every bitmap that is returned must be released with {@link #release(Key)}.
+   */
+  @Nullable
+  public synchronized Bitmap acquire(Key key) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.bitmap.isRecycled()) {
+      // Bitmaps are handed out so they may have been recycled while nothing referenced them.
+      entries.remove(key);
+      bytes -= entry.byteCount;
+      return null;
+    }
+    entry.references++;
+    return entry.bitmap;
+  }
+
+  /**
+   * Caches a newly decoded bitmap with a single reference and returns it. If the key was cached in the meantime,
+   * the cached bitmap is referenced and returned instead and the new one is kept for reuse.
+   * Every bitmap that is returned must be released with {@link #release(Key)}.
+   */
+  public synchronized Bitmap put(Key key, Bitmap bitmap) {
+    Entry entry = entries.get(key);
+    if (entry != null) {
+      entry.references++;
+      if (entry.bitmap != bitmap) {
+        addReusable(bitmap);
+      }
+      return entry.bitmap;
+    }
+    entry = new Entry(bitmap);
+    entries.put(key, entry);
+    bytes += entry.byteCount;
+    trimToSize(maxBytes);
+    return bitmap;
+  }
+
+  /**
+   * Removes a reference added by {@link #acquire(Key)} or {@link #put(Key, Bitmap)}. Unreferenced bitmaps stay cached
+   * until they are evicted.
+   */
+  public synchronized void release(Key key) {
+    Entry entry = entries.get(key);
+    if (entry == null || entry.references == 0) {
+      Logger.warning("Released a bitmap that wasn't referenced.");
+      return;
+    }
+    entry.references--;
+    if (entry.references == 0) {
+      trimToSize(maxBytes);
+    }
+  }
+
+  /**
+   * Decodes an image at the given size. The image is sampled down while it is decoded so that it is never decoded
+   * at a much larger size than it is drawn at, and it is decoded into a bitmap from the reuse pool if one fits.
+   *
+   * @return the decoded bitmap, which isn't cached, or null if the image couldn't be decoded.
+   */
+  @Nullable
+  public Bitmap decode(Source source, int width, int height) throws IOException {
+    BitmapFactory.Options opts = new BitmapFactory.Options();
+    opts.inScaled = true;
+    opts.inDensity = 160;
+    opts.inJustDecodeBounds = true;
+    source.decode(opts);
+    opts.inSampleSize = calculateInSampleSize(opts.outWidth, opts.outHeight, width, height);
+    opts.inJustDecodeBounds = false;
+    setReusableBitmap(opts, opts.outWidth, opts.outHeight);
+
+    Bitmap bitmap = null;
+    if (opts.inBitmap != null) {
+      try {
+        bitmap = source.decode(opts);
+      } catch (IllegalArgumentException e) {
+        // The reused bitmap can't hold this image after all.
+        opts.inBitmap = null;
+      }
+    }
+    if (bitmap == null) {
+      bitmap = source.decode(opts);
+    }
+    if (bitmap == null || (bitmap.getWidth() == width && bitmap.getHeight() == height) || width <= 0 || height <= 0) {
+      return bitmap;
+    }
+    // Sampling only scales by powers of two so the bitmap may still be somewhat larger than the asset.
+    Bitmap resizedBitmap = Bitmap.createScaledBitmap(bitmap, width, height, true);
+    synchronized (this) {
+      addReusable(bitmap);
+    }
+    return resizedBitmap;
+  }
+
+  /**
+   * Returns the largest power of two sample size that still decodes the image at least as large as the
+   * requested size.
+   */
+  private static int calculateInSampleSize(int outWidth, int outHeight, int reqWidth, int reqHeight) {
+    int inSampleSize = 1;
+    if (reqWidth <= 0 || reqHeight <= 0) {
+      return inSampleSize;
+    }
+    int halfWidth = outWidth / 2;
+    int halfHeight = outHeight / 2;
+    while (halfWidth / inSampleSize >= reqWidth && halfHeight / inSampleSize >= reqHeight) {
+      inSampleSize *= 2;
+    }
+    return inSampleSize;
+  }
+
+  /**
+   * Sets {@link BitmapFactory.Options#inBitmap} to a bitmap from the reuse pool that can hold an image of the given
+   * size once it is sampled with {@link BitmapFactory.Options#inSampleSize}. The reused bitmap is removed from the pool.
+   */
+  private void setReusableBitmap(BitmapFactory.Options opts, int outWidth, int outHeight) {
+    opts.inMutable = true;
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT || outWidth <= 0 || outHeight <= 0) {
+      // Before KitKat, inBitmap only works for unsampled decodes of exactly the same size.
+      return;
+    }
+    int sampleSize = Math.max(1, opts.inSampleSize);
+    int width = (outWidth + sampleSize - 1) / sampleSize;
+    int height = (outHeight + sampleSize - 1) / sampleSize;
+    long requiredBytes = (long) width * height * 4;
+    synchronized (this) {
+      Iterator<Entry> it = reusableBitmaps.iterator();
+      while (it.hasNext()) {
+        Entry entry = it.next();
+        Bitmap bitmap = entry.bitmap;
+        if (!bitmap.isRecycled() && bitmap.getConfig() == Bitmap.Config.ARGB_8888 && entry.byteCount >= requiredBytes) {
+          it.remove();
+          reusableBytes -= entry.byteCount;
+          opts.inBitmap = bitmap;
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Sets the byte budget of cached bitmaps. The reuse pool may hold up to another quarter of it.
+   */
+  public synchronized void setMaxBytes(long maxBytes) {
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("maxBytes must be > 0");
+    }
+    this.maxBytes = maxBytes;
+    trimToSize(maxBytes);
+  }
+
+  /**
+   * Drops every bitmap that isn't referenced.
+   */
+  public synchronized void clear() {
+    trimToSize(0);
+  }
+
+  @VisibleForTesting synchronized long getBytes() {
+    return bytes;
+  }
+
+  @VisibleForTesting synchronized long getReusableBytes() {
+    return reusableBytes;
+  }
+
+  @Override public void onTrimMemory(int level) {
+    if (level >= TRIM_MEMORY_BACKGROUND || level == TRIM_MEMORY_UI_HIDDEN) {
+      clear();
+    } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+      synchronized (this) {
+        trimToSize(maxBytes / 2);
+      }
+    }
+  }
+
+  @Override public void onConfigurationChanged(@NonNull Configuration newConfig) {
+  }
+
+  @Override public void onLowMemory() {
+    clear();
+  }
+
+  private void trimToSize(long size) {
+    if (bytes > size) {
+      Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+      // Iteration is from least to most recently used.
+      while (bytes > size && it.hasNext()) {
+        Entry entry = it.next().getValue();
+        if (entry.references > 0) {
+          continue;
+        }
+        it.remove();
+        bytes -= entry.byteCount;
+        addReusable(entry);
+      }
+    }
+    trimReusableToSize(size / 4);
+  }
+
+  private void addReusable(Bitmap bitmap) {
+    addReusable(new Entry(bitmap));
+  }
+
+  private void addReusable(Entry entry) {
+    if (!entry.bitmap.isMutable() || entry.bitmap.isRecycled()) {
+      return;
+    }
+    reusableBitmaps.addLast(entry);
+    reusableBytes += entry.byteCount;
+    trimReusableToSize(maxBytes / 4);
+  }
+
+  private void trimReusableToSize(long size) {
+    while (reusableBytes > size) {
+      reusableBytes -= reusableBitmaps.removeFirst().byteCount;
+    }
+  }
+
+  private static long byteCount(Bitmap bitmap) {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+      return bitmap.getAllocationByteCount();
+    }
+    return bitmap.getByteCount();
+  }
+
+  /**
+   * Decodes the same image every time it is called.
+   */
+  public interface Source {
+    @Nullable Bitmap decode(BitmapFactory.Options opts) throws IOException;
+  }
+
+  private static class Entry {
+    final Bitmap bitmap;
+    /**
+     * Stored because recycled bitmaps report a size of 0.
+     */
+    final long byteCount;
+    int references = 1;
+
+    Entry(Bitmap bitmap) {
+      this.bitmap = bitmap;
+      byteCount = byteCount(bitmap);
+    }
+  }
+
+  /**
+   * Identifies a decoded image by where it was decoded from and the size it was decoded at.
+   */
+  public static final class Key {
+    private final Object source;
+    private final int width;
+    private final int height;
+
+    /**
+     * @param source the path of the image file or, for images that are embedded in a composition, its
+     *               {@link com.airbnb.lottie.LottieImageAsset} which is compared by identity.
+     */
+    public Key(Object source, int width, int height) {
+      this.source = source;
+      this.width = width;
+      this.height = height;
+    }
+
+    @Override public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return width == key.width && height == key.height && source.equals(key.source);
+    }
+
+    @Override public int hashCode() {
+      int result = source.hashCode();
+      result = 31 * result + width;
+      result = 31 * result + height;
+      return result;
+    }
+  }
+}
@@ -18,7 +18,12 @@ import com.airbnb.lottie.utils.Utils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 public class ImageAssetManager {
   private static final Object bitmapHashLock = new Object();
@@ -26,6 +31,17 @@ public class ImageAssetManager {
   private final String imagesFolder;
   @Nullable private ImageAssetDelegate delegate;
   private final Map<String, LottieImageAsset> imageAssets;
+  /**
+   * Bitmaps that this manager references in the {@link BitmapPool} by image id.
+   */
+  private final Map<String, BitmapPool.Key> pooledKeys = new HashMap<>();
+  private final Map<String, Bitmap> pooledBitmaps = new HashMap<>();
+  /**
+   * Ids of the images that are being decoded by {@link #prefetchBitmaps(Executor, Runnable)}.
+   */
+  private final Set<String> prefetchingIds = Collections.newSetFromMap(new ConcurrentHashMap<>());
+  @Nullable private Bitmap placeholder;
+  private boolean released;
 
   public ImageAssetManager(Drawable.Callback callback, String imagesFolder,
       ImageAssetDelegate delegate, Map<String, LottieImageAsset> imageAssets) {
@@ -42,6 +58,7 @@ public class ImageAssetManager {
     }
 
     context = ((View) callback).getContext().getApplicationContext();
+    BitmapPool.getInstance().registerComponentCallbacks(context);
   }
 
   public void setDelegate(@Nullable ImageAssetDelegate assetDelegate) {
@@ -49,9 +66,11 @@ public class ImageAssetManager {
   }
 
   /**
-   * Returns the previously set bitmap or null.
+   * Returns the previously set bitmap or null. Bitmaps that were decoded into the {@link BitmapPool} are never
+   * returned because other drawables may still share them so they must not be recycled.
    */
   @Nullable public Bitmap updateBitmap(String id, @Nullable Bitmap bitmap) {
+    releasePooledBitmap(id);
     if (bitmap == null) {
       LottieImageAsset asset = imageAssets.get(id);
       Bitmap ret = asset.getBitmap();
@@ -77,6 +96,12 @@ public class ImageAssetManager {
     if (bitmap != null) {
       return bitmap;
     }
+    synchronized (this) {
+      bitmap = pooledBitmaps.get(id);
+    }
+    if (bitmap != null) {
+      return bitmap;
+    }
 
     if (delegate != null) {
       bitmap = delegate.fetchBitmap(asset);
@@ -85,56 +110,186 @@ public class ImageAssetManager {
       }
       return bitmap;
     }
+    if (prefetchingIds.contains(id)) {
+      // Don't block drawing on an image that is already being decoded in the background.
+      return placeholder;
+    }
+    return loadBitmap(id, asset);
+  }
+
+  /**
+   * Sets the bitmap that {@link #bitmapForId(String)} returns for images that are still being decoded by
+   * {@link #prefetchBitmaps(Executor, Runnable)}. If null, those images aren't drawn until they are decoded.
+   */
+  public void setPlaceholder(@Nullable Bitmap placeholder) {
+    this.placeholder = placeholder;
+  }
+
+  /**
+   * Decodes every image that hasn't been loaded yet on the given executor so that drawing doesn't have to.
+   * {@code onBitmapDecoded} is called on the executor's thread after each image has been decoded.
+   * <p>
+   * Images provided by an {@link ImageAssetDelegate} aren't prefetched.
+   */
+  public void prefetchBitmaps(Executor executor, @Nullable Runnable onBitmapDecoded) {
+    if (delegate != null) {
+      return;
+    }
+    for (Map.Entry<String, LottieImageAsset> entry : imageAssets.entrySet()) {
+      String id = entry.getKey();
+      LottieImageAsset asset = entry.getValue();
+      if (context == null && asset.getBitmapSource() == null) {
+        continue;
+      }
+      synchronized (this) {
+        if (asset.getBitmap() != null || pooledBitmaps.containsKey(id) || !prefetchingIds.add(id)) {
+          continue;
+        }
+      }
+      executor.execute(() -> {
+        Bitmap bitmap = null;
+        try {
+          bitmap = loadBitmap(id, asset);
+        } catch (RuntimeException e) {
+          Logger.warning("Unable to prefetch image `" + id + "`.", e);
+        } finally {
+          prefetchingIds.remove(id);
+        }
+        if (bitmap != null && onBitmapDecoded != null) {
+          onBitmapDecoded.run();
+        }
+      });
+    }
+  }
+
+  /**
+   * Releases every bitmap this manager references in the {@link BitmapPool}. This must be called once the manager is
+   * no longer used.
+   */
+  public synchronized void releaseBitmaps() {
+    BitmapPool pool = BitmapPool.getInstance();
+    for (BitmapPool.Key key : pooledKeys.values()) {
+      pool.release(key);
+    }
+    pooledKeys.clear();
+    pooledBitmaps.clear();
+    released = true;
+  }
+
+  /**
+   * Returns the image from the {@link BitmapPool}, decoding it first if no other animation has.
+   */
+  @Nullable private Bitmap loadBitmap(String id, LottieImageAsset asset) {
     Context context = this.context;
-    if (context == null) {
+    BitmapPool.Source bitmapSource = asset.getBitmapSource();
+    if (context == null && bitmapSource == null) {
       // If there is no context, the image has to be embedded or provided via
       // a delegate.
       return null;
     }
 
     String filename = asset.getFileName();
-    BitmapFactory.Options opts = new BitmapFactory.Options();
-    opts.inScaled = true;
-    opts.inDensity = 160;
-
-    if (filename.startsWith("data:") && filename.indexOf("base64,") > 0) {
-      // Contents look like a base64 data URI, with the format data:image/png;base64,<data>.
-      byte[] data;
-      try {
-        data = Base64.decode(filename.substring(filename.indexOf(',') + 1), Base64.DEFAULT);
-      } catch (IllegalArgumentException e) {
-        Logger.warning("data URL did not have correct base64 format.", e);
+    boolean isDataUri = filename.startsWith("data:") && filename.indexOf("base64,") > 0;
+    // Images in the images folder may be shared between compositions. Embedded ones belong to their asset.
+    boolean isEmbedded = isDataUri || bitmapSource != null;
+    BitmapPool.Key key = new BitmapPool.Key(isEmbedded ? asset : imagesFolder + filename, asset.getWidth(), asset.getHeight());
+    BitmapPool pool = BitmapPool.getInstance();
+    Bitmap bitmap = pool.acquire(key);
+    if (bitmap == null) {
+      if (bitmapSource != null) {
+        bitmap = decodeSource(id, asset, bitmapSource);
+      } else {
+        bitmap = isDataUri ? decodeDataUri(id, asset) : decodeAsset(context, id, asset);
+      }
+      if (bitmap == null) {
         return null;
       }
-      bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, opts);
-      Bitmap resizedBitmap = Utils.resizeBitmapIfNeeded(bitmap, asset.getWidth(), asset.getHeight());
-      return putBitmap(id, resizedBitmap);
+      bitmap = pool.put(key, bitmap);
     }
 
-    InputStream is;
-    try {
-      if (TextUtils.isEmpty(imagesFolder)) {
-        throw new IllegalStateException("You must set an images folder before loading an image." +
-            " Set it with LottieComposition#setImagesFolder or LottieDrawable#setImagesFolder");
+    synchronized (this) {
+      if (released) {
+        // A prefetch finished after the animation stopped using this manager.
+        pool.release(key);
+        return null;
+      }
+      Bitmap existingBitmap = pooledBitmaps.get(id);
+      if (existingBitmap != null) {
+        // The image was loaded on another thread in the meantime.
+        pool.release(key);
+        return existingBitmap;
       }
-      is = context.getAssets().open(imagesFolder + filename);
+      pooledKeys.put(id, key);
+      pooledBitmaps.put(id, bitmap);
+    }
+    return bitmap;
+  }
+
+  @Nullable private Bitmap decodeDataUri(String id, LottieImageAsset asset) {
+    String filename = asset.getFileName();
+    // Contents look like a base64 data URI, with the format data:image/png;base64,<data>.
+    byte[] data;
+    try {
+      data = Base64.decode(filename.substring(filename.indexOf(',') + 1), Base64.DEFAULT);
+    } catch (IllegalArgumentException e) {
+      Logger.warning("data URL did not have correct base64 format.", e);
+      return null;
+    }
+    Bitmap bitmap;
+    try {
+      bitmap = BitmapPool.getInstance().decode(opts -> BitmapFactory.decodeByteArray(data, 0, data.length, opts),
+          asset.getWidth(), asset.getHeight());
     } catch (IOException e) {
-      Logger.warning("Unable to open asset.", e);
+      // Decoding a byte array doesn't do any IO.
+      throw new IllegalStateException(e);
+    }
+    if (bitmap == null) {
+      Logger.warning("Decoded image `" + id + "` is null.");
+    }
+    return bitmap;
+  }
+
+  @Nullable private Bitmap decodeSource(String id, LottieImageAsset asset, BitmapPool.Source source) {
+    Bitmap bitmap;
+    try {
+      bitmap = BitmapPool.getInstance().decode(source, asset.getWidth(), asset.getHeight());
+    } catch (IOException | IllegalArgumentException e) {
+      Logger.warning("Unable to decode image `" + id + "`.", e);
       return null;
     }
+    if (bitmap == null) {
+      Logger.warning("Decoded image `" + id + "` is null.");
+    }
+    return bitmap;
+  }
 
+  @Nullable private Bitmap decodeAsset(Context context, String id, LottieImageAsset asset) {
+    if (TextUtils.isEmpty(imagesFolder)) {
+      throw new IllegalStateException("You must set an images folder before loading an image." +
+          " Set it with LottieComposition#setImagesFolder or LottieDrawable#setImagesFolder");
+    }
+    String path = imagesFolder + asset.getFileName();
+    Bitmap bitmap;
     try {
-      bitmap = BitmapFactory.decodeStream(is, null, opts);
+      bitmap = BitmapPool.getInstance().decode(opts -> {
+        InputStream is = context.getAssets().open(path);
+        try {
+          return BitmapFactory.decodeStream(is, null, opts);
+        } finally {
+          Utils.closeQuietly(is);
+        }
+      }, asset.getWidth(), asset.getHeight());
+    } catch (IOException e) {
+      Logger.warning("Unable to open asset.", e);
+      return null;
     } catch (IllegalArgumentException e) {
       Logger.warning("Unable to decode image `" + id + "`.", e);
       return null;
     }
     if (bitmap == null) {
       Logger.warning("Decoded image `" + id + "` is null.");
-      return null;
     }
-    bitmap = Utils.resizeBitmapIfNeeded(bitmap, asset.getWidth(), asset.getHeight());
-    return putBitmap(id, bitmap);
+    return bitmap;
   }
 
   public boolean hasSameContext(Context context) {
@@ -145,6 +300,15 @@ public class ImageAssetManager {
     return contextToCompare == this.context;
   }
 
+  private synchronized void releasePooledBitmap(String id) {
+    BitmapPool.Key key = pooledKeys.remove(id);
+    if (key == null) {
+      return;
+    }
+    BitmapPool.getInstance().release(key);
+    pooledBitmaps.remove(id);
+  }
+
   private Bitmap putBitmap(String key, @Nullable Bitmap bitmap) {
     synchronized (bitmapHashLock) {
       imageAssets.get(key).setBitmap(bitmap);
@@ -1,24 +1,77 @@
 package com.airbnb.lottie.model;
 
+import android.graphics.Bitmap;
+import android.os.Build;
+
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.annotation.VisibleForTesting;
 import androidx.collection.LruCache;
 
 import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.LottieCompositionCacheStats;
+import com.airbnb.lottie.LottieImageAsset;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 @RestrictTo(RestrictTo.Scope.LIBRARY)
 public class LottieCompositionCache {
 
+  /**
+   * Estimates how many bytes of memory a composition retains.
+   */
+  public interface Weigher {
+    int weigh(LottieComposition composition);
+  }
+
+  private static final int DEFAULT_MAX_ENTRIES = 20;
+  /**
+   * Rough retained sizes of the parsed objects that make up most of a composition.
+   */
+  private static final int BASE_BYTES = 4 * 1024;
+  private static final int LAYER_BYTES = 1024;
+  private static final int KEYFRAME_BYTES = 112;
+  private static final int SHAPE_VERTEX_BYTES = 72;
+
+  /**
+   * Weighs a composition by its layers, keyframes, shape vertices and the bitmaps its image assets hold.
+   * Precomps that haven't been parsed yet aren't counted.
+   */
+  public static final Weigher DEFAULT_WEIGHER = composition -> {
+    long bytes = BASE_BYTES;
+    bytes += (long) composition.getLayerCount() * LAYER_BYTES;
+    bytes += (long) composition.getKeyframeCount() * KEYFRAME_BYTES;
+    bytes += (long) composition.getShapeVertexCount() * SHAPE_VERTEX_BYTES;
+    for (LottieImageAsset asset : composition.getImages().values()) {
+      Bitmap bitmap = asset.getBitmap();
+      if (bitmap != null && !bitmap.isRecycled()) {
+        bytes += Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT ? bitmap.getAllocationByteCount() : bitmap.getByteCount();
+      }
+    }
+    return (int) Math.min(bytes, Integer.MAX_VALUE);
+  };
+
   private static final LottieCompositionCache INSTANCE = new LottieCompositionCache();
 
   public static LottieCompositionCache getInstance() {
     return INSTANCE;
   }
 
-  private final LruCache<String, LottieComposition> cache = new LruCache<>(20);
+  private final Weigher weigher;
+  private volatile LruCache<String, Entry> cache = createCache(DEFAULT_MAX_ENTRIES, false);
+  private boolean sizeInBytes = false;
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong putCount = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
 
   @VisibleForTesting LottieCompositionCache() {
+    this(DEFAULT_WEIGHER);
+  }
+
+  @VisibleForTesting LottieCompositionCache(Weigher weigher) {
+    this.weigher = weigher;
   }
 
   @Nullable
@@ -26,14 +79,22 @@ public class LottieCompositionCache {
     if (cacheKey == null) {
       return null;
     }
-    return cache.get(cacheKey);
+    Entry entry = cache.get(cacheKey);
+    if (entry == null) {
+      missCount.incrementAndGet();
+      return null;
+    }
+    hitCount.incrementAndGet();
+    return entry.composition;
   }
 
   public void put(@Nullable String cacheKey, LottieComposition composition) {
     if (cacheKey == null) {
       return;
     }
-    cache.put(cacheKey, composition);
+    putCount.incrementAndGet();
+    // Compositions are weighed once because LruCache requires an entry's size to stay the same while it is cached.
+    cache.put(cacheKey, new Entry(composition, weigher.weigh(composition)));
   }
 
   public void clear() {
@@ -44,7 +105,69 @@ public class LottieCompositionCache {
    * Set the maximum number of compositions to keep cached in memory.
    * This must be {@literal >} 0.
    */
-  public void resize(int size) {
-    cache.resize(size);
+  public synchronized void resize(int size) {
+    if (sizeInBytes) {
+      setCache(size, false);
+    } else {
+      cache.resize(size);
+    }
+  }
+
+  /**
+   * Set the maximum estimated number of bytes of compositions to keep cached in memory.
+   * This must be {@literal >} 0.
+   */
+  public synchronized void resizeBytes(int maxBytes) {
+    if (sizeInBytes) {
+      cache.resize(maxBytes);
+    } else {
+      setCache(maxBytes, true);
+    }
+  }
+
+  public LottieCompositionCacheStats getStats() {
+    LruCache<String, Entry> cache = this.cache;
+    synchronized (this) {
+      return new LottieCompositionCacheStats(hitCount.get(), missCount.get(), putCount.get(), evictionCount.get(),
+          cache.snapshot().size(), cache.size(), cache.maxSize(), sizeInBytes);
+    }
+  }
+
+  /**
+   * Replaces the cache with one that measures its entries differently and moves the entries over, least recently
+   * used first so their order is kept.
+   */
+  private void setCache(int maxSize, boolean sizeInBytes) {
+    LruCache<String, Entry> newCache = createCache(maxSize, sizeInBytes);
+    for (Map.Entry<String, Entry> entry : cache.snapshot().entrySet()) {
+      newCache.put(entry.getKey(), entry.getValue());
+    }
+    this.sizeInBytes = sizeInBytes;
+    cache = newCache;
+  }
+
+  private LruCache<String, Entry> createCache(int maxSize, boolean sizeInBytes) {
+    return new LruCache<String, Entry>(maxSize) {
+      @Override protected int sizeOf(String key, Entry value) {
+        return sizeInBytes ? value.weight : 1;
+      }
+
+      @Override protected void entryRemoved(boolean evicted, String key, Entry oldValue, @Nullable Entry newValue) {
+        if (evicted) {
+          evictionCount.incrementAndGet();
+        }
+      }
+    };
+  }
+
+  private static class Entry {
+    final LottieComposition composition;
+    final int weight;
+
+    Entry(LottieComposition composition, int weight) {
+      this.composition = composition;
+      // LruCache doesn't allow entries with a size of 0.
+      this.weight = Math.max(1, weight);
+    }
   }
 }
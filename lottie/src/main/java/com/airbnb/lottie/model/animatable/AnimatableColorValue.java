@@ -12,6 +12,6 @@ public class AnimatableColorValue extends BaseAnimatableValue<Integer, Integer>
   }
 
   @Override public BaseKeyframeAnimation<Integer, Integer> createAnimation() {
-    return new ColorKeyframeAnimation(keyframes);
+    return new ColorKeyframeAnimation(keyframes, getPrimitiveKeyframes());
   }
 }
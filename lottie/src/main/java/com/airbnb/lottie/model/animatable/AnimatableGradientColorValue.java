@@ -51,6 +51,6 @@ public class AnimatableGradientColorValue extends BaseAnimatableValue<GradientCo
   }
 
   @Override public BaseKeyframeAnimation<GradientColor, GradientColor> createAnimation() {
-    return new GradientColorKeyframeAnimation(keyframes);
+    return new GradientColorKeyframeAnimation(keyframes, getPrimitiveKeyframes());
   }
 }
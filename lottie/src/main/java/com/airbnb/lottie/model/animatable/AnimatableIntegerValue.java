@@ -2,17 +2,21 @@ package com.airbnb.lottie.model.animatable;
 
 import com.airbnb.lottie.animation.keyframe.BaseKeyframeAnimation;
 import com.airbnb.lottie.animation.keyframe.IntegerKeyframeAnimation;
+import com.airbnb.lottie.animation.keyframe.PrimitiveKeyframes;
 import com.airbnb.lottie.value.Keyframe;
 
 import java.util.List;
 
 public class AnimatableIntegerValue extends BaseAnimatableValue<Integer, Integer> {
-
   public AnimatableIntegerValue(List<Keyframe<Integer>> keyframes) {
     super(keyframes);
   }
 
+  @Override PrimitiveKeyframes createPrimitiveKeyframes() {
+    return PrimitiveKeyframes.ofIntegers(keyframes);
+  }
+
   @Override public BaseKeyframeAnimation<Integer, Integer> createAnimation() {
-    return new IntegerKeyframeAnimation(keyframes);
+    return new IntegerKeyframeAnimation(keyframes, getPrimitiveKeyframes());
   }
 }
@@ -4,6 +4,7 @@ import android.graphics.PointF;
 
 import com.airbnb.lottie.animation.keyframe.BaseKeyframeAnimation;
 import com.airbnb.lottie.animation.keyframe.PointKeyframeAnimation;
+import com.airbnb.lottie.animation.keyframe.PrimitiveKeyframes;
 import com.airbnb.lottie.value.Keyframe;
 
 import java.util.List;
@@ -13,7 +14,11 @@ public class AnimatablePointValue extends BaseAnimatableValue<PointF, PointF> {
     super(keyframes);
   }
 
+  @Override PrimitiveKeyframes createPrimitiveKeyframes() {
+    return PrimitiveKeyframes.ofPoints(keyframes);
+  }
+
   @Override public BaseKeyframeAnimation<PointF, PointF> createAnimation() {
-    return new PointKeyframeAnimation(keyframes);
+    return new PointKeyframeAnimation(keyframes, getPrimitiveKeyframes());
   }
 }
@@ -18,6 +18,6 @@ public class AnimatableScaleValue extends BaseAnimatableValue<ScaleXY, ScaleXY>
   }
 
   @Override public BaseKeyframeAnimation<ScaleXY, ScaleXY> createAnimation() {
-    return new ScaleKeyframeAnimation(keyframes);
+    return new ScaleKeyframeAnimation(keyframes, getPrimitiveKeyframes());
   }
 }
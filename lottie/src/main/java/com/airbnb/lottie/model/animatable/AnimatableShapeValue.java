@@ -15,6 +15,6 @@ public class AnimatableShapeValue extends BaseAnimatableValue<ShapeData, Path> {
   }
 
   @Override public ShapeKeyframeAnimation createAnimation() {
-    return new ShapeKeyframeAnimation(keyframes);
+    return new ShapeKeyframeAnimation(keyframes, getPrimitiveKeyframes());
   }
 }
@@ -1,5 +1,8 @@
 package com.airbnb.lottie.model.animatable;
 
+import androidx.annotation.Nullable;
+
+import com.airbnb.lottie.animation.keyframe.PrimitiveKeyframes;
 import com.airbnb.lottie.value.Keyframe;
 
 import java.util.Arrays;
@@ -8,6 +11,7 @@ import java.util.List;
 
 abstract class BaseAnimatableValue<V, O> implements AnimatableValue<V, O> {
   final List<Keyframe<V>> keyframes;
+  @Nullable private volatile PrimitiveKeyframes primitiveKeyframes;
 
   /**
    * Create a default static animatable path.
@@ -24,6 +28,31 @@ abstract class BaseAnimatableValue<V, O> implements AnimatableValue<V, O> {
     return keyframes;
   }
 
+  /**
+   * The flattened form of the keyframes. It is built the first time an animation is created and shared by every
+   * animation created from this value afterwards, no matter how many drawables show the composition. Null unless
+   * there are multiple keyframes.
+   */
+  @Nullable final PrimitiveKeyframes getPrimitiveKeyframes() {
+    if (keyframes.size() <= 1) {
+      return null;
+    }
+    PrimitiveKeyframes primitives = primitiveKeyframes;
+    if (primitives == null) {
+      // Threads that race to build it build equal ones, so it doesn't matter which one is kept.
+      primitives = createPrimitiveKeyframes();
+      primitiveKeyframes = primitives;
+    }
+    return primitives;
+  }
+
+  /**
+   * Only flattens the keyframe timing by default. Values that can be stored as primitives override this.
+   */
+  PrimitiveKeyframes createPrimitiveKeyframes() {
+    return PrimitiveKeyframes.timingOf(keyframes);
+  }
+
   @Override
   public boolean isStatic() {
     return keyframes.isEmpty() || (keyframes.size() == 1 && keyframes.get(0).isStatic());
@@ -35,6 +35,7 @@ import com.airbnb.lottie.model.content.ShapeData;
 import com.airbnb.lottie.parser.DropShadowEffect;
 import com.airbnb.lottie.utils.Logger;
 import com.airbnb.lottie.utils.Utils;
+import com.airbnb.lottie.value.Keyframe;
 import com.airbnb.lottie.value.LottieValueCallback;
 
 import java.util.ArrayList;
@@ -59,8 +60,10 @@ public abstract class BaseLayer
       case SHAPE:
         return new ShapeLayer(drawable, layerModel, compositionLayer, composition);
       case PRE_COMP:
-        return new CompositionLayer(drawable, layerModel,
-            composition.getPrecomps(layerModel.getRefId()), composition);
+        // Hidden layers are never drawn so there is no need to parse their precomp if it was deferred.
+        List<Layer> precomp = layerModel.isHidden() ?
+            composition.getPrecompsIfParsed(layerModel.getRefId()) : composition.getPrecomps(layerModel.getRefId());
+        return new CompositionLayer(drawable, layerModel, precomp, composition);
       case SOLID:
         return new SolidLayer(drawable, layerModel);
       case IMAGE:
@@ -90,6 +93,22 @@ public abstract class BaseLayer
   private final RectF maskBoundsRect = new RectF();
   private final RectF matteBoundsRect = new RectF();
   private final RectF tempMaskBoundsRect = new RectF();
+  /**
+   * The bounds of the layer in the coordinates of the matrix it was last culled with.
+   */
+  private final RectF cullingBounds = new RectF();
+  private final Matrix cullingMatrix = new Matrix();
+  private int cullingFrameGeneration;
+  private boolean hasCullingBounds;
+  /**
+   * The bounds of the layer when {@link #addDamage(RectF, Matrix, boolean)} was last called, in the coordinates of
+   * the root composition.
+   */
+  private final RectF damageBounds = new RectF();
+  private final Matrix damageMatrix = new Matrix();
+  private final Matrix lastDamageMatrix = new Matrix();
+  private boolean hasDamageBounds;
+  private boolean wasVisibleForDamage;
   private final String drawTraceName;
   final Matrix boundsMatrix = new Matrix();
   final LottieDrawable lottieDrawable;
@@ -111,6 +130,10 @@ public abstract class BaseLayer
   private final List<BaseKeyframeAnimation<?, ?>> animations = new ArrayList<>();
   public final TransformKeyframeAnimation transform;
   private boolean visible = true;
+  /**
+   * Whether other layers have this one as their parent and are transformed by its transform.
+   */
+  private boolean hasChildLayers;
 
   private boolean outlineMasksAndMattes;
   @Nullable private Paint outlineMasksAndMattesPaint;
@@ -120,6 +143,25 @@ public abstract class BaseLayer
 
   @Nullable LPaint solidWhitePaint;
 
+  /**
+   * Whether this layer draws the same thing at every progress. Null until it is first needed.
+   *
+   * @see #isStatic()
+   */
+  @Nullable private Boolean isStatic;
+  /**
+   * The animations that {@link #setProgress(float)} updates, which are the ones whose values can change over time. Null
+   * until the progress is first set and whenever an animation or a value callback may have been added since.
+   */
+  @Nullable private List<BaseKeyframeAnimation<?, ?>> timeVaryingAnimations;
+  private boolean isTransformTimeVarying = true;
+  @Nullable private LayerRasterCache rasterCache;
+  /**
+   * True while this layer is drawn into its own raster cache or that of a layer that contains it. Layers don't
+   * cache themselves again in that case.
+   */
+  boolean isRasterizing;
+
   BaseLayer(LottieDrawable lottieDrawable, Layer layerModel) {
     this.lottieDrawable = lottieDrawable;
     this.layerModel = layerModel;
@@ -159,6 +201,7 @@ public abstract class BaseLayer
       outlineMasksAndMattesPaint = new LPaint();
     }
     outlineMasksAndMattes = outline;
+    invalidateStaticContent();
   }
 
   @Override
@@ -180,6 +223,9 @@ public abstract class BaseLayer
 
   void setParentLayer(@Nullable BaseLayer parentLayer) {
     this.parentLayer = parentLayer;
+    if (parentLayer != null) {
+      parentLayer.hasChildLayers = true;
+    }
   }
 
   private void setupInOutAnimations() {
@@ -195,7 +241,7 @@ public abstract class BaseLayer
   }
 
   private void invalidateSelf() {
-    lottieDrawable.invalidateSelf();
+    lottieDrawable.invalidateLayers();
   }
 
   public void addAnimation(@Nullable BaseKeyframeAnimation<?, ?> newAnimation) {
@@ -203,10 +249,13 @@ public abstract class BaseLayer
       return;
     }
     animations.add(newAnimation);
+    timeVaryingAnimations = null;
   }
 
   public void removeAnimation(BaseKeyframeAnimation<?, ?> animation) {
     animations.remove(animation);
+    timeVaryingAnimations = null;
+    hasCullingBounds = false;
   }
 
   @CallSuper
@@ -233,10 +282,134 @@ public abstract class BaseLayer
   @Override
   public void draw(Canvas canvas, Matrix parentMatrix, int parentAlpha) {
     L.beginSection(drawTraceName);
-    if (!visible || layerModel.isHidden()) {
+    if (!isVisible()) {
       L.endSection(drawTraceName);
       return;
     }
+    if (!drawFromRasterCache(canvas, parentMatrix, parentAlpha)) {
+      drawContents(canvas, parentMatrix, parentAlpha);
+    }
+    recordRenderTime(L.endSection(drawTraceName));
+  }
+
+  /**
+   * Draws a static layer from a bitmap that it was rendered into once.
+   *
+   * @return false if the layer has to be drawn directly.
+   * @see LayerRasterCache
+   */
+  private boolean drawFromRasterCache(Canvas canvas, Matrix parentMatrix, int parentAlpha) {
+    if (isRasterizing || !isRasterCacheCandidate() || !lottieDrawable.isStaticLayerCachingEnabled() ||
+        getBlurEffect() != null || getDropShadowEffect() != null || !isStatic()) {
+      return false;
+    }
+    LayerRasterCache rasterCache = this.rasterCache;
+    if (rasterCache == null) {
+      rasterCache = new LayerRasterCache();
+      this.rasterCache = rasterCache;
+    }
+    //noinspection deprecation
+    canvas.getMatrix(canvasMatrix);
+    canvasMatrix.preConcat(parentMatrix);
+    float scale = Utils.getScale(canvasMatrix);
+    isRasterizing = true;
+    try {
+      return rasterCache.draw(this, lottieDrawable, canvas, parentMatrix, parentAlpha, scale);
+    } finally {
+      isRasterizing = false;
+    }
+  }
+
+  /**
+   * Whether drawing this layer from a bitmap is likely to be cheaper than drawing it directly when it is static.
+   * Layers with masks or mattes draw to offscreen buffers every frame so they always are.
+   */
+  boolean isRasterCacheCandidate() {
+    return hasMasksOnThisLayer() || hasMatteOnThisLayer();
+  }
+
+  /**
+   * Returns whether everything this layer draws, other than whether it is visible at all, is the same at every
+   * progress. That is the case when none of its animations, its parents' transforms or its matte change over time
+   * and none of them have value callbacks.
+   * <p>
+   * This is computed once and kept until {@link #invalidateStaticContent()}.
+   */
+  boolean isStatic() {
+    Boolean isStatic = this.isStatic;
+    if (isStatic == null) {
+      isStatic = computeIsStatic();
+      this.isStatic = isStatic;
+    }
+    return isStatic;
+  }
+
+  boolean computeIsStatic() {
+    if (!transform.isStatic() || !isMaskAndMatteStatic()) {
+      return false;
+    }
+    for (int i = 0; i < animations.size(); i++) {
+      BaseKeyframeAnimation<?, ?> animation = animations.get(i);
+      // Visibility doesn't change what the layer draws when it is visible.
+      if (animation != inOutAnimation && !animation.isStatic()) {
+        return false;
+      }
+    }
+    buildParentLayerListIfNeeded();
+    for (int i = 0; i < parentLayers.size(); i++) {
+      if (!parentLayers.get(i).transform.isStatic()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  boolean isMaskAndMatteStatic() {
+    if (mask != null && !mask.isStatic()) {
+      return false;
+    }
+    BaseLayer matteLayer = this.matteLayer;
+    return matteLayer == null || (matteLayer.isStatic() && matteLayer.isVisibilityStatic());
+  }
+
+  /**
+   * Returns whether this layer is visible from the start to the end of the composition.
+   */
+  boolean isVisibilityStatic() {
+    List<Keyframe<Float>> inOutKeyframes = layerModel.getInOutKeyframes();
+    if (inOutKeyframes.isEmpty()) {
+      return true;
+    }
+    Keyframe<Float> firstKeyframe = inOutKeyframes.get(0);
+    Float startValue = firstKeyframe.startValue;
+    Float endFrame = firstKeyframe.endFrame;
+    return startValue != null && startValue == 1f && endFrame != null &&
+        endFrame >= layerModel.getComposition().getEndFrame();
+  }
+
+  /**
+   * Call this when something that {@link #isStatic()} or the animations that {@link #setProgress(float)} updates depend
+   * on changed, such as a value callback being set, or something changed that the layer's raster cache doesn't account
+   * for.
+   */
+  void invalidateStaticContent() {
+    isStatic = null;
+    timeVaryingAnimations = null;
+    // A layer that is static now may have drawn something else since its damage was last added.
+    hasDamageBounds = false;
+    if (rasterCache != null) {
+      rasterCache.release(lottieDrawable);
+      rasterCache = null;
+    }
+    if (matteLayer != null) {
+      matteLayer.invalidateStaticContent();
+    }
+  }
+
+  /**
+   * Draws the layer with its masks and matte.
+   */
+  void drawContents(Canvas canvas, Matrix parentMatrix, int parentAlpha) {
     buildParentLayerListIfNeeded();
     if (L.isTraceEnabled()) {
       L.beginSection("Layer#parentMatrix");
@@ -262,6 +435,10 @@ public abstract class BaseLayer
     }
     int alpha = (int) ((parentAlpha / 255f * (float) opacity / 100f) * 255);
     if (!hasMatteOnThisLayer() && !hasMasksOnThisLayer() && getBlendMode() == LBlendMode.NORMAL) {
+      if (isOutsideClip(canvas, matrix)) {
+        recordLayerDrawn(false);
+        return;
+      }
       matrix.preConcat(transform.getMatrix());
       if (L.isTraceEnabled()) {
         L.beginSection("Layer#drawLayer");
@@ -270,7 +447,7 @@ public abstract class BaseLayer
       if (L.isTraceEnabled()) {
         L.endSection("Layer#drawLayer");
       }
-      recordRenderTime(L.endSection(drawTraceName));
+      recordLayerDrawn(true);
       return;
     }
 
@@ -305,7 +482,9 @@ public abstract class BaseLayer
     // Ensure that what we are drawing is >=1px of width and height.
     // On older devices, drawing to an offscreen buffer of <1px would draw back as a black bar.
     // https://github.com/airbnb/lottie-android/issues/1625
-    if (rect.width() >= 1f && rect.height() >= 1f) {
+    boolean drawn = rect.width() >= 1f && rect.height() >= 1f;
+    recordLayerDrawn(drawn);
+    if (drawn) {
       if (L.isTraceEnabled()) {
         L.beginSection("Layer#saveLayer");
       }
@@ -358,6 +537,7 @@ public abstract class BaseLayer
         }
         clearCanvas(canvas);
         //noinspection ConstantConditions
+        matteLayer.isRasterizing = isRasterizing;
         matteLayer.draw(canvas, parentMatrix, alpha);
         if (L.isTraceEnabled()) {
           L.beginSection("Layer#restoreLayer");
@@ -387,8 +567,130 @@ public abstract class BaseLayer
       outlineMasksAndMattesPaint.setColor(0x50EBEBEB);
       canvas.drawRect(rect, outlineMasksAndMattesPaint);
     }
+  }
 
-    recordRenderTime(L.endSection(drawTraceName));
+  /**
+   * Returns whether nothing the layer draws can be inside the clip of the canvas. This is conservative and false
+   * whenever the layer can't tell exactly where it draws.
+   * <p>
+   * The bounds are computed once per frame and parent matrix. Only the check against the clip is done every time
+   * because the same frame may be drawn to different canvases.
+   *
+   * @param parentMatrix the matrix of the layer's parents without the layer's own transform.
+   */
+  private boolean isOutsideClip(Canvas canvas, Matrix parentMatrix) {
+    int frameGeneration = lottieDrawable.getFrameGeneration();
+    if (!hasCullingBounds || cullingFrameGeneration != frameGeneration || !cullingMatrix.equals(parentMatrix)) {
+      if (L.isTraceEnabled()) {
+        L.beginSection("Layer#computeCullingBounds");
+      }
+      cullingBounds.set(0, 0, 0, 0);
+      boolean hasBounds = getDrawBounds(cullingBounds, parentMatrix);
+      if (L.isTraceEnabled()) {
+        L.endSection("Layer#computeCullingBounds");
+      }
+      if (!hasBounds) {
+        return false;
+      }
+      cullingMatrix.set(parentMatrix);
+      cullingFrameGeneration = frameGeneration;
+      hasCullingBounds = true;
+    }
+    return cullingBounds.isEmpty() || canvas.quickReject(cullingBounds, Canvas.EdgeType.AA);
+  }
+
+  /**
+   * Adds the area that this layer may draw differently than when this was last called to outDamage. Unless the layer
+   * is static and drawn at the same place, that is where it was before and where it is now.
+   *
+   * @param parentMatrix the matrix that the layer is drawn with.
+   * @param parentVisible whether the precomp of the layer is visible.
+   * @return false if the layer can't tell where it changed and everything has to be drawn again.
+   */
+  boolean addDamage(RectF outDamage, Matrix parentMatrix, boolean parentVisible) {
+    buildParentLayerListIfNeeded();
+    damageMatrix.set(parentMatrix);
+    for (int i = parentLayers.size() - 1; i >= 0; i--) {
+      damageMatrix.preConcat(parentLayers.get(i).transform.getMatrix());
+    }
+    boolean visible = parentVisible && isVisible();
+    if (hasDamageBounds && visible == wasVisibleForDamage && isStatic() && lastDamageMatrix.equals(damageMatrix)) {
+      return true;
+    }
+
+    boolean isKnown = hasDamageBounds;
+    hasDamageBounds = true;
+    if (damagesAllBounds()) {
+      if (isKnown && wasVisibleForDamage) {
+        outDamage.union(damageBounds);
+      }
+      damageBounds.set(0, 0, 0, 0);
+      if (visible) {
+        if (getDrawBounds(damageBounds, damageMatrix)) {
+          outDamage.union(damageBounds);
+        } else {
+          hasDamageBounds = false;
+          isKnown = false;
+        }
+      }
+    }
+    wasVisibleForDamage = visible;
+    lastDamageMatrix.set(damageMatrix);
+    // Child layers are always visited so that they remember how they were drawn.
+    return addChildDamage(outDamage, damageMatrix, visible) && isKnown;
+  }
+
+  /**
+   * Whether everything the layer draws may be different when anything about it changed.
+   */
+  boolean damagesAllBounds() {
+    return true;
+  }
+
+  /**
+   * Adds the damage of layers that this one draws to outDamage.
+   *
+   * @param matrix the matrix of the layer's parents without the layer's own transform.
+   * @return false if any of them can't tell where they changed.
+   */
+  boolean addChildDamage(RectF outDamage, Matrix matrix, boolean visible) {
+    return true;
+  }
+
+  /**
+   * The bounds from {@link #getCullingBounds(RectF, Matrix)} unless the layer has effects that draw outside of them.
+   */
+  private boolean getDrawBounds(RectF outBounds, Matrix parentMatrix) {
+    if (getBlurEffect() != null || getDropShadowEffect() != null) {
+      return false;
+    }
+    return getCullingBounds(outBounds, parentMatrix);
+  }
+
+  /**
+   * Sets outBounds to a rect that contains everything this layer draws with the given parent matrix.
+   *
+   * @return false if the layer can't tell exactly where it draws and must not be culled.
+   * @see #hasAccurateBounds()
+   */
+  boolean getCullingBounds(RectF outBounds, Matrix parentMatrix) {
+    if (!hasAccurateBounds()) {
+      return false;
+    }
+    getBounds(outBounds, parentMatrix, false);
+    return true;
+  }
+
+  /**
+   * Whether {@link #getBounds(RectF, Matrix, boolean)} contains everything the layer draws. Layers that aren't sure
+   * are never culled when they are outside the canvas.
+   */
+  boolean hasAccurateBounds() {
+    return false;
+  }
+
+  private void recordLayerDrawn(boolean drawn) {
+    lottieDrawable.getComposition().getPerformanceTracker().recordLayerDrawn(drawn);
   }
 
   private void recordRenderTime(float ms) {
@@ -629,6 +931,14 @@ public abstract class BaseLayer
     return mask != null && !mask.getMaskAnimations().isEmpty();
   }
 
+  /**
+   * Whether the layer is drawn at the current progress, which is the case when it is between its in and out points
+   * and isn't hidden.
+   */
+  boolean isVisible() {
+    return visible && !layerModel.isHidden();
+  }
+
   private void setVisible(boolean visible) {
     if (visible != this.visible) {
       this.visible = visible;
@@ -639,31 +949,45 @@ public abstract class BaseLayer
   void setProgress(@FloatRange(from = 0f, to = 1f) float progress) {
     if (L.isTraceEnabled()) {
       L.beginSection("BaseLayer#setProgress");
-      // Time stretch should not be applied to the layer transform.
-      L.beginSection("BaseLayer#setProgress.transform");
     }
-    transform.setProgress(progress);
-    if (L.isTraceEnabled()) {
-      L.endSection("BaseLayer#setProgress.transform");
+    if (inOutAnimation != null) {
+      // The in and out points are the layer's visibility timeline. This updates visible.
+      inOutAnimation.setProgress(progress);
     }
-    if (mask != null) {
-      if (L.isTraceEnabled()) {
-        L.beginSection("BaseLayer#setProgress.mask");
-      }
-      for (int i = 0; i < mask.getMaskAnimations().size(); i++) {
-        mask.getMaskAnimations().get(i).setProgress(progress);
+    if (!isVisible()) {
+      // The layer isn't drawn so its properties are only brought up to date once it is visible again.
+      if (hasChildLayers) {
+        transform.setProgress(progress);
       }
       if (L.isTraceEnabled()) {
-        L.endSection("BaseLayer#setProgress.mask");
+        L.endSection("BaseLayer#setProgress");
       }
+      return;
     }
-    if (inOutAnimation != null) {
+    List<BaseKeyframeAnimation<?, ?>> timeVaryingAnimations = this.timeVaryingAnimations;
+    if (timeVaryingAnimations == null) {
+      // Every animation is updated once so that the static ones have their values. After that, only the ones whose
+      // values can change are.
+      timeVaryingAnimations = new ArrayList<>();
+      isTransformTimeVarying = !transform.isStatic();
+      transform.setProgress(progress);
+      if (mask != null) {
+        setProgress(mask.getMaskAnimations(), progress, timeVaryingAnimations);
+      }
+      setProgress(animations, progress, timeVaryingAnimations);
+      this.timeVaryingAnimations = timeVaryingAnimations;
+    } else {
+      if (isTransformTimeVarying) {
+        transform.setProgress(progress);
+      }
       if (L.isTraceEnabled()) {
-        L.beginSection("BaseLayer#setProgress.inout");
+        L.beginSection("BaseLayer#setProgress.animations." + timeVaryingAnimations.size());
+      }
+      for (int i = 0; i < timeVaryingAnimations.size(); i++) {
+        timeVaryingAnimations.get(i).setProgress(progress);
       }
-      inOutAnimation.setProgress(progress);
       if (L.isTraceEnabled()) {
-        L.endSection("BaseLayer#setProgress.inout");
+        L.endSection("BaseLayer#setProgress.animations." + timeVaryingAnimations.size());
       }
     }
     if (matteLayer != null) {
@@ -676,17 +1000,30 @@ public abstract class BaseLayer
       }
     }
     if (L.isTraceEnabled()) {
-      L.beginSection("BaseLayer#setProgress.animations." + animations.size());
+      L.endSection("BaseLayer#setProgress");
     }
+  }
+
+  private static void setProgress(List<? extends BaseKeyframeAnimation<?, ?>> animations, float progress,
+      List<BaseKeyframeAnimation<?, ?>> outTimeVaryingAnimations) {
     for (int i = 0; i < animations.size(); i++) {
-      animations.get(i).setProgress(progress);
-    }
-    if (L.isTraceEnabled()) {
-      L.endSection("BaseLayer#setProgress.animations." + animations.size());
-      L.endSection("BaseLayer#setProgress");
+      BaseKeyframeAnimation<?, ?> animation = animations.get(i);
+      animation.setProgress(progress);
+      if (!animation.isStatic()) {
+        outTimeVaryingAnimations.add(animation);
+      }
     }
   }
 
+  /**
+   * Whether {@link #setProgress(float)} has nothing to update because none of the layer's properties can change over
+   * time. Only known once the progress has been set since the layer's animations last changed.
+   */
+  boolean isTimeInvariant() {
+    return timeVaryingAnimations != null && timeVaryingAnimations.isEmpty() && !isTransformTimeVarying &&
+        (matteLayer == null || matteLayer.isTimeInvariant());
+  }
+
   private void buildParentLayerListIfNeeded() {
     if (parentLayers != null) {
       return;
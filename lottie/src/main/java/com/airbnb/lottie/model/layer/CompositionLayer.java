@@ -27,8 +27,14 @@ import java.util.List;
 public class CompositionLayer extends BaseLayer {
   @Nullable private BaseKeyframeAnimation<Float, Float> timeRemapping;
   private final List<BaseLayer> layers = new ArrayList<>();
+  /**
+   * The layers that {@link #setProgress(float)} updates because they aren't {@link BaseLayer#isTimeInvariant()}. Null
+   * until the progress is first set and whenever a layer's animations may have changed since.
+   */
+  @Nullable private List<BaseLayer> timeVaryingLayers;
   private final RectF rect = new RectF();
   private final RectF newClipRect = new RectF();
+  private final Matrix childDamageMatrix = new Matrix();
   private final Paint layerPaint = new Paint();
 
   @Nullable private Boolean hasMatte;
@@ -129,6 +135,7 @@ public class CompositionLayer extends BaseLayer {
       }
       if (nonEmptyClip) {
         BaseLayer layer = layers.get(i);
+        layer.isRasterizing = isRasterizing;
         layer.draw(canvas, parentMatrix, childAlpha);
       }
     }
@@ -138,6 +145,42 @@ public class CompositionLayer extends BaseLayer {
     }
   }
 
+  /**
+   * A precomp is clipped to its size so that is where it draws. The root composition is culled by its view instead.
+   */
+  @Override boolean getCullingBounds(RectF outBounds, Matrix parentMatrix) {
+    if ("__container".equals(layerModel.getName())) {
+      return false;
+    }
+    outBounds.set(0, 0, layerModel.getPreCompWidth(), layerModel.getPreCompHeight());
+    if (outBounds.isEmpty()) {
+      // Empty precomps aren't clipped.
+      return false;
+    }
+    boundsMatrix.set(parentMatrix);
+    boundsMatrix.preConcat(transform.getMatrix());
+    boundsMatrix.mapRect(outBounds);
+    return true;
+  }
+
+  /**
+   * The layers of a precomp add where they changed themselves. Only its opacity, masks and matte change all of it.
+   */
+  @Override boolean damagesAllBounds() {
+    BaseKeyframeAnimation<?, Integer> opacity = transform.getOpacity();
+    return (opacity != null && !opacity.isStatic()) || !isMaskAndMatteStatic();
+  }
+
+  @Override boolean addChildDamage(RectF outDamage, Matrix matrix, boolean visible) {
+    childDamageMatrix.set(matrix);
+    childDamageMatrix.preConcat(transform.getMatrix());
+    boolean isKnown = true;
+    for (int i = 0; i < layers.size(); i++) {
+      isKnown &= layers.get(i).addDamage(outDamage, childDamageMatrix, visible);
+    }
+    return isKnown;
+  }
+
   @Override public void getBounds(RectF outBounds, Matrix parentMatrix, boolean applyParents) {
     super.getBounds(outBounds, parentMatrix, applyParents);
     for (int i = layers.size() - 1; i >= 0; i--) {
@@ -153,6 +196,13 @@ public class CompositionLayer extends BaseLayer {
     }
     this.progress = progress;
     super.setProgress(progress);
+    if (!isVisible()) {
+      // None of the precomp's layers are drawn either. They are brought up to date once it is visible again.
+      if (L.isTraceEnabled()) {
+        L.endSection("CompositionLayer#setProgress");
+      }
+      return;
+    }
     if (timeRemapping != null) {
       // The duration has 0.01 frame offset to show end of animation properly.
       // https://github.com/airbnb/lottie-android/pull/766
@@ -169,8 +219,22 @@ public class CompositionLayer extends BaseLayer {
     if (layerModel.getTimeStretch() != 0 && !"__container".equals(layerModel.getName())) {
       progress /= layerModel.getTimeStretch();
     }
-    for (int i = layers.size() - 1; i >= 0; i--) {
-      layers.get(i).setProgress(progress);
+    List<BaseLayer> timeVaryingLayers = this.timeVaryingLayers;
+    if (timeVaryingLayers == null) {
+      // Every layer is updated once. After that, the ones that nothing changes for over time are skipped.
+      timeVaryingLayers = new ArrayList<>();
+      for (int i = layers.size() - 1; i >= 0; i--) {
+        BaseLayer layer = layers.get(i);
+        layer.setProgress(progress);
+        if (!layer.isTimeInvariant()) {
+          timeVaryingLayers.add(layer);
+        }
+      }
+      this.timeVaryingLayers = timeVaryingLayers;
+    } else {
+      for (int i = 0; i < timeVaryingLayers.size(); i++) {
+        timeVaryingLayers.get(i).setProgress(progress);
+      }
     }
     if (L.isTraceEnabled()) {
       L.endSection("CompositionLayer#setProgress");
@@ -181,6 +245,59 @@ public class CompositionLayer extends BaseLayer {
     return progress;
   }
 
+  /**
+   * Only precomps are cached. The root composition is drawn by {@link LottieDrawable} which has its own caches.
+   */
+  @Override boolean isRasterCacheCandidate() {
+    if ("__container".equals(layerModel.getName())) {
+      return false;
+    }
+    for (int i = 0; i < layers.size(); i++) {
+      BaseLayer layer = layers.get(i);
+      // The bounds of the precomp don't include blurs and shadows.
+      if (layer.getBlurEffect() != null || layer.getDropShadowEffect() != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override boolean computeIsStatic() {
+    if (!super.computeIsStatic()) {
+      return false;
+    }
+    // If time remapping holds the layers at one progress, it doesn't matter when they are visible.
+    boolean isProgressStatic = timeRemapping != null && timeRemapping.isStatic();
+    if (!isProgressStatic && (layerModel.getStartProgress() < 0 ||
+        (layerModel.getTimeStretch() != 0 && layerModel.getTimeStretch() < 1))) {
+      // The layers can be drawn at progresses past the end of the composition.
+      return false;
+    }
+    for (int i = 0; i < layers.size(); i++) {
+      BaseLayer layer = layers.get(i);
+      if (!layer.isStatic() || (!isProgressStatic && !layer.isVisibilityStatic())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override boolean isTimeInvariant() {
+    return super.isTimeInvariant() && timeVaryingLayers != null && timeVaryingLayers.isEmpty();
+  }
+
+  /**
+   * Call this after value callbacks were added or removed or anything else changed that static layers would have to
+   * be drawn again for.
+   */
+  @Override public void invalidateStaticContent() {
+    super.invalidateStaticContent();
+    timeVaryingLayers = null;
+    for (int i = 0; i < layers.size(); i++) {
+      layers.get(i).invalidateStaticContent();
+    }
+  }
+
   public boolean hasMasks() {
     if (hasMasks == null) {
       for (int i = layers.size() - 1; i >= 0; i--) {
@@ -40,6 +40,13 @@ public class ImageLayer extends BaseLayer {
     }
   }
 
+  /**
+   * Images can change without a value callback, for example with {@link LottieDrawable#updateBitmap(String, Bitmap)}.
+   */
+  @Override boolean computeIsStatic() {
+    return false;
+  }
+
   @Override public void drawLayer(@NonNull Canvas canvas, Matrix parentMatrix, int parentAlpha) {
     Bitmap bitmap = getBitmap();
     if (bitmap == null || bitmap.isRecycled() || lottieImageAsset == null) {
@@ -54,7 +61,7 @@ public class ImageLayer extends BaseLayer {
     canvas.save();
     canvas.concat(parentMatrix);
     src.set(0, 0, bitmap.getWidth(), bitmap.getHeight());
-    if (lottieDrawable.getMaintainOriginalImageBounds()) {
+    if (lottieDrawable.getMaintainOriginalImageBounds() || bitmap == lottieDrawable.getImagePlaceholder()) {
       dst.set(0, 0, (int) (lottieImageAsset.getWidth() * density), (int) (lottieImageAsset.getHeight() * density));
     } else {
       dst.set(0, 0, (int) (bitmap.getWidth() * density), (int) (bitmap.getHeight() * density));
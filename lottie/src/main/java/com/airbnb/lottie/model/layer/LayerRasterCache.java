@@ -0,0 +1,119 @@
+package com.airbnb.lottie.model.layer;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+import androidx.annotation.Nullable;
+
+import com.airbnb.lottie.LottieDrawable;
+import com.airbnb.lottie.animation.LPaint;
+
+/**
+ * A bitmap of everything that a static layer draws, including its masks and matte, rendered at the scale that the
+ * layer was last drawn at on screen.
+ * <p>
+ * The bitmap is in the coordinate space of the layer's parent composition so it stays valid when only the canvas or
+ * parent composition is translated or rotated. It is rendered again when the scale or alpha that the layer is drawn
+ * with changes. If that happens several frames in a row, the layer is drawn directly from then on because the
+ * bitmap would only add work.
+ *
+ * @see BaseLayer#isStatic()
+ */
+class LayerRasterCache {
+  private static final int MAX_CONSECUTIVE_RENDERS = 3;
+  private static final Matrix IDENTITY = new Matrix();
+
+  private final RectF bounds = new RectF();
+  private final Matrix renderMatrix = new Matrix();
+  private final Matrix drawMatrix = new Matrix();
+  private final Canvas bitmapCanvas = new Canvas();
+  private final Paint paint = new LPaint(Paint.FILTER_BITMAP_FLAG);
+  @Nullable private Bitmap bitmap;
+  private float scale;
+  private int alpha;
+  private int consecutiveRenders;
+  private boolean disabled;
+
+  /**
+   * Draws the layer from the bitmap, rendering the bitmap first if it doesn't match how the layer is being drawn.
+   *
+   * @param scale the scale of the layer's parent matrix on screen.
+   * @return false if the layer has to be drawn directly instead.
+   */
+  boolean draw(BaseLayer layer, LottieDrawable drawable, Canvas canvas, Matrix parentMatrix, int parentAlpha,
+      float scale) {
+    if (disabled) {
+      return false;
+    }
+    Bitmap bitmap = this.bitmap;
+    if (bitmap == null || alpha != parentAlpha || Math.abs(scale - this.scale) > this.scale * 0.001f) {
+      if (++consecutiveRenders > MAX_CONSECUTIVE_RENDERS) {
+        disable(drawable);
+        return false;
+      }
+      bitmap = render(layer, drawable, canvas, parentAlpha, scale);
+      if (bitmap == null) {
+        disable(drawable);
+        return false;
+      }
+    } else {
+      consecutiveRenders = 0;
+    }
+
+    drawMatrix.set(parentMatrix);
+    drawMatrix.preTranslate(bounds.left, bounds.top);
+    drawMatrix.preScale(1f / scale, 1f / scale);
+    canvas.drawBitmap(bitmap, drawMatrix, paint);
+    return true;
+  }
+
+  @Nullable
+  private Bitmap render(BaseLayer layer, LottieDrawable drawable, Canvas canvas, int parentAlpha, float scale) {
+    bounds.set(0f, 0f, 0f, 0f);
+    layer.getBounds(bounds, IDENTITY, true);
+    int width = (int) Math.ceil(bounds.width() * scale);
+    int height = (int) Math.ceil(bounds.height() * scale);
+    // Layers that are larger than the canvas are mostly off screen so it is cheaper to draw them directly.
+    if (width <= 0 || height <= 0 || (long) width * height > (long) canvas.getWidth() * canvas.getHeight()) {
+      return null;
+    }
+
+    Bitmap bitmap = this.bitmap;
+    if (bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height) {
+      release(drawable);
+      int byteCount = width * height * 4;
+      if (!drawable.reserveStaticLayerCacheBytes(byteCount)) {
+        return null;
+      }
+      bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+      this.bitmap = bitmap;
+      bitmapCanvas.setBitmap(bitmap);
+    } else {
+      bitmap.eraseColor(0);
+    }
+
+    renderMatrix.setScale(scale, scale);
+    renderMatrix.preTranslate(-bounds.left, -bounds.top);
+    layer.drawContents(bitmapCanvas, renderMatrix, parentAlpha);
+    this.scale = scale;
+    alpha = parentAlpha;
+    return bitmap;
+  }
+
+  private void disable(LottieDrawable drawable) {
+    disabled = true;
+    release(drawable);
+  }
+
+  void release(LottieDrawable drawable) {
+    Bitmap bitmap = this.bitmap;
+    if (bitmap != null) {
+      drawable.releaseStaticLayerCacheBytes(bitmap.getWidth() * bitmap.getHeight() * 4);
+      this.bitmap = null;
+      bitmapCanvas.setBitmap(null);
+    }
+  }
+}
@@ -11,6 +11,7 @@ import com.airbnb.lottie.LottieComposition;
 import com.airbnb.lottie.LottieDrawable;
 import com.airbnb.lottie.animation.content.Content;
 import com.airbnb.lottie.animation.content.ContentGroup;
+import com.airbnb.lottie.animation.content.RepeaterContent;
 import com.airbnb.lottie.model.KeyPath;
 import com.airbnb.lottie.model.content.BlurEffect;
 import com.airbnb.lottie.model.content.ShapeGroup;
@@ -22,6 +23,7 @@ import java.util.List;
 public class ShapeLayer extends BaseLayer {
   private final ContentGroup contentGroup;
   private final CompositionLayer compositionLayer;
+  @Nullable private Boolean hasRepeater;
 
   ShapeLayer(LottieDrawable lottieDrawable, Layer layerModel, CompositionLayer compositionLayer, LottieComposition composition) {
     super(lottieDrawable, layerModel);
@@ -37,6 +39,34 @@ public class ShapeLayer extends BaseLayer {
     contentGroup.draw(canvas, parentMatrix, parentAlpha);
   }
 
+  /**
+   * The bounds of a repeater only contain its first copy so layers with one are neither cached nor culled.
+   */
+  @Override boolean isRasterCacheCandidate() {
+    return hasAccurateBounds();
+  }
+
+  @Override boolean hasAccurateBounds() {
+    Boolean hasRepeater = this.hasRepeater;
+    if (hasRepeater == null) {
+      hasRepeater = hasRepeater(contentGroup);
+      this.hasRepeater = hasRepeater;
+    }
+    return !hasRepeater;
+  }
+
+  private static boolean hasRepeater(ContentGroup contentGroup) {
+    List<Content> contents = contentGroup.getContents();
+    for (int i = 0; i < contents.size(); i++) {
+      Content content = contents.get(i);
+      if (content instanceof RepeaterContent ||
+          (content instanceof ContentGroup && hasRepeater((ContentGroup) content))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override public void getBounds(RectF outBounds, Matrix parentMatrix, boolean applyParents) {
     super.getBounds(outBounds, parentMatrix, applyParents);
     contentGroup.getBounds(outBounds, boundsMatrix, applyParents);
@@ -80,6 +80,10 @@ public class SolidLayer extends BaseLayer {
     }
   }
 
+  @Override boolean hasAccurateBounds() {
+    return true;
+  }
+
   @Override public void getBounds(RectF outBounds, Matrix parentMatrix, boolean applyParents) {
     super.getBounds(outBounds, parentMatrix, applyParents);
     rect.set(0, 0, layerModel.getSolidWidth(), layerModel.getSolidHeight());
@@ -87,6 +91,14 @@ public class SolidLayer extends BaseLayer {
     outBounds.set(rect);
   }
 
+  /**
+   * The color animations only exist for value callbacks and aren't added to the layer's animations.
+   */
+  @Override boolean computeIsStatic() {
+    return super.computeIsStatic() && (colorAnimation == null || colorAnimation.isStatic()) &&
+        (colorFilterAnimation == null || colorFilterAnimation.isStatic());
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public <T> void addValueCallback(T property, @Nullable LottieValueCallback<T> callback) {
@@ -150,6 +150,14 @@ public class TextLayer extends BaseLayer {
     }
   }
 
+  /**
+   * Text can change without a value callback, for example with a {@link com.airbnb.lottie.TextDelegate} or when a
+   * font finishes loading.
+   */
+  @Override boolean computeIsStatic() {
+    return false;
+  }
+
   @Override
   public void getBounds(RectF outBounds, Matrix parentMatrix, boolean applyParents) {
     super.getBounds(outBounds, parentMatrix, applyParents);
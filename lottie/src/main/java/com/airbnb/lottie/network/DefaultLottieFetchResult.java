@@ -13,7 +13,7 @@ import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 
 @RestrictTo(RestrictTo.Scope.LIBRARY)
-public class DefaultLottieFetchResult implements LottieFetchResult {
+public class DefaultLottieFetchResult implements LottieCacheableFetchResult {
 
   @NonNull
   private final HttpURLConnection connection;
@@ -38,6 +38,22 @@ public class DefaultLottieFetchResult implements LottieFetchResult {
     return connection.getContentType();
   }
 
+  @Override public boolean isNotModified() {
+    try {
+      return connection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  @Nullable @Override public String eTag() {
+    return connection.getHeaderField("ETag");
+  }
+
+  @Nullable @Override public String lastModified() {
+    return connection.getHeaderField("Last-Modified");
+  }
+
   @Nullable @Override public String error() {
     try {
       return isSuccessful() ? null :
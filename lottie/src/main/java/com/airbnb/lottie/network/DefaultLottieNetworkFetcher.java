@@ -1,6 +1,7 @@
 package com.airbnb.lottie.network;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 
 import java.io.IOException;
@@ -8,13 +9,25 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 
 @RestrictTo(RestrictTo.Scope.LIBRARY)
-public class DefaultLottieNetworkFetcher implements LottieNetworkFetcher {
+public class DefaultLottieNetworkFetcher implements LottieConditionalNetworkFetcher {
 
   @Override
   @NonNull
   public LottieFetchResult fetchSync(@NonNull String url) throws IOException {
+    return fetchSync(url, null, null);
+  }
+
+  @Override
+  @NonNull
+  public LottieFetchResult fetchSync(@NonNull String url, @Nullable String eTag, @Nullable String lastModified) throws IOException {
     final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
     connection.setRequestMethod("GET");
+    if (eTag != null) {
+      connection.setRequestProperty("If-None-Match", eTag);
+    }
+    if (lastModified != null) {
+      connection.setRequestProperty("If-Modified-Since", lastModified);
+    }
     connection.connect();
     return new DefaultLottieFetchResult(connection);
   }
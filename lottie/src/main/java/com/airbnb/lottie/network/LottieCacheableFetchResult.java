@@ -0,0 +1,26 @@
+package com.airbnb.lottie.network;
+
+import androidx.annotation.Nullable;
+
+/**
+ * A {@link LottieFetchResult} that exposes the response's validators so that the network cache can revalidate the
+ * animation later with a {@link LottieConditionalNetworkFetcher}.
+ */
+public interface LottieCacheableFetchResult extends LottieFetchResult {
+  /**
+   * @return Whether the server responded with 304 Not Modified to a conditional request
+   */
+  boolean isNotModified();
+
+  /**
+   * @return The ETag header of the response
+   */
+  @Nullable
+  String eTag();
+
+  /**
+   * @return The Last-Modified header of the response
+   */
+  @Nullable
+  String lastModified();
+}
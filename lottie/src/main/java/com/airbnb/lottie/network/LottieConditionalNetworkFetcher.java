@@ -0,0 +1,24 @@
+package com.airbnb.lottie.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.io.IOException;
+
+/**
+ * A {@link LottieNetworkFetcher} that can make conditional requests. When the network fetcher implements this,
+ * cached animations that were served with an ETag or Last-Modified header are revalidated in the background after
+ * they are loaded from the network cache. Loading them never waits for the revalidation.
+ *
+ * @see com.airbnb.lottie.Lottie#initialize
+ */
+public interface LottieConditionalNetworkFetcher extends LottieNetworkFetcher {
+  /**
+   * Fetch the url with an If-None-Match header for the eTag and an If-Modified-Since header for lastModified if they
+   * aren't null. Return a {@link LottieCacheableFetchResult} so that a 304 Not Modified response can be recognized.
+   */
+  @WorkerThread
+  @NonNull
+  LottieFetchResult fetchSync(@NonNull String url, @Nullable String eTag, @Nullable String lastModified) throws IOException;
+}
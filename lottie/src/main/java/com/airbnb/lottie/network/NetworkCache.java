@@ -6,34 +6,105 @@ import android.util.Pair;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
 import androidx.annotation.WorkerThread;
 
 import com.airbnb.lottie.utils.Logger;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Helper class to save and restore animations fetched from an URL to the app disk cache.
+ * <p>
+ * The cache is bounded by a maximum number of bytes. Once it is full, the least recently used animations are deleted.
+ * The order in which animations were used and the ETag and Last-Modified headers they were served with are kept in a
+ * journal file so they survive process restarts.
+ * <p>
+ * Once an animation has been parsed, a snapshot of it in Lottie's precompiled binary format may be stored next to it
+ * so that it can be loaded without parsing json again. Snapshots count towards the size of their animation's entry.
+ * <p>
+ * Frames that were rendered for an animation may be stored as entries of their own that are evicted along with the
+ * animations.
  */
 @RestrictTo(RestrictTo.Scope.LIBRARY)
 public class NetworkCache {
 
+  public static final long DEFAULT_MAX_BYTES = 20 * 1024 * 1024;
+  /**
+   * Cached animations that were served with validators are revalidated when they are read this long after they were
+   * last validated.
+   */
+  public static final long DEFAULT_REVALIDATE_AFTER_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+  private static final String FILE_PREFIX = "lottie_cache_";
+  private static final String SNAPSHOT_EXTENSION = ".lotb";
+  private static final String FRAMES_PREFIX = FILE_PREFIX + "frames_";
+  private static final String FRAMES_EXTENSION = ".frames";
+  private static final String JOURNAL_FILE = "lottie_journal";
+  private static final String JOURNAL_FILE_TEMP = "lottie_journal.temp";
+  private static final String JOURNAL_HEADER = "lottie.network.cache 1";
+  private static final String PUT = "PUT";
+  private static final String READ = "READ";
+  private static final String REMOVE = "REMOVE";
+  /**
+   * The journal is rewritten once it has this many lines that don't describe the current entries.
+   */
+  private static final int COMPACT_THRESHOLD = 2000;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
   @NonNull
   private final LottieNetworkCacheProvider cacheProvider;
+  private final long revalidateAfterMillis;
+  private long maxBytes;
+  /**
+   * Cached files by name, least recently used first. Read from the journal when the cache is first used.
+   */
+  @Nullable private LinkedHashMap<String, Entry> entries;
+  private long size;
+  private int redundantJournalLines;
+  @Nullable private Writer journalWriter;
 
   public NetworkCache(@NonNull LottieNetworkCacheProvider cacheProvider) {
+    this(cacheProvider, DEFAULT_MAX_BYTES, DEFAULT_REVALIDATE_AFTER_MILLIS);
+  }
+
+  public NetworkCache(@NonNull LottieNetworkCacheProvider cacheProvider, long maxBytes, long revalidateAfterMillis) {
     this.cacheProvider = cacheProvider;
+    this.maxBytes = maxBytes;
+    this.revalidateAfterMillis = revalidateAfterMillis;
+  }
+
+  /**
+   * Sets the maximum number of bytes of animations to keep on disk. The least recently used animations are deleted
+   * right away if the cache is larger than that.
+   */
+  public synchronized void setMaxBytes(long maxBytes) {
+    this.maxBytes = maxBytes;
+    if (entries != null) {
+      trimToSize(loadEntries());
+    }
   }
 
-  public void clear() {
+  public synchronized void clear() {
+    closeJournal();
+    entries = null;
+    size = 0;
+    redundantJournalLines = 0;
     File parentDir = parentDir();
     if (parentDir.exists()) {
       File[] files = parentDir.listFiles();
@@ -55,7 +126,7 @@ public class NetworkCache {
    */
   @Nullable
   @WorkerThread
-  Pair<FileExtension, InputStream> fetch(String url) {
+  synchronized Pair<FileExtension, File> fetch(String url) {
     File cachedFile;
     try {
       cachedFile = getCachedFile(url);
@@ -66,68 +137,442 @@ public class NetworkCache {
       return null;
     }
 
-    FileInputStream inputStream;
-    try {
-      inputStream = new FileInputStream(cachedFile);
-    } catch (FileNotFoundException e) {
+    FileExtension extension = extensionOf(cachedFile);
+
+    // Looking the entry up marks it as the most recently used one.
+    Entry entry = loadEntries().get(cachedFile.getName());
+    if (entry != null) {
+      redundantJournalLines++;
+      appendJournal(READ + '\t' + entry.fileName);
+    }
+
+    Logger.debug("Cache hit for " + url + " at " + cachedFile.getAbsolutePath());
+    return new Pair<>(extension, cachedFile);
+  }
+
+  /**
+   * Returns the cache entry for the url if it was served with an ETag or Last-Modified header and hasn't been
+   * validated in a while.
+   */
+  @Nullable
+  @WorkerThread
+  synchronized Entry getEntryToRevalidate(String url) {
+    Entry entry = getEntry(url);
+    if (entry == null || (entry.eTag == null && entry.lastModified == null)) {
+      return null;
+    }
+    if (System.currentTimeMillis() - entry.validatedAt < revalidateAfterMillis) {
       return null;
     }
+    return entry;
+  }
 
-    FileExtension extension;
-    if (cachedFile.getAbsolutePath().endsWith(".zip")) {
-      extension = FileExtension.ZIP;
-    } else if (cachedFile.getAbsolutePath().endsWith(".gz")) {
-      extension = FileExtension.GZIP;
-    } else {
-      extension = FileExtension.JSON;
+  /**
+   * Records that the server confirmed that the cached animation for the url is still up to date.
+   */
+  @WorkerThread
+  synchronized void markValidated(String url) {
+    Entry entry = getEntry(url);
+    if (entry == null) {
+      return;
     }
+    entry.validatedAt = System.currentTimeMillis();
+    redundantJournalLines++;
+    appendJournal(entry.toJournalLine());
+  }
 
-    Logger.debug("Cache hit for " + url + " at " + cachedFile.getAbsolutePath());
-    return new Pair<>(extension, (InputStream) inputStream);
+  /**
+   * Returns the binary snapshot of the cached animation for the url if one has been written.
+   */
+  @Nullable
+  @WorkerThread
+  synchronized File getSnapshotFile(String url) {
+    Entry entry = getEntry(url);
+    if (entry == null) {
+      return null;
+    }
+    File snapshotFile = snapshotFile(entry);
+    return snapshotFile.exists() ? snapshotFile : null;
   }
 
   /**
-   * Writes an InputStream from a network response to a temporary file. If the file successfully parses
-   * to an composition, {@link #renameTempFile(String, FileExtension)} should be called to move the file
-   * to its final location for future cache hits.
+   * Returns the cache entry for the url if it doesn't have a binary snapshot yet.
    */
-  File writeTempCacheFile(String url, InputStream stream, FileExtension extension) throws IOException {
-    String fileName = filenameForUrl(url, extension, true);
-    File file = new File(parentDir(), fileName);
-    try {
-      OutputStream output = new FileOutputStream(file);
-      //noinspection TryFinallyCanBeTryWithResources
-      try {
-        byte[] buffer = new byte[1024];
-        int read;
+  @Nullable
+  @WorkerThread
+  synchronized Entry getEntryWithoutSnapshot(String url) {
+    Entry entry = getEntry(url);
+    return entry == null || snapshotFile(entry).exists() ? null : entry;
+  }
 
-        while ((read = stream.read(buffer)) != -1) {
-          output.write(buffer, 0, read);
-        }
+  File getFile(Entry entry) {
+    return new File(parentDir(), entry.fileName);
+  }
 
-        output.flush();
-      } finally {
-        output.close();
+  /**
+   * Returns the temporary file that a binary snapshot of the entry's animation is written to. Once it has been written,
+   * {@link #commitSnapshot(Entry)} should be called to store it.
+   */
+  File snapshotTempFile(Entry entry) {
+    return new File(parentDir(), entry.fileName + ".temp" + SNAPSHOT_EXTENSION);
+  }
+
+  /**
+   * Stores the snapshot that was written to {@link #snapshotTempFile(Entry)}. It is discarded if the entry's animation
+   * was replaced or evicted in the meantime.
+   */
+  @WorkerThread
+  synchronized void commitSnapshot(Entry entry) {
+    File tempFile = snapshotTempFile(entry);
+    LinkedHashMap<String, Entry> entries = loadEntries();
+    if (entries.get(entry.fileName) != entry) {
+      if (!tempFile.delete()) {
+        Logger.warning("Unable to delete temp snapshot " + tempFile.getAbsolutePath() + ".");
       }
-    } finally {
-      stream.close();
+      return;
     }
-    return file;
+    File snapshotFile = snapshotFile(entry);
+    long previousLength = snapshotFile.length();
+    if (!tempFile.renameTo(snapshotFile)) {
+      Logger.warning("Unable to rename snapshot " + tempFile.getAbsolutePath() + " to " + snapshotFile.getAbsolutePath() + ".");
+      return;
+    }
+    long sizeChange = snapshotFile.length() - previousLength;
+    entry.size += sizeChange;
+    size += sizeChange;
+    redundantJournalLines++;
+    appendJournal(entry.toJournalLine());
+    trimToSize(entries);
+  }
+
+  /**
+   * Deletes the binary snapshot of the cached animation for the url, such as when it was written by a version of
+   * Lottie with a different binary format.
+   */
+  @WorkerThread
+  synchronized void deleteSnapshot(String url) {
+    Entry entry = getEntry(url);
+    if (entry != null) {
+      deleteSnapshot(entry);
+    }
+  }
+
+  /**
+   * Returns the file of rendered frames that was stored for the key and marks it as the most recently used entry.
+   */
+  @Nullable
+  @WorkerThread
+  public synchronized File getFramesFile(String key) {
+    String fileName = framesFileName(key);
+    Entry entry = loadEntries().get(fileName);
+    if (entry == null) {
+      return null;
+    }
+    redundantJournalLines++;
+    appendJournal(READ + '\t' + fileName);
+    return new File(parentDir(), fileName);
   }
 
   /**
-   * If the file created by {@link #writeTempCacheFile(String, InputStream, FileExtension)} was successfully parsed,
+   * Returns the temporary file that rendered frames are written to. Once all of them have been written,
+   * {@link #commitFramesFile(String)} should be called to store them.
+   */
+  public File framesTempFile(String key) {
+    return new File(parentDir(), framesFileName(key) + ".temp");
+  }
+
+  /**
+   * Stores the frames that were written to {@link #framesTempFile(String)}, replacing the ones that were stored for the
+   * key before.
+   */
+  @WorkerThread
+  public synchronized void commitFramesFile(String key) {
+    String fileName = framesFileName(key);
+    LinkedHashMap<String, Entry> entries = loadEntries();
+    removeEntry(entries, fileName);
+    File tempFile = framesTempFile(key);
+    File file = new File(parentDir(), fileName);
+    if (!tempFile.renameTo(file)) {
+      Logger.warning("Unable to rename frames " + tempFile.getAbsolutePath() + " to " + file.getAbsolutePath() + ".");
+      return;
+    }
+    Entry entry = new Entry(fileName, file.length(), null, null, System.currentTimeMillis());
+    entries.put(fileName, entry);
+    size += entry.size;
+    appendJournal(entry.toJournalLine());
+    trimToSize(entries);
+  }
+
+  /**
+   * Returns the temporary file that a network response is written to while it is parsed. If it successfully parses
+   * to an composition, {@link #renameTempFile(String, FileExtension)} should be called to move the file
+   * to its final location for future cache hits.
+   */
+  File tempCacheFile(String url, FileExtension extension) {
+    return new File(parentDir(), filenameForUrl(url, extension, true));
+  }
+
+  /**
+   * If the file returned by {@link #tempCacheFile(String, FileExtension)} was successfully parsed,
    * this should be called to remove the temporary part of its name which will allow it to be a cache hit in the future.
    */
   void renameTempFile(String url, FileExtension extension) {
-    String fileName = filenameForUrl(url, extension, true);
-    File file = new File(parentDir(), fileName);
+    renameTempFile(url, extension, null, null);
+  }
+
+  /**
+   * @param eTag         the ETag header the animation was served with, if any.
+   * @param lastModified the Last-Modified header the animation was served with, if any.
+   * @see #renameTempFile(String, FileExtension)
+   */
+  synchronized void renameTempFile(String url, FileExtension extension, @Nullable String eTag, @Nullable String lastModified) {
+    File file = tempCacheFile(url, extension);
     String newFileName = file.getAbsolutePath().replace(".temp", "");
     File newFile = new File(newFileName);
     boolean renamed = file.renameTo(newFile);
     Logger.debug("Copying temp file to real file (" + newFile + ")");
     if (!renamed) {
       Logger.warning("Unable to rename cache file " + file.getAbsolutePath() + " to " + newFile.getAbsolutePath() + ".");
+      return;
+    }
+
+    LinkedHashMap<String, Entry> entries = loadEntries();
+    for (FileExtension otherExtension : FileExtension.values()) {
+      if (otherExtension != extension) {
+        // The url may have been cached as a different file type before.
+        removeEntry(entries, filenameForUrl(url, otherExtension, false));
+      }
+    }
+    Entry entry = new Entry(newFile.getName(), newFile.length(), eTag, lastModified, System.currentTimeMillis());
+    Entry previousEntry = entries.put(entry.fileName, entry);
+    if (previousEntry != null) {
+      // The snapshot was of the previous version of the animation.
+      deleteSnapshot(previousEntry);
+      size -= previousEntry.size;
+      redundantJournalLines++;
+    }
+    size += entry.size;
+    appendJournal(entry.toJournalLine());
+    trimToSize(entries);
+  }
+
+  @VisibleForTesting
+  synchronized long getSize() {
+    loadEntries();
+    return size;
+  }
+
+  @Nullable
+  private Entry getEntry(String url) {
+    File cachedFile;
+    try {
+      cachedFile = getCachedFile(url);
+    } catch (FileNotFoundException e) {
+      return null;
+    }
+    return cachedFile == null ? null : loadEntries().get(cachedFile.getName());
+  }
+
+  /**
+   * Deletes the least recently used animations until the cache fits in its maximum size. The most recently used one is
+   * kept even if it is larger than that on its own.
+   */
+  private void trimToSize(LinkedHashMap<String, Entry> entries) {
+    Iterator<Entry> it = entries.values().iterator();
+    while (size > maxBytes && entries.size() > 1 && it.hasNext()) {
+      Entry entry = it.next();
+      it.remove();
+      deleteEntryFile(entry);
+    }
+  }
+
+  private void removeEntry(LinkedHashMap<String, Entry> entries, String fileName) {
+    Entry entry = entries.remove(fileName);
+    if (entry != null) {
+      deleteEntryFile(entry);
+    }
+  }
+
+  private void deleteEntryFile(Entry entry) {
+    size -= entry.size;
+    File file = new File(parentDir(), entry.fileName);
+    if (file.exists() && !file.delete()) {
+      Logger.warning("Unable to delete cache file " + file.getAbsolutePath() + ".");
+    }
+    File snapshotFile = snapshotFile(entry);
+    if (snapshotFile.exists() && !snapshotFile.delete()) {
+      Logger.warning("Unable to delete snapshot " + snapshotFile.getAbsolutePath() + ".");
+    }
+    Logger.debug("Evicted " + entry.fileName + " from the network cache.");
+    // Both the entry's line and this one are no longer needed.
+    redundantJournalLines += 2;
+    appendJournal(REMOVE + '\t' + entry.fileName);
+  }
+
+  private void deleteSnapshot(Entry entry) {
+    File snapshotFile = snapshotFile(entry);
+    long length = snapshotFile.length();
+    if (!snapshotFile.exists()) {
+      return;
+    }
+    if (!snapshotFile.delete()) {
+      Logger.warning("Unable to delete snapshot " + snapshotFile.getAbsolutePath() + ".");
+      return;
+    }
+    entry.size -= length;
+    size -= length;
+  }
+
+  private File snapshotFile(Entry entry) {
+    return new File(parentDir(), entry.fileName + SNAPSHOT_EXTENSION);
+  }
+
+  /**
+   * Returns the cache entries, reading them from the journal first if this is the first time the cache is used.
+   * Cached files that aren't in the journal, such as ones that were cached before there was a journal, are added as
+   * the most recently used entries and entries whose files no longer exist are dropped.
+   */
+  private LinkedHashMap<String, Entry> loadEntries() {
+    LinkedHashMap<String, Entry> entries = this.entries;
+    if (entries != null) {
+      return entries;
+    }
+    entries = new LinkedHashMap<>(16, 0.75f, true);
+    this.entries = entries;
+    File parentDir = parentDir();
+    File journal = new File(parentDir, JOURNAL_FILE);
+    if (journal.exists()) {
+      try {
+        readJournal(journal, entries);
+      } catch (IOException e) {
+        Logger.warning("Unable to read the network cache journal.", e);
+        entries.clear();
+      }
+    }
+
+    size = 0;
+    Iterator<Entry> it = entries.values().iterator();
+    while (it.hasNext()) {
+      Entry entry = it.next();
+      File file = new File(parentDir, entry.fileName);
+      if (file.exists()) {
+        entry.size = file.length() + snapshotFile(entry).length();
+        size += entry.size;
+      } else {
+        it.remove();
+      }
+    }
+    File[] files = parentDir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        String name = file.getName();
+        if (name.startsWith(FILE_PREFIX) && !name.contains(".temp") && !name.endsWith(SNAPSHOT_EXTENSION) &&
+            !entries.containsKey(name)) {
+          Entry entry = new Entry(name, file.length(), null, null, file.lastModified());
+          entry.size += snapshotFile(entry).length();
+          entries.put(name, entry);
+          size += entry.size;
+        }
+      }
+    }
+
+    rewriteJournal(entries);
+    trimToSize(entries);
+    return entries;
+  }
+
+  private static void readJournal(File journal, LinkedHashMap<String, Entry> entries) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(journal), UTF_8));
+    try {
+      if (!JOURNAL_HEADER.equals(reader.readLine())) {
+        throw new IOException("Unexpected network cache journal header.");
+      }
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] parts = line.split("\t", -1);
+        if (parts.length < 2) {
+          // The last line may have been cut off.
+          continue;
+        }
+        String fileName = parts[1];
+        switch (parts[0]) {
+          case PUT:
+            Entry entry = Entry.fromJournalLine(parts);
+            if (entry != null) {
+              entries.put(fileName, entry);
+            }
+            break;
+          case READ:
+            entries.get(fileName);
+            break;
+          case REMOVE:
+            entries.remove(fileName);
+            break;
+        }
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  private void appendJournal(String line) {
+    try {
+      Writer journalWriter = this.journalWriter;
+      if (journalWriter == null) {
+        journalWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(new File(parentDir(), JOURNAL_FILE), true), UTF_8));
+        this.journalWriter = journalWriter;
+      }
+      journalWriter.write(line);
+      journalWriter.write('\n');
+      journalWriter.flush();
+    } catch (IOException e) {
+      Logger.warning("Unable to write to the network cache journal.", e);
+      closeJournal();
+    }
+
+    LinkedHashMap<String, Entry> entries = this.entries;
+    if (entries != null && redundantJournalLines >= COMPACT_THRESHOLD && redundantJournalLines >= entries.size()) {
+      rewriteJournal(entries);
+    }
+  }
+
+  /**
+   * Replaces the journal with one that only has a line for each entry.
+   */
+  private void rewriteJournal(LinkedHashMap<String, Entry> entries) {
+    closeJournal();
+    File parentDir = parentDir();
+    File tempJournal = new File(parentDir, JOURNAL_FILE_TEMP);
+    try {
+      Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempJournal), UTF_8));
+      try {
+        writer.write(JOURNAL_HEADER);
+        writer.write('\n');
+        for (Entry entry : entries.values()) {
+          writer.write(entry.toJournalLine());
+          writer.write('\n');
+        }
+      } finally {
+        writer.close();
+      }
+      if (!tempJournal.renameTo(new File(parentDir, JOURNAL_FILE))) {
+        throw new IOException("Unable to rename " + tempJournal.getAbsolutePath() + ".");
+      }
+      redundantJournalLines = 0;
+    } catch (IOException e) {
+      Logger.warning("Unable to write the network cache journal.", e);
+    }
+  }
+
+  private void closeJournal() {
+    Writer journalWriter = this.journalWriter;
+    this.journalWriter = null;
+    if (journalWriter != null) {
+      try {
+        journalWriter.close();
+      } catch (IOException e) {
+        // Do nothing.
+      }
     }
   }
 
@@ -152,6 +597,16 @@ public class NetworkCache {
     return null;
   }
 
+  static FileExtension extensionOf(File file) {
+    if (file.getAbsolutePath().endsWith(".zip")) {
+      return FileExtension.ZIP;
+    } else if (file.getAbsolutePath().endsWith(".gz")) {
+      return FileExtension.GZIP;
+    } else {
+      return FileExtension.JSON;
+    }
+  }
+
   private File parentDir() {
     File file = cacheProvider.getCacheDir();
     if (file.isFile()) {
@@ -164,7 +619,7 @@ public class NetworkCache {
   }
 
   private static String filenameForUrl(String url, FileExtension extension, boolean isTemp) {
-    String prefix = "lottie_cache_";
+    String prefix = FILE_PREFIX;
     String suffix = (isTemp ? extension.tempExtension() : extension.extension);
     String sanitizedUrl = url.replaceAll("\\W+", "");
     // The max filename on Android is 255 chars.
@@ -185,6 +640,11 @@ public class NetworkCache {
     return prefix + sanitizedUrl + suffix;
   }
 
+  private static String framesFileName(String key) {
+    String sanitizedKey = key.replaceAll("\\W+", "");
+    return FRAMES_PREFIX + getMD5(sanitizedKey, Math.min(sanitizedKey.length(), 32)) + FRAMES_EXTENSION;
+  }
+
   private static String getMD5(String input, int maxLength) {
     MessageDigest md;
     try {
@@ -202,4 +662,48 @@ public class NetworkCache {
     }
     return sb.toString();
   }
+
+  /**
+   * A cached animation file and the validators it was served with.
+   */
+  static final class Entry {
+    final String fileName;
+    long size;
+    @Nullable final String eTag;
+    @Nullable final String lastModified;
+    long validatedAt;
+
+    Entry(String fileName, long size, @Nullable String eTag, @Nullable String lastModified, long validatedAt) {
+      this.fileName = fileName;
+      this.size = size;
+      this.eTag = eTag;
+      this.lastModified = lastModified;
+      this.validatedAt = validatedAt;
+    }
+
+    String toJournalLine() {
+      return PUT + '\t' + fileName + '\t' + size + '\t' + sanitize(eTag) + '\t' + sanitize(lastModified) + '\t' + validatedAt;
+    }
+
+    @Nullable
+    static Entry fromJournalLine(String[] parts) {
+      if (parts.length != 6) {
+        return null;
+      }
+      try {
+        return new Entry(parts[1], Long.parseLong(parts[2]), emptyToNull(parts[3]), emptyToNull(parts[4]), Long.parseLong(parts[5]));
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+
+    private static String sanitize(@Nullable String header) {
+      return header == null ? "" : header.replaceAll("[\t\r\n]", " ");
+    }
+
+    @Nullable
+    private static String emptyToNull(String header) {
+      return header.isEmpty() ? null : header;
+    }
+  }
 }
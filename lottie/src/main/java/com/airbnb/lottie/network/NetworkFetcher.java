@@ -11,15 +11,26 @@ import androidx.annotation.WorkerThread;
 import com.airbnb.lottie.LottieComposition;
 import com.airbnb.lottie.LottieCompositionFactory;
 import com.airbnb.lottie.LottieResult;
+import com.airbnb.lottie.LottieTask;
+import com.airbnb.lottie.model.LottieCompositionCache;
 import com.airbnb.lottie.utils.Logger;
+import com.airbnb.lottie.utils.PriorityExecutor;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipInputStream;
 
+import okio.Okio;
+
 @RestrictTo(RestrictTo.Scope.LIBRARY)
 public class NetworkFetcher {
 
@@ -27,6 +38,8 @@ public class NetworkFetcher {
   private final NetworkCache networkCache;
   @NonNull
   private final LottieNetworkFetcher fetcher;
+  private final Set<String> revalidatingUrls = Collections.newSetFromMap(new ConcurrentHashMap<>());
+  private final Set<String> snapshottingUrls = Collections.newSetFromMap(new ConcurrentHashMap<>());
 
   public NetworkFetcher(@Nullable NetworkCache networkCache, @NonNull LottieNetworkFetcher fetcher) {
     this.networkCache = networkCache;
@@ -38,6 +51,7 @@ public class NetworkFetcher {
   public LottieResult<LottieComposition> fetchSync(Context context, @NonNull String url, @Nullable String cacheKey) {
     LottieComposition result = fetchFromCache(context, url, cacheKey);
     if (result != null) {
+      revalidateInBackground(context, url, cacheKey);
       return new LottieResult<>(result);
     }
 
@@ -52,29 +66,44 @@ public class NetworkFetcher {
     if (cacheKey == null || networkCache == null) {
       return null;
     }
-    Pair<FileExtension, InputStream> cacheResult = networkCache.fetch(url);
+    Pair<FileExtension, File> cacheResult = networkCache.fetch(url);
     if (cacheResult == null) {
       return null;
     }
 
     FileExtension extension = cacheResult.first;
-    InputStream inputStream = cacheResult.second;
+    File file = cacheResult.second;
+    File snapshotFile = networkCache.getSnapshotFile(url);
+    if (snapshotFile != null) {
+      LottieResult<LottieComposition> result = extension == FileExtension.ZIP ?
+          LottieCompositionFactory.fromCachedZipFileSync(context, file, snapshotFile, cacheKey) :
+          LottieCompositionFactory.fromBinaryFileSync(snapshotFile, cacheKey);
+      if (result.getValue() != null) {
+        return result.getValue();
+      }
+      // The snapshot was most likely written by a version of Lottie with a different binary format.
+      Logger.debug("Unable to load the cached snapshot of " + url + ". Parsing the cached animation instead.");
+      networkCache.deleteSnapshot(url);
+    }
+
     LottieResult<LottieComposition> result;
-    switch (extension) {
-      case ZIP:
-        result = LottieCompositionFactory.fromZipStreamSync(context, new ZipInputStream(inputStream), cacheKey);
-        break;
-      case GZIP:
-        try {
-          result = LottieCompositionFactory.fromJsonInputStreamSync(new GZIPInputStream(inputStream), cacheKey);
-        } catch (IOException e) {
-          result = new LottieResult<>(e);
-        }
-        break;
-      default:
-        result = LottieCompositionFactory.fromJsonInputStreamSync(inputStream, cacheKey);
+    try {
+      switch (extension) {
+        case ZIP:
+          // The file may be evicted or replaced while the composition is in use so its images are decoded now.
+          result = LottieCompositionFactory.fromCachedZipFileSync(context, file, null, cacheKey);
+          break;
+        case GZIP:
+          result = LottieCompositionFactory.fromJsonInputStreamSync(new GZIPInputStream(new FileInputStream(file)), cacheKey);
+          break;
+        default:
+          result = LottieCompositionFactory.fromJsonInputStreamSync(new FileInputStream(file), cacheKey);
+      }
+    } catch (IOException e) {
+      result = new LottieResult<>(e);
     }
     if (result.getValue() != null) {
+      writeSnapshotInBackground(url);
       return result.getValue();
     }
     return null;
@@ -88,10 +117,12 @@ public class NetworkFetcher {
     LottieFetchResult fetchResult = null;
     try {
       fetchResult = fetcher.fetchSync(url);
+      if (Thread.currentThread().isInterrupted()) {
+        // The task was cancelled while connecting. Don't download the body.
+        return new LottieResult<>(new InterruptedIOException("Fetching was cancelled."));
+      }
       if (fetchResult.isSuccessful()) {
-        InputStream inputStream = fetchResult.bodyByteStream();
-        String contentType = fetchResult.contentType();
-        LottieResult<LottieComposition> result = fromInputStream(context, url, inputStream, contentType, cacheKey);
+        LottieResult<LottieComposition> result = fromFetchResult(context, url, fetchResult, cacheKey, false);
         Logger.debug("Completed fetch from network. Success: " + (result.getValue() != null));
         return result;
       } else {
@@ -110,9 +141,119 @@ public class NetworkFetcher {
     }
   }
 
+  /**
+   * Makes a conditional request for the cached animation if it hasn't been validated in a while. If it changed, the new
+   * version replaces it in the network cache and in the composition cache. Animations that are already showing the old
+   * version keep it because compositions don't read from the cached file after they were loaded.
+   */
+  private void revalidateInBackground(Context context, @NonNull String url, @Nullable String cacheKey) {
+    if (!(fetcher instanceof LottieConditionalNetworkFetcher) || networkCache == null) {
+      return;
+    }
+    NetworkCache.Entry entry = networkCache.getEntryToRevalidate(url);
+    if (entry == null || !revalidatingUrls.add(url)) {
+      return;
+    }
+    LottieTask.EXECUTOR.execute(new LowPriorityRunnable(() -> {
+      try {
+        revalidate(context, url, cacheKey, entry);
+      } finally {
+        revalidatingUrls.remove(url);
+      }
+    }));
+  }
+
+  /**
+   * Converts the cached animation for the url into Lottie's precompiled binary format so that the next time it is
+   * loaded from the cache, it doesn't need to be parsed from json.
+   */
+  private void writeSnapshotInBackground(@NonNull String url) {
+    NetworkCache networkCache = this.networkCache;
+    if (networkCache == null || !snapshottingUrls.add(url)) {
+      return;
+    }
+    LottieTask.EXECUTOR.execute(new LowPriorityRunnable(() -> {
+      try {
+        writeSnapshot(networkCache, url);
+      } finally {
+        snapshottingUrls.remove(url);
+      }
+    }));
+  }
+
+  @WorkerThread
+  private static void writeSnapshot(NetworkCache networkCache, @NonNull String url) {
+    NetworkCache.Entry entry = networkCache.getEntryWithoutSnapshot(url);
+    if (entry == null) {
+      return;
+    }
+    File file = networkCache.getFile(entry);
+    File tempFile = networkCache.snapshotTempFile(entry);
+    try {
+      switch (NetworkCache.extensionOf(file)) {
+        case ZIP:
+          LottieCompositionFactory.convertZipToBinarySync(file, Okio.sink(tempFile));
+          break;
+        case GZIP:
+          LottieCompositionFactory.convertJsonToBinarySync(Okio.source(new GZIPInputStream(new FileInputStream(file))), Okio.sink(tempFile));
+          break;
+        default:
+          LottieCompositionFactory.convertJsonToBinarySync(Okio.source(file), Okio.sink(tempFile));
+      }
+      networkCache.commitSnapshot(entry);
+    } catch (IOException e) {
+      Logger.warning("Unable to write a snapshot of " + url + ".", e);
+      if (tempFile.exists() && !tempFile.delete()) {
+        Logger.warning("Unable to delete temp snapshot " + tempFile.getAbsolutePath() + ".");
+      }
+    }
+  }
+
+  @WorkerThread
+  private void revalidate(Context context, @NonNull String url, @Nullable String cacheKey, NetworkCache.Entry entry) {
+    if (networkCache == null) {
+      return;
+    }
+    Logger.debug("Revalidating " + url);
+    LottieFetchResult fetchResult = null;
+    try {
+      fetchResult = ((LottieConditionalNetworkFetcher) fetcher).fetchSync(url, entry.eTag, entry.lastModified);
+      if (fetchResult instanceof LottieCacheableFetchResult && ((LottieCacheableFetchResult) fetchResult).isNotModified()) {
+        Logger.debug("Cached animation for " + url + " is up to date.");
+        networkCache.markValidated(url);
+      } else if (fetchResult.isSuccessful()) {
+        LottieResult<LottieComposition> result = fromFetchResult(context, url, fetchResult, cacheKey, true);
+        LottieComposition composition = result.getValue();
+        if (composition != null && cacheKey != null) {
+          LottieCompositionCache.getInstance().put(cacheKey, composition);
+        }
+        Logger.debug("Replaced cached animation for " + url + ". Success: " + (composition != null));
+      } else {
+        Logger.warning("Unable to revalidate " + url + ". " + fetchResult.error());
+      }
+    } catch (Exception e) {
+      Logger.warning("Unable to revalidate " + url + ".", e);
+    } finally {
+      if (fetchResult != null) {
+        try {
+          fetchResult.close();
+        } catch (IOException e) {
+          Logger.warning("LottieFetchResult close failed ", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * @param replaceCached whether the composition that was parsed from the previously cached file should be replaced
+   *                      rather than returned from the composition cache.
+   */
   @NonNull
-  private LottieResult<LottieComposition> fromInputStream(Context context, @NonNull String url, @NonNull InputStream inputStream, @Nullable String contentType,
-      @Nullable String cacheKey) throws IOException {
+  private LottieResult<LottieComposition> fromFetchResult(Context context, @NonNull String url, @NonNull LottieFetchResult fetchResult,
+      @Nullable String cacheKey, boolean replaceCached) throws IOException {
+    InputStream inputStream = fetchResult.bodyByteStream();
+    String contentType = fetchResult.contentType();
+    String parseCacheKey = replaceCached ? null : url;
     FileExtension extension;
     LottieResult<LottieComposition> result;
     if (contentType == null) {
@@ -126,53 +267,117 @@ public class NetworkFetcher {
         url.split("\\?")[0].endsWith(".lottie")) {
       Logger.debug("Handling zip response.");
       extension = FileExtension.ZIP;
-      result = fromZipStream(context, url, inputStream, cacheKey);
+      result = fromZipStream(context, url, inputStream, cacheKey, parseCacheKey);
     } else if (contentType.contains("application/gzip") ||
         contentType.contains("application/x-gzip") ||
         url.split("\\?")[0].endsWith(".tgs")) {
       Logger.debug("Handling gzip response.");
       extension = FileExtension.GZIP;
-      result = fromGzipStream(url, inputStream, cacheKey);
+      result = fromGzipStream(url, inputStream, cacheKey, parseCacheKey);
     } else {
       Logger.debug("Received json response.");
       extension = FileExtension.JSON;
-      result = fromJsonStream(url, inputStream, cacheKey);
+      result = fromJsonStream(url, inputStream, cacheKey, parseCacheKey);
     }
 
-    if (cacheKey != null && result.getValue() != null && networkCache != null) {
-      networkCache.renameTempFile(url, extension);
+    // The response may have been parsed without being cached completely in which case the temp file was deleted.
+    if (cacheKey != null && result.getValue() != null && networkCache != null && networkCache.tempCacheFile(url, extension).exists()) {
+      if (fetchResult instanceof LottieCacheableFetchResult) {
+        LottieCacheableFetchResult cacheableResult = (LottieCacheableFetchResult) fetchResult;
+        networkCache.renameTempFile(url, extension, cacheableResult.eTag(), cacheableResult.lastModified());
+      } else {
+        networkCache.renameTempFile(url, extension);
+      }
+      writeSnapshotInBackground(url);
     }
 
     return result;
   }
 
   @NonNull
-  private LottieResult<LottieComposition> fromZipStream(Context context, @NonNull String url, @NonNull InputStream inputStream, @Nullable String cacheKey)
-      throws IOException {
+  private LottieResult<LottieComposition> fromZipStream(Context context, @NonNull String url, @NonNull InputStream inputStream, @Nullable String cacheKey,
+      @Nullable String parseCacheKey) throws IOException {
     if (cacheKey == null || networkCache == null) {
       return LottieCompositionFactory.fromZipStreamSync(context, new ZipInputStream(inputStream), null);
     }
-    File file = networkCache.writeTempCacheFile(url, inputStream, FileExtension.ZIP);
-    return LottieCompositionFactory.fromZipStreamSync(context, new ZipInputStream(new FileInputStream(file)), url);
+    return parseWhileCaching(networkCache, url, inputStream, FileExtension.ZIP,
+        stream -> LottieCompositionFactory.fromZipStreamSync(context, new ZipInputStream(stream), parseCacheKey));
   }
 
   @NonNull
-  private LottieResult<LottieComposition> fromGzipStream(@NonNull String url, @NonNull InputStream inputStream, @Nullable String cacheKey)
-      throws IOException {
+  private LottieResult<LottieComposition> fromGzipStream(@NonNull String url, @NonNull InputStream inputStream, @Nullable String cacheKey,
+      @Nullable String parseCacheKey) throws IOException {
     if (cacheKey == null || networkCache == null) {
       return LottieCompositionFactory.fromJsonInputStreamSync(new GZIPInputStream(inputStream), null);
     }
-    File file = networkCache.writeTempCacheFile(url, inputStream, FileExtension.GZIP);
-    return LottieCompositionFactory.fromJsonInputStreamSync(new GZIPInputStream(new FileInputStream(file)), url);
+    return parseWhileCaching(networkCache, url, inputStream, FileExtension.GZIP,
+        stream -> LottieCompositionFactory.fromJsonInputStreamSync(new GZIPInputStream(stream), parseCacheKey));
   }
 
   @NonNull
-  private LottieResult<LottieComposition> fromJsonStream(@NonNull String url, @NonNull InputStream inputStream, @Nullable String cacheKey)
-      throws IOException {
+  private LottieResult<LottieComposition> fromJsonStream(@NonNull String url, @NonNull InputStream inputStream, @Nullable String cacheKey,
+      @Nullable String parseCacheKey) throws IOException {
     if (cacheKey == null || networkCache == null) {
       return LottieCompositionFactory.fromJsonInputStreamSync(inputStream, null);
     }
-    File file = networkCache.writeTempCacheFile(url, inputStream, FileExtension.JSON);
-    return LottieCompositionFactory.fromJsonInputStreamSync(new FileInputStream(file.getAbsolutePath()), url);
+    return parseWhileCaching(networkCache, url, inputStream, FileExtension.JSON,
+        stream -> LottieCompositionFactory.fromJsonInputStreamSync(stream, parseCacheKey));
+  }
+
+  /**
+   * Parses the response as it is downloaded while writing it to the temporary cache file. The file is only completed
+   * if the animation parsed, in which case {@link NetworkCache#renameTempFile(String, FileExtension)} moves it to its
+   * final location. Otherwise, it is deleted. If only copying the rest of the response fails, the parsed animation is
+   * still returned but the file is deleted too.
+   */
+  @NonNull
+  private static LottieResult<LottieComposition> parseWhileCaching(NetworkCache networkCache, @NonNull String url, @NonNull InputStream inputStream,
+      FileExtension extension, StreamParser parser) throws IOException {
+    File file = networkCache.tempCacheFile(url, extension);
+    TeeInputStream stream = new TeeInputStream(inputStream, new BufferedOutputStream(new FileOutputStream(file)));
+    boolean cached = false;
+    try {
+      LottieResult<LottieComposition> result = parser.parse(stream);
+      if (result.getValue() != null) {
+        try {
+          stream.finish();
+          cached = true;
+        } catch (IOException e) {
+          Logger.warning("Unable to cache " + url + ".", e);
+        }
+      }
+      return result;
+    } finally {
+      if (!cached) {
+        stream.abort();
+        if (file.exists() && !file.delete()) {
+          Logger.warning("Unable to delete temp cache file " + file.getAbsolutePath() + ".");
+        }
+      }
+    }
+  }
+
+  private interface StreamParser {
+    LottieResult<LottieComposition> parse(InputStream inputStream) throws IOException;
+  }
+
+  /**
+   * Runs after the animations that are waiting to be loaded.
+   */
+  private static class LowPriorityRunnable implements Runnable, PriorityExecutor.Prioritized {
+    private final Runnable runnable;
+
+    LowPriorityRunnable(Runnable runnable) {
+      this.runnable = runnable;
+    }
+
+    @Override public int getPriority() {
+      // The executor priority of LottieTaskPriority.LOW.
+      return -1;
+    }
+
+    @Override public void run() {
+      runnable.run();
+    }
   }
 }
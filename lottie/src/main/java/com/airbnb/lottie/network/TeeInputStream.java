@@ -0,0 +1,89 @@
+package com.airbnb.lottie.network;
+
+import androidx.annotation.NonNull;
+
+import com.airbnb.lottie.utils.Utils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+/**
+ * Copies every byte that is read from a network response to an output stream so that the response can be parsed while
+ * it is written to the network cache.
+ * <p>
+ * Closing this stream, which parsers do once they are done, doesn't close either stream. Call {@link #finish()} to copy
+ * whatever the parser didn't read and close both, or {@link #abort()} to close both right away.
+ */
+class TeeInputStream extends FilterInputStream {
+  private final OutputStream output;
+  private final byte[] skipBuffer = new byte[4 * 1024];
+
+  TeeInputStream(InputStream input, OutputStream output) {
+    super(input);
+    this.output = output;
+  }
+
+  @Override public int read() throws IOException {
+    checkInterrupted();
+    int b = in.read();
+    if (b != -1) {
+      output.write(b);
+    }
+    return b;
+  }
+
+  @Override public int read(@NonNull byte[] b, int off, int len) throws IOException {
+    checkInterrupted();
+    int read = in.read(b, off, len);
+    if (read > 0) {
+      output.write(b, off, read);
+    }
+    return read;
+  }
+
+  /**
+   * Skipped bytes are read rather than skipped so that they are still copied.
+   */
+  @Override public long skip(long n) throws IOException {
+    int read = read(skipBuffer, 0, (int) Math.min(n, skipBuffer.length));
+    return Math.max(read, 0);
+  }
+
+  @Override public boolean markSupported() {
+    return false;
+  }
+
+  @Override public void close() {
+    // The streams stay open until the response has been completely copied.
+  }
+
+  /**
+   * Copies the rest of the response, such as trailing whitespace or a zip file's central directory, and closes both
+   * streams.
+   */
+  void finish() throws IOException {
+    try {
+      //noinspection StatementWithEmptyBody
+      while (read(skipBuffer, 0, skipBuffer.length) != -1) {
+      }
+      output.flush();
+    } finally {
+      abort();
+    }
+  }
+
+  void abort() {
+    Utils.closeQuietly(in);
+    Utils.closeQuietly(output);
+  }
+
+  private static void checkInterrupted() throws InterruptedIOException {
+    if (Thread.currentThread().isInterrupted()) {
+      // The task that is fetching this animation was cancelled.
+      throw new InterruptedIOException("Fetching was cancelled.");
+    }
+  }
+}
@@ -2,6 +2,7 @@ package com.airbnb.lottie.parser;
 
 import com.airbnb.lottie.LottieComposition;
 import com.airbnb.lottie.animation.keyframe.PathKeyframe;
+import com.airbnb.lottie.model.content.ShapeData;
 import com.airbnb.lottie.parser.moshi.JsonReader;
 import com.airbnb.lottie.value.Keyframe;
 
@@ -52,9 +53,22 @@ class KeyframesParser {
     reader.endObject();
 
     setEndFrames(keyframes);
+    countKeyframes(keyframes, composition);
     return keyframes;
   }
 
+  private static <T> void countKeyframes(List<Keyframe<T>> keyframes, LottieComposition composition) {
+    composition.incrementKeyframeCount(keyframes.size());
+    int vertexCount = 0;
+    for (int i = 0; i < keyframes.size(); i++) {
+      T startValue = keyframes.get(i).startValue;
+      if (startValue instanceof ShapeData) {
+        vertexCount += ((ShapeData) startValue).getCurves().size();
+      }
+    }
+    composition.incrementShapeVertexCount(vertexCount);
+  }
+
   /**
    * The json doesn't include end frames. The data can be taken from the start frame of the next
    * keyframe though.
@@ -18,6 +18,7 @@ import com.airbnb.lottie.utils.Utils;
 import com.airbnb.lottie.value.Keyframe;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -109,6 +110,11 @@ public class LayerParser {
     List<Mask> masks = new ArrayList<>();
     List<ContentModel> shapes = new ArrayList<>();
 
+    if (Thread.currentThread().isInterrupted()) {
+      // The task that is loading this composition was cancelled.
+      throw new InterruptedIOException("Parsing was cancelled.");
+    }
+    composition.incrementLayerCount();
     reader.beginObject();
     while (reader.hasNext()) {
       switch (reader.selectName(NAMES)) {
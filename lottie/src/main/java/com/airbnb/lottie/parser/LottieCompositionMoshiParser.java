@@ -1,10 +1,13 @@
 package com.airbnb.lottie.parser;
 
+import static com.airbnb.lottie.utils.Utils.closeQuietly;
+
 import android.graphics.Rect;
 
 import androidx.collection.LongSparseArray;
 import androidx.collection.SparseArrayCompat;
 
+import com.airbnb.lottie.L;
 import com.airbnb.lottie.LottieComposition;
 import com.airbnb.lottie.LottieImageAsset;
 import com.airbnb.lottie.model.Font;
@@ -47,6 +50,7 @@ public class LottieCompositionMoshiParser {
     int unscaledWidth = 0;
     int unscaledHeight = 0;
     Map<String, List<Layer>> precomps = new HashMap<>();
+    Map<String, JsonReader.Deferred> deferredPrecomps = new HashMap<>();
     Map<String, LottieImageAsset> images = new HashMap<>();
     Map<String, Font> fonts = new HashMap<>();
     List<Marker> markers = new ArrayList<>();
@@ -86,7 +90,7 @@ public class LottieCompositionMoshiParser {
           parseLayers(reader, composition, layers, layerMap);
           break;
         case 7:
-          parseAssets(reader, composition, precomps, images);
+          parseAssets(reader, composition, precomps, deferredPrecomps, images);
           break;
         case 8:
           parseFonts(reader, fonts);
@@ -108,6 +112,7 @@ public class LottieCompositionMoshiParser {
 
     composition.init(bounds, startFrame, endFrame, frameRate, layers, layerMap, precomps,
         images, Utils.dpScale(), characters, fonts, markers, unscaledWidth, unscaledHeight);
+    composition.setDeferredPrecomps(deferredPrecomps);
 
     return composition;
   }
@@ -144,13 +149,14 @@ public class LottieCompositionMoshiParser {
   );
 
   private static void parseAssets(JsonReader reader, LottieComposition composition,
-      Map<String, List<Layer>> precomps, Map<String, LottieImageAsset> images) throws IOException {
+      Map<String, List<Layer>> precomps, Map<String, JsonReader.Deferred> deferredPrecomps,
+      Map<String, LottieImageAsset> images) throws IOException {
     reader.beginArray();
     while (reader.hasNext()) {
       String id = null;
       // For precomps
       List<Layer> layers = new ArrayList<>();
-      LongSparseArray<Layer> layerMap = new LongSparseArray<>();
+      JsonReader.Deferred deferredLayers = null;
       // For images
       int width = 0;
       int height = 0;
@@ -163,13 +169,13 @@ public class LottieCompositionMoshiParser {
             id = reader.nextString();
             break;
           case 1:
-            reader.beginArray();
-            while (reader.hasNext()) {
-              Layer layer = LayerParser.parse(reader, composition);
-              layerMap.put(layer.getId(), layer);
-              layers.add(layer);
+            if (L.getLazyPrecompParsing()) {
+              deferredLayers = reader.deferValue();
+              if (deferredLayers != null) {
+                break;
+              }
             }
-            reader.endArray();
+            parsePrecompLayers(reader, composition, layers);
             break;
           case 2:
             width = reader.nextInt();
@@ -193,6 +199,8 @@ public class LottieCompositionMoshiParser {
         LottieImageAsset image =
             new LottieImageAsset(width, height, id, imageFileName, relativeFolder);
         images.put(image.getId(), image);
+      } else if (deferredLayers != null) {
+        deferredPrecomps.put(id, deferredLayers);
       } else {
         precomps.put(id, layers);
       }
@@ -200,6 +208,39 @@ public class LottieCompositionMoshiParser {
     reader.endArray();
   }
 
+  private static void parsePrecompLayers(JsonReader reader, LottieComposition composition, List<Layer> layers)
+      throws IOException {
+    reader.beginArray();
+    while (reader.hasNext()) {
+      layers.add(LayerParser.parse(reader, composition));
+    }
+    reader.endArray();
+  }
+
+  /**
+   * Parses the layers of a precomp that was deferred while parsing the composition.
+   */
+  public static List<Layer> parsePrecompLayers(JsonReader.Deferred deferred, LottieComposition composition) {
+    if (L.isTraceEnabled()) {
+      L.beginSection("LottieCompositionMoshiParser#parsePrecompLayers");
+    }
+    List<Layer> layers = new ArrayList<>();
+    JsonReader reader = null;
+    try {
+      reader = deferred.newReader();
+      parsePrecompLayers(reader, composition, layers);
+    } catch (IOException | RuntimeException e) {
+      composition.addWarning("Unable to parse precomp: " + e.getMessage());
+      layers.clear();
+    } finally {
+      closeQuietly(reader);
+      if (L.isTraceEnabled()) {
+        L.endSection("LottieCompositionMoshiParser#parsePrecompLayers");
+      }
+    }
+    return layers;
+  }
+
   private static final JsonReader.Options FONT_NAMES = JsonReader.Options.of("list");
 
   private static void parseFonts(JsonReader reader, Map<String, Font> fonts) throws IOException {
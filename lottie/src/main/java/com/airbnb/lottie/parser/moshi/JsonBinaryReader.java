@@ -0,0 +1,567 @@
+package com.airbnb.lottie.parser.moshi;
+
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Reads the tokenized binary encoding written by {@link JsonBinaryWriter}.
+ * <p>
+ * The encoding is a pre-tokenized form of a JSON document so the existing parsers can consume it
+ * through the regular {@link JsonReader} API without scanning text, unescaping strings, or
+ * parsing numbers:
+ * <pre>
+ *   document  := magic(4) version(1) table(names) table(strings) value
+ *   table     := varint(count) (varint(length) utf8-bytes)*
+ *   value     := BEGIN_OBJECT int32(length) (NAME varint(index) value)* END_OBJECT
+ *              | BEGIN_ARRAY int32(length) value* END_ARRAY
+ *              | STRING varint(index) | INT zigzag-varint | FLOAT float32 | DOUBLE float64
+ *              | DECIMAL zigzag-varint(mantissa) byte(scale)
+ *              | TRUE | FALSE | NULL
+ * </pre>
+ * Objects and arrays are prefixed with the byte length of their body so {@link #skipValue()} is
+ * O(1). Names and strings are interned into tables and decoded at most once per document.
+ * <p>
+ * Lengths, varints and table indices are checked against the input so a truncated or corrupt
+ * document fails with a {@link JsonEncodingException} rather than reading out of bounds.
+ */
+final class JsonBinaryReader extends JsonReader {
+  /** "LOTB" */
+  static final int MAGIC = 0x4C4F5442;
+  static final int VERSION = 1;
+  static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  static final byte TAG_BEGIN_OBJECT = 1;
+  static final byte TAG_END_OBJECT = 2;
+  static final byte TAG_BEGIN_ARRAY = 3;
+  static final byte TAG_END_ARRAY = 4;
+  static final byte TAG_NAME = 5;
+  static final byte TAG_STRING = 6;
+  static final byte TAG_INT = 7;
+  static final byte TAG_FLOAT = 8;
+  static final byte TAG_DOUBLE = 9;
+  static final byte TAG_TRUE = 10;
+  static final byte TAG_FALSE = 11;
+  static final byte TAG_NULL = 12;
+  static final byte TAG_DECIMAL = 13;
+  /** Not encoded. Returned by {@link #peekTag()} once the input has been consumed. */
+  private static final byte TAG_END_DOCUMENT = 0;
+
+  static final int MAX_DECIMAL_SCALE = 22;
+  private static final double[] POWERS_OF_TEN = new double[MAX_DECIMAL_SCALE + 1];
+
+  static {
+    POWERS_OF_TEN[0] = 1;
+    for (int i = 1; i <= MAX_DECIMAL_SCALE; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+  }
+
+  /** Marks a name index that hasn't been looked up in a given {@link Options} yet. */
+  private static final byte UNRESOLVED = -2;
+
+  private final ByteBuffer buffer;
+  private final StringTable names;
+  private final StringTable strings;
+  private final int limit;
+  private int pos;
+
+  /**
+   * Caches, for each {@link Options} used with {@link #selectName(Options)}, the option index of each
+   * name in the name table. Lottie keeps its options in static fields so this stays small.
+   */
+  private final Map<Options, byte[]> optionIndices = new IdentityHashMap<>();
+  @Nullable private Options lastOptions;
+  @Nullable private byte[] lastOptionIndices;
+
+  JsonBinaryReader(ByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    limit = buffer.limit();
+    pos = buffer.position();
+    if (limit - pos < 5 || buffer.getInt(pos) != MAGIC) {
+      throw new JsonEncodingException("Not a Lottie binary document");
+    }
+    pos += 4;
+    int version = buffer.get(pos++);
+    if (version != VERSION) {
+      throw new JsonEncodingException("Unsupported Lottie binary version " + version);
+    }
+    names = readTable();
+    strings = readTable();
+    pushScope(JsonScope.EMPTY_DOCUMENT);
+  }
+
+  /** Reads the single value between {@code start} and {@code end} of {@code buffer}. */
+  private JsonBinaryReader(ByteBuffer buffer, StringTable names, StringTable strings, int start, int end) {
+    this.buffer = buffer;
+    this.names = names;
+    this.strings = strings;
+    pos = start;
+    limit = end;
+    pushScope(JsonScope.EMPTY_DOCUMENT);
+  }
+
+  private StringTable readTable() throws IOException {
+    int count = readVarint();
+    // Every entry takes at least the byte of its length.
+    if (count < 0 || count > limit - pos) {
+      throw syntaxError("Invalid table size " + count);
+    }
+    int[] offsets = new int[count];
+    int[] lengths = new int[count];
+    for (int i = 0; i < count; i++) {
+      int length = readVarint();
+      if (length < 0 || length > limit - pos) {
+        throw syntaxError("Invalid string length " + length);
+      }
+      offsets[i] = pos;
+      lengths[i] = length;
+      pos += length;
+    }
+    return new StringTable(buffer, offsets, lengths);
+  }
+
+  @Override public void beginArray() throws IOException {
+    expect(TAG_BEGIN_ARRAY, Token.BEGIN_ARRAY);
+    readContainerLength();
+    pos += 5;
+    pushScope(JsonScope.EMPTY_ARRAY);
+    pathIndices[stackSize - 1] = 0;
+  }
+
+  @Override public void endArray() throws IOException {
+    expect(TAG_END_ARRAY, Token.END_ARRAY);
+    pos++;
+    stackSize--;
+    pathIndices[stackSize - 1]++;
+  }
+
+  @Override public void beginObject() throws IOException {
+    expect(TAG_BEGIN_OBJECT, Token.BEGIN_OBJECT);
+    readContainerLength();
+    pos += 5;
+    pushScope(JsonScope.EMPTY_OBJECT);
+  }
+
+  @Override public void endObject() throws IOException {
+    expect(TAG_END_OBJECT, Token.END_OBJECT);
+    pos++;
+    stackSize--;
+    pathNames[stackSize] = null; // Free the last path name so that it can be garbage collected!
+    pathIndices[stackSize - 1]++;
+  }
+
+  @Override public boolean hasNext() throws IOException {
+    byte tag = peekTag();
+    return tag != TAG_END_OBJECT && tag != TAG_END_ARRAY && tag != TAG_END_DOCUMENT;
+  }
+
+  @Override public Token peek() throws IOException {
+    switch (peekTag()) {
+      case TAG_BEGIN_OBJECT:
+        return Token.BEGIN_OBJECT;
+      case TAG_END_OBJECT:
+        return Token.END_OBJECT;
+      case TAG_BEGIN_ARRAY:
+        return Token.BEGIN_ARRAY;
+      case TAG_END_ARRAY:
+        return Token.END_ARRAY;
+      case TAG_NAME:
+        return Token.NAME;
+      case TAG_STRING:
+        return Token.STRING;
+      case TAG_INT:
+      case TAG_FLOAT:
+      case TAG_DOUBLE:
+      case TAG_DECIMAL:
+        return Token.NUMBER;
+      case TAG_TRUE:
+      case TAG_FALSE:
+        return Token.BOOLEAN;
+      case TAG_NULL:
+        return Token.NULL;
+      default:
+        return Token.END_DOCUMENT;
+    }
+  }
+
+  @Override public String nextName() throws IOException {
+    expect(TAG_NAME, Token.NAME);
+    pos++;
+    String result = names.get(readIndex(names));
+    pathNames[stackSize - 1] = result;
+    return result;
+  }
+
+  @Override public int selectName(Options options) throws IOException {
+    if (peekTag() != TAG_NAME) {
+      return -1;
+    }
+    int start = pos++;
+    int index = readIndex(names);
+    byte[] indices = optionIndicesFor(options);
+    int result = indices[index];
+    if (result == UNRESOLVED) {
+      result = Arrays.asList(options.strings).indexOf(names.get(index));
+      indices[index] = (byte) result;
+    }
+    if (result == -1) {
+      pos = start;
+      return -1;
+    }
+    pathNames[stackSize - 1] = options.strings[result];
+    return result;
+  }
+
+  private byte[] optionIndicesFor(Options options) {
+    if (options == lastOptions) {
+      return lastOptionIndices;
+    }
+    byte[] indices = optionIndices.get(options);
+    if (indices == null) {
+      if (options.strings.length > Byte.MAX_VALUE) {
+        throw new IllegalArgumentException("Too many options: " + options.strings.length);
+      }
+      indices = new byte[names.size()];
+      Arrays.fill(indices, UNRESOLVED);
+      optionIndices.put(options, indices);
+    }
+    lastOptions = options;
+    lastOptionIndices = indices;
+    return indices;
+  }
+
+  @Override public void skipName() throws IOException {
+    if (failOnUnknown) {
+      throw new JsonDataException("Cannot skip unexpected " + peek() + " at " + getPath());
+    }
+    expect(TAG_NAME, Token.NAME);
+    pos++;
+    readVarint();
+    pathNames[stackSize - 1] = "null";
+  }
+
+  @Override public String nextString() throws IOException {
+    String result;
+    switch (peekTag()) {
+      case TAG_STRING:
+        pos++;
+        result = strings.get(readIndex(strings));
+        break;
+      case TAG_INT:
+      case TAG_FLOAT:
+      case TAG_DOUBLE:
+      case TAG_DECIMAL:
+        double value = readNumber();
+        result = value == (long) value ? Long.toString((long) value) : Double.toString(value);
+        break;
+      default:
+        throw new JsonDataException("Expected a string but was " + peek() + " at path " + getPath());
+    }
+    pathIndices[stackSize - 1]++;
+    return result;
+  }
+
+  @Override public boolean nextBoolean() throws IOException {
+    byte tag = peekTag();
+    if (tag == TAG_TRUE || tag == TAG_FALSE) {
+      pos++;
+      pathIndices[stackSize - 1]++;
+      return tag == TAG_TRUE;
+    }
+    throw new JsonDataException("Expected a boolean but was " + peek() + " at path " + getPath());
+  }
+
+  @Override public double nextDouble() throws IOException {
+    double result;
+    byte tag = peekTag();
+    if (tag == TAG_STRING) {
+      String string = strings.get(readStringIndexAt(pos));
+      try {
+        result = Double.parseDouble(string);
+      } catch (NumberFormatException e) {
+        throw new JsonDataException("Expected a double but was " + string + " at path " + getPath());
+      }
+      if (!lenient && (Double.isNaN(result) || Double.isInfinite(result))) {
+        throw new JsonEncodingException("JSON forbids NaN and infinities: " + result
+            + " at path " + getPath());
+      }
+      skipValueAt();
+    } else if (tag == TAG_INT || tag == TAG_FLOAT || tag == TAG_DOUBLE || tag == TAG_DECIMAL) {
+      result = readNumber();
+    } else {
+      throw new JsonDataException("Expected a double but was " + peek() + " at path " + getPath());
+    }
+    pathIndices[stackSize - 1]++;
+    return result;
+  }
+
+  @Override public int nextInt() throws IOException {
+    byte tag = peekTag();
+    if (tag == TAG_INT) {
+      pos++;
+      int result = zigzag(readVarint());
+      pathIndices[stackSize - 1]++;
+      return result;
+    }
+
+    double asDouble;
+    if (tag == TAG_FLOAT || tag == TAG_DOUBLE || tag == TAG_DECIMAL) {
+      int start = pos;
+      asDouble = readNumber();
+      if (asDouble != (int) asDouble) {
+        pos = start;
+        throw new JsonDataException("Expected an int but was " + asDouble + " at path " + getPath());
+      }
+    } else if (tag == TAG_STRING) {
+      String string = strings.get(readStringIndexAt(pos));
+      try {
+        asDouble = Double.parseDouble(string);
+      } catch (NumberFormatException e) {
+        throw new JsonDataException("Expected an int but was " + string + " at path " + getPath());
+      }
+      if (asDouble != (int) asDouble) {
+        throw new JsonDataException("Expected an int but was " + string + " at path " + getPath());
+      }
+      skipValueAt();
+    } else {
+      throw new JsonDataException("Expected an int but was " + peek() + " at path " + getPath());
+    }
+    pathIndices[stackSize - 1]++;
+    return (int) asDouble;
+  }
+
+  @Override public void skipValue() throws IOException {
+    if (failOnUnknown) {
+      throw new JsonDataException("Cannot skip unexpected " + peek() + " at " + getPath());
+    }
+    byte tag = peekTag();
+    if (tag == TAG_END_OBJECT || tag == TAG_END_ARRAY || tag == TAG_END_DOCUMENT) {
+      throw new JsonDataException("Expected a value but was " + peek() + " at path " + getPath());
+    }
+    // Like JsonUtf8Reader, a pending name is skipped on its own.
+    skipValueAt();
+    pathIndices[stackSize - 1]++;
+    pathNames[stackSize - 1] = "null";
+  }
+
+  /**
+   * Deferred values share this reader's buffer and string tables so nothing is copied. They don't
+   * hold on to this reader itself, but the whole buffer stays reachable until they are released.
+   */
+  @Override public Deferred deferValue() throws IOException {
+    byte tag = peekTag();
+    if (tag != TAG_BEGIN_OBJECT && tag != TAG_BEGIN_ARRAY) {
+      return null;
+    }
+    final int start = pos;
+    skipValueAt();
+    final int end = pos;
+    pathIndices[stackSize - 1]++;
+    pathNames[stackSize - 1] = "null";
+    final ByteBuffer buffer = this.buffer;
+    final StringTable names = this.names;
+    final StringTable strings = this.strings;
+    return () -> new JsonBinaryReader(buffer, names, strings, start, end);
+  }
+
+  @Override public void close() {
+    pos = limit;
+    scopes[0] = JsonScope.CLOSED;
+    stackSize = 1;
+  }
+
+  /** Advances past the single value or name at the current position. */
+  private void skipValueAt() throws IOException {
+    switch (peekTag()) {
+      case TAG_BEGIN_OBJECT:
+      case TAG_BEGIN_ARRAY:
+        pos += 5 + readContainerLength();
+        break;
+      case TAG_NAME:
+      case TAG_STRING:
+      case TAG_INT:
+        pos++;
+        readVarint();
+        break;
+      case TAG_FLOAT:
+        require(5);
+        pos += 5;
+        break;
+      case TAG_DOUBLE:
+        require(9);
+        pos += 9;
+        break;
+      case TAG_DECIMAL:
+        pos++;
+        readVarlong();
+        readScale();
+        break;
+      default:
+        pos++;
+        break;
+    }
+  }
+
+  /** Reads an INT, FLOAT, or DOUBLE value. */
+  private double readNumber() throws IOException {
+    byte tag = buffer.get(pos++);
+    double result;
+    if (tag == TAG_INT) {
+      result = zigzag(readVarint());
+    } else if (tag == TAG_FLOAT) {
+      require(4);
+      result = buffer.getFloat(pos);
+      pos += 4;
+    } else if (tag == TAG_DECIMAL) {
+      long mantissa = readVarlong();
+      result = ((mantissa >>> 1) ^ -(mantissa & 1)) / POWERS_OF_TEN[readScale()];
+    } else {
+      require(8);
+      result = buffer.getDouble(pos);
+      pos += 8;
+    }
+    return result;
+  }
+
+  private int readStringIndexAt(int at) throws IOException {
+    int start = pos;
+    pos = at + 1;
+    int index = readIndex(strings);
+    pos = start;
+    return index;
+  }
+
+  private byte peekTag() throws IOException {
+    if (pos >= limit) {
+      return TAG_END_DOCUMENT;
+    }
+    byte tag = buffer.get(pos);
+    if (tag < TAG_BEGIN_OBJECT || tag > TAG_DECIMAL) {
+      throw syntaxError("Unknown tag " + tag);
+    }
+    return tag;
+  }
+
+  private void expect(byte tag, Token token) throws IOException {
+    if (peekTag() != tag) {
+      throw new JsonDataException("Expected " + token + " but was " + peek() + " at path " + getPath());
+    }
+  }
+
+  /** Throws if fewer than {@code count} bytes are left. */
+  private void require(int count) throws IOException {
+    if (limit - pos < count) {
+      throw syntaxError("Unexpected end of input");
+    }
+  }
+
+  private int readVarint() throws IOException {
+    int result = 0;
+    int shift = 0;
+    byte b;
+    do {
+      if (shift > 28) {
+        throw syntaxError("Malformed varint");
+      }
+      require(1);
+      b = buffer.get(pos++);
+      result |= (b & 0x7f) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return result;
+  }
+
+  private long readVarlong() throws IOException {
+    long result = 0;
+    int shift = 0;
+    byte b;
+    do {
+      if (shift > 63) {
+        throw syntaxError("Malformed varint");
+      }
+      require(1);
+      b = buffer.get(pos++);
+      result |= (long) (b & 0x7f) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return result;
+  }
+
+  /** Returns the body length of the object or array at the current position. */
+  private int readContainerLength() throws IOException {
+    require(5);
+    int length = buffer.getInt(pos + 1);
+    if (length < 0 || length > limit - pos - 5) {
+      throw syntaxError("Invalid length " + length);
+    }
+    return length;
+  }
+
+  /** Reads an index into {@code table}. */
+  private int readIndex(StringTable table) throws IOException {
+    int index = readVarint();
+    if (index < 0 || index >= table.size()) {
+      throw syntaxError("Invalid string index " + index);
+    }
+    return index;
+  }
+
+  private int readScale() throws IOException {
+    require(1);
+    int scale = buffer.get(pos++);
+    if (scale < 0 || scale > MAX_DECIMAL_SCALE) {
+      throw syntaxError("Invalid decimal scale " + scale);
+    }
+    return scale;
+  }
+
+  private static int zigzag(int n) {
+    return (n >>> 1) ^ -(n & 1);
+  }
+
+  /**
+   * Strings stored once in the header and decoded lazily the first time they are read.
+   */
+  private static final class StringTable {
+    private final ByteBuffer buffer;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final String[] decoded;
+
+    StringTable(ByteBuffer buffer, int[] offsets, int[] lengths) {
+      this.buffer = buffer;
+      this.offsets = offsets;
+      this.lengths = lengths;
+      decoded = new String[offsets.length];
+    }
+
+    int size() {
+      return offsets.length;
+    }
+
+    String get(int index) {
+      String result = decoded[index];
+      if (result == null) {
+        int offset = offsets[index];
+        int length = lengths[index];
+        if (buffer.hasArray()) {
+          result = new String(buffer.array(), buffer.arrayOffset() + offset, length, UTF_8);
+        } else {
+          byte[] bytes = new byte[length];
+          ByteBuffer source = buffer.duplicate();
+          source.position(offset);
+          source.get(bytes);
+          result = new String(bytes, UTF_8);
+        }
+        decoded[index] = result;
+      }
+      return result;
+    }
+  }
+}
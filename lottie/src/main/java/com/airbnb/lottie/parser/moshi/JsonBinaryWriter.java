@@ -0,0 +1,251 @@
+package com.airbnb.lottie.parser.moshi;
+
+import static com.airbnb.lottie.parser.moshi.JsonBinaryReader.MAGIC;
+import static com.airbnb.lottie.parser.moshi.JsonBinaryReader.MAX_DECIMAL_SCALE;
+import static com.airbnb.lottie.parser.moshi.JsonBinaryReader.TAG_BEGIN_ARRAY;
+import static com.airbnb.lottie.parser.moshi.JsonBinaryReader.TAG_BEGIN_OBJECT;
+import static com.airbnb.lottie.parser.moshi.JsonBinaryReader.TAG_DECIMAL;
+import static com.airbnb.lottie.parser.moshi.JsonBinaryReader.TAG_DOUBLE;
+import static com.airbnb.lottie.parser.moshi.JsonBinaryReader.TAG_END_ARRAY;
+import static com.airbnb.lottie.parser.moshi.JsonBinaryReader.TAG_END_OBJECT;
+import static com.airbnb.lottie.parser.moshi.JsonBinaryReader.TAG_FALSE;
+import static com.airbnb.lottie.parser.moshi.JsonBinaryReader.TAG_FLOAT;
+import static com.airbnb.lottie.parser.moshi.JsonBinaryReader.TAG_INT;
+import static com.airbnb.lottie.parser.moshi.JsonBinaryReader.TAG_NAME;
+import static com.airbnb.lottie.parser.moshi.JsonBinaryReader.TAG_NULL;
+import static com.airbnb.lottie.parser.moshi.JsonBinaryReader.TAG_STRING;
+import static com.airbnb.lottie.parser.moshi.JsonBinaryReader.TAG_TRUE;
+import static com.airbnb.lottie.parser.moshi.JsonBinaryReader.UTF_8;
+import static com.airbnb.lottie.parser.moshi.JsonBinaryReader.VERSION;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import okio.BufferedSink;
+
+/**
+ * Transcodes a JSON document into the binary encoding read by {@link JsonBinaryReader}.
+ * <p>
+ * Numbers are stored as ints when they are integral, as scaled decimals or floats when that is
+ * lossless, and as doubles otherwise so reading the binary form yields exactly the values the JSON
+ * would.
+ */
+public final class JsonBinaryWriter {
+  private final Map<String, Integer> nameIndices = new HashMap<>();
+  private final List<String> names = new ArrayList<>();
+  private final Map<String, Integer> stringIndices = new HashMap<>();
+  private final List<String> strings = new ArrayList<>();
+  private byte[] body = new byte[8192];
+  private int size;
+
+  private JsonBinaryWriter() {
+  }
+
+  /**
+   * Reads the single JSON document from {@code reader} and writes its binary encoding to {@code sink}.
+   */
+  public static void transcode(JsonReader reader, BufferedSink sink) throws IOException {
+    JsonBinaryWriter writer = new JsonBinaryWriter();
+    writer.writeValue(reader);
+    if (reader.peek() != JsonReader.Token.END_DOCUMENT) {
+      throw new JsonDataException("Expected a single JSON document but was " + reader.peek()
+          + " at path " + reader.getPath());
+    }
+    writer.writeTo(sink);
+  }
+
+  private void writeValue(JsonReader reader) throws IOException {
+    switch (reader.peek()) {
+      case BEGIN_OBJECT:
+        reader.beginObject();
+        int objectStart = beginContainer(TAG_BEGIN_OBJECT);
+        while (reader.hasNext()) {
+          writeByte(TAG_NAME);
+          writeVarint(intern(reader.nextName(), nameIndices, names));
+          writeValue(reader);
+        }
+        reader.endObject();
+        writeByte(TAG_END_OBJECT);
+        endContainer(objectStart);
+        break;
+      case BEGIN_ARRAY:
+        reader.beginArray();
+        int arrayStart = beginContainer(TAG_BEGIN_ARRAY);
+        while (reader.hasNext()) {
+          writeValue(reader);
+        }
+        reader.endArray();
+        writeByte(TAG_END_ARRAY);
+        endContainer(arrayStart);
+        break;
+      case STRING:
+        writeByte(TAG_STRING);
+        writeVarint(intern(reader.nextString(), stringIndices, strings));
+        break;
+      case NUMBER:
+        // nextString() returns the number's literal text so nothing is lost to a double round trip.
+        writeNumber(reader.nextString());
+        break;
+      case BOOLEAN:
+        writeByte(reader.nextBoolean() ? TAG_TRUE : TAG_FALSE);
+        break;
+      case NULL:
+        reader.skipValue();
+        writeByte(TAG_NULL);
+        break;
+      default:
+        throw new JsonDataException("Unexpected " + reader.peek() + " at path " + reader.getPath());
+    }
+  }
+
+  private void writeNumber(String literal) {
+    try {
+      long value = Long.parseLong(literal);
+      if (value == (int) value) {
+        writeByte(TAG_INT);
+        writeVarint(((int) value << 1) ^ ((int) value >> 31));
+        return;
+      }
+    } catch (NumberFormatException ignored) {
+      // Not an integer.
+    }
+    if (writeDecimal(literal)) {
+      return;
+    }
+    double value = Double.parseDouble(literal);
+    float asFloat = (float) value;
+    if (asFloat == value) {
+      writeByte(TAG_FLOAT);
+      writeInt(Float.floatToIntBits(asFloat));
+    } else {
+      writeByte(TAG_DOUBLE);
+      long bits = Double.doubleToLongBits(value);
+      writeInt((int) (bits >>> 32));
+      writeInt((int) bits);
+    }
+  }
+
+  /**
+   * Writes short decimal literals like 0.833 as an integer mantissa and a power of ten scale. Dividing
+   * the two is exact for mantissas below 2^53 and scales up to 22 so this reads back as the same double
+   * that parsing the literal would produce.
+   */
+  private boolean writeDecimal(String literal) {
+    int length = literal.length();
+    boolean negative = literal.charAt(0) == '-';
+    long mantissa = 0;
+    int digits = 0;
+    int scale = -1;
+    for (int i = negative ? 1 : 0; i < length; i++) {
+      char c = literal.charAt(i);
+      if (c == '.' && scale == -1) {
+        scale = 0;
+      } else if (c >= '0' && c <= '9') {
+        mantissa = mantissa * 10 + (c - '0');
+        if (++digits > 15) {
+          return false;
+        }
+        if (scale != -1) {
+          scale++;
+        }
+      } else {
+        return false;
+      }
+    }
+    // -0.0 can't be represented with a mantissa of 0.
+    if (scale < 1 || scale > MAX_DECIMAL_SCALE || mantissa == 0 && negative) {
+      return false;
+    }
+    writeByte(TAG_DECIMAL);
+    writeSignedVarlong(negative ? -mantissa : mantissa);
+    writeByte((byte) scale);
+    return true;
+  }
+
+  private int beginContainer(byte tag) {
+    writeByte(tag);
+    int lengthOffset = size;
+    writeInt(0);
+    return lengthOffset;
+  }
+
+  /** Back-patches the body length of the container whose length field is at {@code lengthOffset}. */
+  private void endContainer(int lengthOffset) {
+    int length = size - lengthOffset - 4;
+    body[lengthOffset] = (byte) (length >>> 24);
+    body[lengthOffset + 1] = (byte) (length >>> 16);
+    body[lengthOffset + 2] = (byte) (length >>> 8);
+    body[lengthOffset + 3] = (byte) length;
+  }
+
+  private static int intern(String string, Map<String, Integer> indices, List<String> table) {
+    Integer index = indices.get(string);
+    if (index == null) {
+      index = table.size();
+      indices.put(string, index);
+      table.add(string);
+    }
+    return index;
+  }
+
+  private void writeTo(BufferedSink sink) throws IOException {
+    sink.writeInt(MAGIC);
+    sink.writeByte(VERSION);
+    writeTable(sink, names);
+    writeTable(sink, strings);
+    sink.write(body, 0, size);
+    sink.flush();
+  }
+
+  private static void writeTable(BufferedSink sink, List<String> table) throws IOException {
+    writeVarint(sink, table.size());
+    for (int i = 0; i < table.size(); i++) {
+      byte[] bytes = table.get(i).getBytes(UTF_8);
+      writeVarint(sink, bytes.length);
+      sink.write(bytes);
+    }
+  }
+
+  private static void writeVarint(BufferedSink sink, int value) throws IOException {
+    while ((value & ~0x7f) != 0) {
+      sink.writeByte((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    sink.writeByte(value);
+  }
+
+  private void writeVarint(int value) {
+    while ((value & ~0x7f) != 0) {
+      writeByte((byte) ((value & 0x7f) | 0x80));
+      value >>>= 7;
+    }
+    writeByte((byte) value);
+  }
+
+  private void writeSignedVarlong(long value) {
+    long zigzag = (value << 1) ^ (value >> 63);
+    while ((zigzag & ~0x7fL) != 0) {
+      writeByte((byte) ((zigzag & 0x7f) | 0x80));
+      zigzag >>>= 7;
+    }
+    writeByte((byte) zigzag);
+  }
+
+  private void writeInt(int value) {
+    writeByte((byte) (value >>> 24));
+    writeByte((byte) (value >>> 16));
+    writeByte((byte) (value >>> 8));
+    writeByte((byte) value);
+  }
+
+  private void writeByte(byte b) {
+    if (size == body.length) {
+      body = Arrays.copyOf(body, size * 2);
+    }
+    body[size++] = b;
+  }
+}
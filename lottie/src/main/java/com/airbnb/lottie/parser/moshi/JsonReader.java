@@ -15,8 +15,11 @@
  */
 package com.airbnb.lottie.parser.moshi;
 
+import androidx.annotation.Nullable;
+
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import okio.Buffer;
@@ -224,6 +227,14 @@ public abstract class JsonReader implements Closeable {
     return new JsonUtf8Reader(source);
   }
 
+  /**
+   * Returns a new instance that reads the binary encoding written by {@link JsonBinaryWriter} from
+   * the remaining bytes of {@code buffer}. The buffer may be memory mapped; it is never copied.
+   */
+  public static JsonReader ofBinary(ByteBuffer buffer) throws IOException {
+    return new JsonBinaryReader(buffer);
+  }
+
   // Package-private to control subclasses.
   JsonReader() {
     scopes = new int[32];
@@ -354,6 +365,15 @@ public abstract class JsonReader implements Closeable {
   public abstract void skipValue() throws IOException;
 
 
+  /**
+   * Skips the next array or object and returns a handle that can read it later, or returns null without
+   * consuming anything if the next value isn't an array or object or this reader can't defer values.
+   */
+  @Nullable
+  public Deferred deferValue() throws IOException {
+    return null;
+  }
+
   /**
    * Returns a <a href="http://goessner.net/articles/JsonPath/">JsonPath</a> to
    * the current location in the JSON value.
@@ -391,6 +411,18 @@ public abstract class JsonReader implements Closeable {
     }
   }
 
+  /**
+   * A value that was skipped with {@link #deferValue()}. It holds on to the bytes of the value until it is
+   * no longer referenced.
+   */
+  public interface Deferred {
+    /**
+     * Returns a new reader positioned at the start of the deferred value. This may be called more than
+     * once and from any thread.
+     */
+    JsonReader newReader() throws IOException;
+  }
+
   /**
    * Writes {@code value} as a string literal to {@code sink}. This wraps the value in double quotes
    * and escapes those characters that require it.
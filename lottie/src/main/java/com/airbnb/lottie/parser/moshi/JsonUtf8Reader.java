@@ -878,6 +878,55 @@ final class JsonUtf8Reader extends JsonReader {
     pathNames[stackSize - 1] = "null";
   }
 
+  @Override public Deferred deferValue() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    byte open;
+    if (p == PEEKED_BEGIN_ARRAY) {
+      open = '[';
+    } else if (p == PEEKED_BEGIN_OBJECT) {
+      open = '{';
+    } else {
+      return null;
+    }
+
+    // The opening bracket has already been consumed. Find the matching closing bracket, ignoring any
+    // inside of strings, and copy the raw bytes of the value so it can be parsed later.
+    long i = 0;
+    int depth = 1;
+    boolean inString = false;
+    while (depth > 0) {
+      if (!source.request(i + 1)) {
+        throw syntaxError("Unterminated " + (open == '[' ? "array" : "object"));
+      }
+      byte c = buffer.getByte(i++);
+      if (inString) {
+        if (c == '\\') {
+          i++;
+        } else if (c == '"') {
+          inString = false;
+        }
+      } else if (c == '"') {
+        inString = true;
+      } else if (c == '[' || c == '{') {
+        depth++;
+      } else if (c == ']' || c == '}') {
+        depth--;
+      }
+    }
+    Buffer value = new Buffer();
+    value.writeByte(open);
+    value.write(buffer, i);
+    final ByteString bytes = value.readByteString();
+
+    peeked = PEEKED_NONE;
+    pathIndices[stackSize - 1]++;
+    pathNames[stackSize - 1] = "null";
+    return () -> JsonReader.of(new Buffer().write(bytes));
+  }
+
   /**
    * Returns the next character in the stream that is neither whitespace nor a
    * part of a comment. When this returns, the returned character is always at
@@ -17,6 +17,11 @@ public class MeanCalculator {
     }
   }
 
+  public void clear() {
+    sum = 0;
+    n = 0;
+  }
+
   public float getMean() {
     if (n == 0) {
       return 0;
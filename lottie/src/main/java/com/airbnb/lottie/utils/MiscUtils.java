@@ -13,7 +13,15 @@ import com.airbnb.lottie.model.content.ShapeData;
 import java.util.List;
 
 public class MiscUtils {
-  private static final PointF pathFromDataCurrentPoint = new PointF();
+  /**
+   * Thread local because layers may be drawn on the threads of {@link com.airbnb.lottie.AsyncUpdates} too.
+   */
+  private static final ThreadLocal<PointF> threadLocalPathFromDataCurrentPoint = new ThreadLocal<PointF>() {
+    @Override
+    protected PointF initialValue() {
+      return new PointF();
+    }
+  };
 
   public static PointF addPoints(PointF p1, PointF p2) {
     return new PointF(p1.x + p2.x, p1.y + p2.y);
@@ -23,6 +31,7 @@ public class MiscUtils {
     outPath.reset();
     PointF initialPoint = shapeData.getInitialPoint();
     outPath.moveTo(initialPoint.x, initialPoint.y);
+    PointF pathFromDataCurrentPoint = threadLocalPathFromDataCurrentPoint.get();
     pathFromDataCurrentPoint.set(initialPoint.x, initialPoint.y);
     for (int i = 0; i < shapeData.getCurves().size(); i++) {
       CubicCurveData curveData = shapeData.getCurves().get(i);
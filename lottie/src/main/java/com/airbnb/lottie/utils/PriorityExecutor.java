@@ -0,0 +1,96 @@
+package com.airbnb.lottie.utils;
+
+import androidx.annotation.NonNull;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread pool with a fixed number of threads that runs queued work with the highest priority first and work of
+ * equal priority in the order it was submitted.
+ * <p>
+ * Work that implements {@link Prioritized} is queued with its priority. Everything else is queued with a priority
+ * of 0.
+ */
+public class PriorityExecutor extends ThreadPoolExecutor {
+
+  public interface Prioritized {
+    int getPriority();
+  }
+
+  private static final Comparator<Runnable> COMPARATOR = (r1, r2) -> {
+    QueuedRunnable q1 = (QueuedRunnable) r1;
+    QueuedRunnable q2 = (QueuedRunnable) r2;
+    if (q1.priority != q2.priority) {
+      return q1.priority > q2.priority ? -1 : 1;
+    }
+    return Long.compare(q1.sequence, q2.sequence);
+  };
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  public PriorityExecutor(int threads) {
+    // Idle threads exit after a while so that no threads are kept around when nothing is loading.
+    super(threads, threads, 30, TimeUnit.SECONDS, new PriorityBlockingQueue<>(11, COMPARATOR), new LottieThreadFactory());
+    allowCoreThreadTimeOut(true);
+  }
+
+  @Override public void execute(@NonNull Runnable command) {
+    int priority = command instanceof Prioritized ? ((Prioritized) command).getPriority() : 0;
+    super.execute(new QueuedRunnable(command, priority, sequence.getAndIncrement()));
+  }
+
+  /**
+   * Moves queued work to the position of its current {@link Prioritized#getPriority()}. Work of the same priority
+   * keeps its original order. Does nothing if the work has already started.
+   */
+  public void reprioritize(Runnable command) {
+    QueuedRunnable queued = removeQueued(command);
+    if (queued != null) {
+      int priority = command instanceof Prioritized ? ((Prioritized) command).getPriority() : 0;
+      getQueue().offer(new QueuedRunnable(command, priority, queued.sequence));
+      // Idle threads may have exited while the queue was briefly empty.
+      prestartCoreThread();
+    }
+  }
+
+  /**
+   * Removes queued work so that it never runs.
+   *
+   * @return whether the work was queued.
+   */
+  @Override public boolean remove(Runnable command) {
+    return removeQueued(command) != null;
+  }
+
+  private QueuedRunnable removeQueued(Runnable command) {
+    Iterator<Runnable> it = getQueue().iterator();
+    while (it.hasNext()) {
+      QueuedRunnable queued = (QueuedRunnable) it.next();
+      if (queued.command == command && getQueue().remove(queued)) {
+        return queued;
+      }
+    }
+    return null;
+  }
+
+  private static class QueuedRunnable implements Runnable {
+    final Runnable command;
+    final int priority;
+    final long sequence;
+
+    QueuedRunnable(Runnable command, int priority, long sequence) {
+      this.command = command;
+      this.priority = priority;
+      this.sequence = sequence;
+    }
+
+    @Override public void run() {
+      command.run();
+    }
+  }
+}
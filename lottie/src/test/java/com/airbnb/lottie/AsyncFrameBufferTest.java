@@ -0,0 +1,130 @@
+package com.airbnb.lottie;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+
+import com.airbnb.lottie.model.KeyPath;
+import com.airbnb.lottie.model.layer.CompositionLayer;
+import com.airbnb.lottie.parser.LayerParser;
+import com.airbnb.lottie.value.LottieFrameInfo;
+import com.airbnb.lottie.value.LottieValueCallback;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncFrameBufferTest extends BaseTest {
+
+  private LottieComposition composition;
+  private CompositionLayer compositionLayer;
+  private Canvas canvas;
+  private Rect bounds;
+
+  @Before
+  public void setup() {
+    composition = LottieCompositionFactory.fromJsonStringSync(Fixtures.SQUARES, "squares").getValue();
+    LottieDrawable drawable = new LottieDrawable();
+    drawable.setComposition(composition);
+    compositionLayer = new CompositionLayer(drawable, LayerParser.parse(composition), composition.getLayers(), composition);
+    canvas = new Canvas(Bitmap.createBitmap(60, 30, Bitmap.Config.ARGB_8888));
+    bounds = new Rect(0, 0, 60, 30);
+  }
+
+  @Test
+  public void testNothingIsDrawnBeforeAFrameIsRendered() {
+    AsyncFrameBuffer frameBuffer = new AsyncFrameBuffer();
+    // No size was requested yet.
+    assertFalse(frameBuffer.render(compositionLayer, composition, 0f, 0));
+    assertFalse(frameBuffer.draw(canvas, bounds, 255));
+    assertTrue(frameBuffer.render(compositionLayer, composition, 0f, 0));
+    assertTrue(frameBuffer.draw(canvas, bounds, 255));
+  }
+
+  @Test
+  public void testUpToDateFramesAreNotRenderedAgain() {
+    AsyncFrameBuffer frameBuffer = new AsyncFrameBuffer();
+    frameBuffer.draw(canvas, bounds, 255);
+    frameBuffer.render(compositionLayer, composition, 0.5f, 0);
+    assertTrue(frameBuffer.isUpToDate(0.5f, 0));
+    assertFalse(frameBuffer.isUpToDate(0.5f, 1));
+    assertFalse(frameBuffer.render(compositionLayer, composition, 0.5f, 0));
+    assertEquals(1, frameBuffer.getRenderCount());
+  }
+
+  @Test
+  public void testSwappedOutFrameIsNotRenderedIntoUntilTheNextDraw() {
+    AsyncFrameBuffer frameBuffer = new AsyncFrameBuffer();
+    frameBuffer.draw(canvas, bounds, 255);
+    assertTrue(frameBuffer.render(compositionLayer, composition, 0f, 0));
+    assertTrue(frameBuffer.render(compositionLayer, composition, 0.25f, 0));
+    // The first frame may still be drawn by the render thread.
+    assertFalse(frameBuffer.render(compositionLayer, composition, 0.5f, 0));
+
+    frameBuffer.draw(canvas, bounds, 255);
+    assertTrue(frameBuffer.render(compositionLayer, composition, 0.5f, 0));
+    assertEquals(3, frameBuffer.getRenderCount());
+  }
+
+  @Test
+  public void testDrawDoesNotWaitForABackgroundRender() throws InterruptedException {
+    LottieDrawable drawable = new LottieDrawable();
+    drawable.setComposition(composition);
+    drawable.setAsyncUpdates(AsyncUpdates.ENABLED);
+    drawable.setRenderMode(RenderMode.SOFTWARE);
+    drawable.setBounds(bounds);
+
+    AtomicBoolean blockRendering = new AtomicBoolean();
+    CountDownLatch rendering = new CountDownLatch(1);
+    CountDownLatch finishRendering = new CountDownLatch(1);
+    drawable.addValueCallback(new KeyPath("**"), LottieProperty.TRANSFORM_OPACITY, new LottieValueCallback<Integer>() {
+      @Override public Integer getValue(LottieFrameInfo<Integer> frameInfo) {
+        if (blockRendering.get()) {
+          rendering.countDown();
+          try {
+            // Bounded so that a draw that does wait fails the test rather than hanging it.
+            finishRendering.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        return 100;
+      }
+    });
+
+    // Nothing was rendered at this size yet so this draws directly and has the first frame rendered.
+    drawable.draw(canvas);
+    awaitAtLeastAsyncFrameRenderCount(drawable, 1);
+
+    blockRendering.set(true);
+    drawable.setProgress(0.5f);
+    drawable.draw(canvas);
+    assertTrue(rendering.await(5, TimeUnit.SECONDS));
+
+    // The background thread holds the layers while it renders. Neither drawing the previous frame nor changing what
+    // the layers draw waits for it.
+    drawable.draw(canvas);
+    drawable.addValueCallback(new KeyPath("**"), LottieProperty.COLOR, new LottieValueCallback<>(Color.RED));
+    assertEquals(1, drawable.getAsyncFrameRenderCount());
+
+    blockRendering.set(false);
+    finishRendering.countDown();
+    awaitAtLeastAsyncFrameRenderCount(drawable, 2);
+  }
+
+  private static void awaitAtLeastAsyncFrameRenderCount(LottieDrawable drawable, int renderCount)
+      throws InterruptedException {
+    for (int i = 0; i < 500 && drawable.getAsyncFrameRenderCount() < renderCount; i++) {
+      Thread.sleep(10);
+    }
+    assertTrue(drawable.getAsyncFrameRenderCount() >= renderCount);
+  }
+}
@@ -8,9 +8,13 @@ import org.junit.Test;
 import org.robolectric.RuntimeEnvironment;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNotNull;
@@ -20,6 +24,7 @@ import static okio.Okio.buffer;
 import static okio.Okio.source;
 import static org.junit.Assert.assertNotEquals;
 
+import okio.Buffer;
 import okio.Source;
 
 @SuppressWarnings("ReferenceEquality")
@@ -138,6 +143,122 @@ public class LottieCompositionFactoryTest extends BaseTest {
         assertNotSame(taskFoo1, taskFoo2);
     }
 
+    @Test
+    public void testLoadBinary() throws IOException {
+        LottieComposition json = LottieCompositionFactory.fromJsonStringSync(JSON, null).getValue();
+        Buffer binary = new Buffer();
+        LottieCompositionFactory.convertJsonToBinarySync(source(new ByteArrayInputStream(JSON.getBytes())), binary);
+
+        LottieResult<LottieComposition> result = LottieCompositionFactory.fromBinaryBytesSync(binary.readByteArray(), null);
+        assertNull(result.getException());
+        LottieComposition composition = result.getValue();
+        assertEquals(json.getBounds(), composition.getBounds());
+        assertEquals(json.getStartFrame(), composition.getStartFrame());
+        assertEquals(json.getEndFrame(), composition.getEndFrame());
+        assertEquals(json.getFrameRate(), composition.getFrameRate());
+        assertEquals(json.getLayers().size(), composition.getLayers().size());
+        assertEquals(json.getLayers().get(0).getName(), composition.getLayers().get(0).getName());
+    }
+
+    @Test
+    public void testLoadInvalidBinary() {
+        LottieResult<LottieComposition> result = LottieCompositionFactory.fromBinaryBytesSync(JSON.getBytes(), null);
+        assertNotNull(result.getException());
+        assertNull(result.getValue());
+    }
+
+    @Test
+    public void testLoadTruncatedBinary() throws IOException {
+        Buffer binary = new Buffer();
+        LottieCompositionFactory.convertJsonToBinarySync(source(new ByteArrayInputStream(JSON.getBytes())), binary);
+        byte[] bytes = binary.readByteArray();
+        assertNotNull(LottieCompositionFactory.fromBinaryBytesSync(bytes, null).getValue());
+        for (int length = 5; length < bytes.length; length++) {
+            LottieResult<LottieComposition> result =
+                LottieCompositionFactory.fromBinaryBytesSync(Arrays.copyOf(bytes, length), null);
+            assertNotNull(result.getException());
+            assertNull(result.getValue());
+        }
+    }
+
+    @Test
+    public void testLoadBinaryWithInvalidTableSize() {
+        byte[] bytes = {'L', 'O', 'T', 'B', 1, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07};
+        LottieResult<LottieComposition> result = LottieCompositionFactory.fromBinaryBytesSync(bytes, null);
+        assertNotNull(result.getException());
+        assertNull(result.getValue());
+    }
+
+    @Test
+    public void testLazyPrecompParsing() throws IOException {
+        String precompJson = "{\"v\":\"5.5.0\",\"fr\":60,\"ip\":0,\"op\":180,\"w\":300,\"h\":300,\"assets\":[" +
+            "{\"id\":\"comp_0\",\"layers\":[{\"ind\":1,\"ty\":3,\"nm\":\"Null [1]\",\"ks\":{},\"ip\":0,\"op\":180,\"st\":0}]}]," +
+            "\"layers\":[{\"ind\":1,\"ty\":0,\"nm\":\"Precomp\",\"refId\":\"comp_0\",\"ks\":{},\"w\":300,\"h\":300," +
+            "\"ip\":0,\"op\":180,\"st\":0}]}";
+        L.setLazyPrecompParsing(true);
+        try {
+            LottieComposition composition = LottieCompositionFactory.fromJsonStringSync(precompJson, null).getValue();
+            assertEquals(0, composition.getPrecompsIfParsed("comp_0").size());
+            assertEquals("Null [1]", composition.getPrecomps("comp_0").get(0).getName());
+            assertEquals(1, composition.getPrecompsIfParsed("comp_0").size());
+
+            Buffer binary = new Buffer();
+            LottieCompositionFactory.convertJsonToBinarySync(source(new ByteArrayInputStream(precompJson.getBytes())), binary);
+            composition = LottieCompositionFactory.fromBinaryBytesSync(binary.readByteArray(), null).getValue();
+            assertEquals("Null [1]", composition.getPrecomps("comp_0").get(0).getName());
+        } finally {
+            L.setLazyPrecompParsing(false);
+        }
+    }
+
+    @Test
+    public void testLoadZipFile() throws IOException {
+        String imageJson = JSON.replace("\"assets\":[]", "\"assets\":[{\"id\":\"image_0\",\"w\":10,\"h\":10,\"u\":\"images/\",\"p\":\"img_0.png\"}]");
+        File file = File.createTempFile("lottie", ".lottie");
+        try {
+            try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))) {
+                zip.putNextEntry(new ZipEntry("manifest.json"));
+                zip.write("{}".getBytes());
+                zip.putNextEntry(new ZipEntry("animations/animation.json"));
+                zip.write(imageJson.getBytes());
+                zip.putNextEntry(new ZipEntry("images/img_0.png"));
+                zip.write(new byte[]{0});
+                zip.closeEntry();
+            }
+
+            LottieResult<LottieComposition> result = LottieCompositionFactory.fromZipFileSync(null, file, null);
+            assertNull(result.getException());
+            LottieImageAsset asset = result.getValue().getImages().get("image_0");
+            // The image isn't read until it is drawn.
+            assertNull(asset.getBitmap());
+            assertNotNull(asset.getBitmapSource());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testLoadCachedZipFile() throws IOException {
+        String imageJson = JSON.replace("\"assets\":[]", "\"assets\":[{\"id\":\"image_0\",\"w\":10,\"h\":10,\"u\":\"images/\",\"p\":\"img_0.png\"}]");
+        File file = File.createTempFile("lottie", ".lottie");
+        try {
+            try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))) {
+                zip.putNextEntry(new ZipEntry("animations/animation.json"));
+                zip.write(imageJson.getBytes());
+                zip.putNextEntry(new ZipEntry("images/img_0.png"));
+                zip.write(new byte[]{0});
+                zip.closeEntry();
+            }
+
+            LottieResult<LottieComposition> result = LottieCompositionFactory.fromCachedZipFileSync(null, file, null, null);
+            assertNull(result.getException());
+            // The cache may delete the file while the composition is in use so nothing is read from it later.
+            assertNull(result.getValue().getImages().get("image_0").getBitmapSource());
+        } finally {
+            file.delete();
+        }
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testCannotSetCacheSizeToZero() {
         LottieCompositionFactory.setMaxCacheSize(0);
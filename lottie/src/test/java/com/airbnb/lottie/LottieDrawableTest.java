@@ -1,7 +1,10 @@
 package com.airbnb.lottie;
 
 import android.animation.Animator;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
 import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
 import androidx.collection.LongSparseArray;
 import androidx.collection.SparseArrayCompat;
 
@@ -9,11 +12,13 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.robolectric.annotation.GraphicsMode;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
@@ -22,6 +27,7 @@ import static org.mockito.Mockito.verify;
 public class LottieDrawableTest extends BaseTest {
 
   @Mock Animator.AnimatorListener animatorListener;
+  @Mock Drawable.Callback callback;
 
   @Before
   public void setup() {
@@ -30,8 +36,13 @@ public class LottieDrawableTest extends BaseTest {
 
   @SuppressWarnings("SameParameterValue")
   private LottieComposition createComposition(int startFrame, int endFrame) {
+    return createComposition(new Rect(), startFrame, endFrame);
+  }
+
+  @SuppressWarnings("SameParameterValue")
+  private LottieComposition createComposition(Rect bounds, int startFrame, int endFrame) {
     LottieComposition composition = new LottieComposition();
-    composition.init(new Rect(), startFrame, endFrame, 1000, new ArrayList<>(),
+    composition.init(bounds, startFrame, endFrame, 1000, new ArrayList<>(),
         new LongSparseArray<>(0), new HashMap<>(0),
         new HashMap<>(0), 1f, new SparseArrayCompat<>(0),
         new HashMap<>(0), new ArrayList<>(), 0, 0);
@@ -98,4 +109,177 @@ public class LottieDrawableTest extends BaseTest {
     assertEquals(391, drawable.getFrame());
     verify(animatorListener, atLeastOnce()).onAnimationEnd(any(Animator.class), eq(false));
   }
+
+  @Test
+  public void testPlaybackSource() {
+    LottieComposition composition = createComposition(31, 391);
+    LottieDrawable source = new LottieDrawable();
+    source.setComposition(composition);
+    LottieDrawable follower = new LottieDrawable();
+    follower.setCallback(callback);
+    follower.setPlaybackSource(source);
+    assertEquals(composition, follower.getComposition());
+
+    source.setProgress(0.5f);
+    assertEquals(0.5f, follower.getProgress());
+    follower.setProgress(0.25f);
+    assertEquals(0.5f, follower.getProgress());
+
+    follower.draw(new Canvas());
+    source.invalidateSelf();
+    verify(callback).invalidateDrawable(follower);
+
+    follower.setPlaybackSource(null);
+    assertEquals(0.25f, follower.getProgress());
+  }
+
+  /**
+   * A 4x4 square with a miter-joined stroke that is 3 wide, in a layer that is scaled 4x and moves from x 30 to x 70.
+   */
+  private static final String MOVING_STROKE_JSON = "{\"v\":\"5.7.4\",\"fr\":60,\"ip\":0,\"op\":60,\"w\":100,\"h\":100," +
+      "\"layers\":[{\"ty\":4,\"ind\":1,\"ip\":0,\"op\":60,\"st\":0,\"ks\":{\"o\":{\"a\":0,\"k\":100},\"r\":{\"a\":0,\"k\":0}," +
+      "\"p\":{\"a\":1,\"k\":[{\"t\":0,\"s\":[30,50,0],\"i\":{\"x\":1,\"y\":1},\"o\":{\"x\":0,\"y\":0}},{\"t\":60,\"s\":[70,50,0]}]}," +
+      "\"a\":{\"a\":0,\"k\":[0,0,0]},\"s\":{\"a\":0,\"k\":[400,400,100]}},\"shapes\":[{\"ty\":\"gr\",\"it\":[" +
+      "{\"ty\":\"rc\",\"d\":1,\"s\":{\"a\":0,\"k\":[4,4]},\"p\":{\"a\":0,\"k\":[0,0]},\"r\":{\"a\":0,\"k\":0}}," +
+      "{\"ty\":\"st\",\"c\":{\"a\":0,\"k\":[1,0,0,1]},\"o\":{\"a\":0,\"k\":100},\"w\":{\"a\":0,\"k\":3},\"lc\":1,\"lj\":1,\"ml\":4}," +
+      "{\"ty\":\"tr\",\"p\":{\"a\":0,\"k\":[0,0]},\"a\":{\"a\":0,\"k\":[0,0]},\"s\":{\"a\":0,\"k\":[100,100]}," +
+      "\"r\":{\"a\":0,\"k\":0},\"o\":{\"a\":0,\"k\":100}}]}]}]}";
+
+  @Test
+  @GraphicsMode(GraphicsMode.Mode.NATIVE)
+  public void testSoftwareRenderingLeavesNoTrailsOfScaledStrokes() {
+    LottieComposition composition = LottieCompositionFactory.fromJsonStringSync(MOVING_STROKE_JSON, null).getValue();
+    LottieDrawable drawable = new LottieDrawable();
+    drawable.setComposition(composition);
+    drawable.setRenderMode(RenderMode.SOFTWARE);
+    drawable.setBounds(0, 0, 100, 100);
+    Bitmap bitmap = Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888);
+    Canvas canvas = new Canvas(bitmap);
+    drawable.draw(canvas);
+    // Only the area that the layer moved out of and into is rendered again.
+    drawable.setProgress(1f);
+    bitmap.eraseColor(0);
+    drawable.draw(canvas);
+
+    LottieDrawable expectedDrawable = new LottieDrawable();
+    expectedDrawable.setComposition(composition);
+    expectedDrawable.setRenderMode(RenderMode.SOFTWARE);
+    expectedDrawable.setBounds(0, 0, 100, 100);
+    expectedDrawable.setProgress(1f);
+    Bitmap expected = Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888);
+    expectedDrawable.draw(new Canvas(expected));
+    assertTrue(bitmap.sameAs(expected));
+  }
+
+  @Test
+  @GraphicsMode(GraphicsMode.Mode.NATIVE)
+  public void testSoftwareRenderingReportsTheAreaThatChanged() {
+    LottieComposition composition = LottieCompositionFactory.fromJsonStringSync(MOVING_STROKE_JSON, null).getValue();
+    LottieDrawable drawable = new LottieDrawable();
+    drawable.setComposition(composition);
+    drawable.setRenderMode(RenderMode.SOFTWARE);
+    drawable.setBounds(0, 0, 100, 100);
+    Canvas canvas = new Canvas(Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888));
+    drawable.draw(canvas);
+    assertEquals(drawable.getBounds(), drawable.getDirtyBounds());
+
+    // The layer moves from x=30 to x=70 along y=50.
+    drawable.setProgress(1f);
+    Rect dirtyBounds = drawable.getDirtyBounds();
+    assertTrue(dirtyBounds.contains(new Rect(25, 45, 75, 55)));
+    assertTrue(dirtyBounds.height() < 50);
+
+    drawable.draw(canvas);
+    drawable.invalidateSelf();
+    assertEquals(drawable.getBounds(), drawable.getDirtyBounds());
+  }
+
+  @Test
+  public void testFollowersFollowTheNewSourceOfTheirSource() {
+    LottieComposition composition = createComposition(31, 391);
+    LottieDrawable source = new LottieDrawable();
+    source.setComposition(composition);
+    LottieDrawable middle = new LottieDrawable();
+    middle.setComposition(createComposition(0, 100));
+    LottieDrawable follower = new LottieDrawable();
+    follower.setPlaybackSource(middle);
+
+    middle.setPlaybackSource(source);
+    assertEquals(source, follower.getPlaybackSource());
+    assertEquals(composition, follower.getComposition());
+    source.setProgress(0.5f);
+    assertEquals(0.5f, follower.getProgress());
+  }
+
+  @Test
+  public void testFrameSharing() {
+    LottieComposition composition = createComposition(new Rect(0, 0, 100, 100), 31, 391);
+    LottieDrawable source = new LottieDrawable();
+    source.setComposition(composition);
+    source.setFrameSharingEnabled(true);
+    LottieDrawable follower1 = new LottieDrawable();
+    follower1.setPlaybackSource(source);
+    follower1.setBounds(0, 0, 50, 50);
+    LottieDrawable follower2 = new LottieDrawable();
+    follower2.setPlaybackSource(source);
+    follower2.setBounds(0, 0, 50, 50);
+    Canvas canvas = new Canvas(Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888));
+
+    follower1.draw(canvas);
+    follower2.draw(canvas);
+    assertEquals(1, source.getSharedFrameRenderCount());
+
+    source.setProgress(0.5f);
+    follower1.draw(canvas);
+    follower2.draw(canvas);
+    assertEquals(2, source.getSharedFrameRenderCount());
+
+    // Each size has its own frame.
+    follower2.setBounds(0, 0, 100, 100);
+    follower1.draw(canvas);
+    follower2.draw(canvas);
+    assertEquals(3, source.getSharedFrameRenderCount());
+  }
+
+  @Test
+  public void testFrameCaching() {
+    LottieComposition composition = createComposition(new Rect(0, 0, 100, 100), 31, 391);
+    LottieDrawable drawable = new LottieDrawable();
+    drawable.setComposition(composition);
+    drawable.setFrameCachingEnabled(true);
+    drawable.setBounds(0, 0, 50, 50);
+    Canvas canvas = new Canvas(Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888));
+
+    drawable.draw(canvas);
+    drawable.setFrame(100);
+    drawable.draw(canvas);
+    drawable.setFrame(31);
+    drawable.draw(canvas);
+    assertEquals(2, drawable.getCachedFrameRenderCount());
+
+    // Each 50x50 frame uses 10,000 bytes so only one of them fits.
+    drawable.setFrameCacheMaxBytes(15_000);
+    drawable.draw(canvas);
+    drawable.setFrame(100);
+    drawable.draw(canvas);
+    drawable.draw(canvas);
+    assertEquals(3, drawable.getCachedFrameRenderCount());
+  }
+
+  @Test
+  public void testLayerInvalidationsAreCoalesced() {
+    LottieComposition composition = LottieCompositionFactory.fromJsonStringSync(Fixtures.SQUARES, "squares").getValue();
+    LottieDrawable drawable = new LottieDrawable();
+    drawable.setAsyncUpdates(AsyncUpdates.DISABLED);
+    drawable.setComposition(composition);
+    drawable.setPerformanceTrackingEnabled(true);
+    PerformanceTracker performanceTracker = composition.getPerformanceTracker();
+    performanceTracker.clearRenderTimes();
+
+    drawable.setProgress(0.5f);
+    // Each animation that changed invalidated the drawable but only one of them reached its callback.
+    int coalescedCount = performanceTracker.getCoalescedInvalidationCount();
+    assertTrue(coalescedCount > 1);
+    assertEquals(coalescedCount + 1, performanceTracker.getInvalidationCount());
+  }
 }
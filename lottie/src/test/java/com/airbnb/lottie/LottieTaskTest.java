@@ -1,15 +1,32 @@
 package com.airbnb.lottie;
 
+import com.airbnb.lottie.utils.PriorityExecutor;
+
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -24,6 +41,31 @@ public class LottieTaskTest extends BaseTest {
   @Rule
   public MockitoRule rule = MockitoJUnit.rule();
 
+  private Executor originalExecutor;
+  /**
+   * Keeps the single thread of the executor busy so that tasks stay queued until it is released.
+   */
+  private final CountDownLatch blockingLatch = new CountDownLatch(1);
+
+  @Before
+  public void setup() {
+    originalExecutor = LottieTask.EXECUTOR;
+    LottieTask.EXECUTOR = new PriorityExecutor(1);
+    LottieTask.EXECUTOR.execute(() -> {
+      try {
+        blockingLatch.await();
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+  }
+
+  @After
+  public void tearDown() {
+    blockingLatch.countDown();
+    LottieTask.EXECUTOR = originalExecutor;
+  }
+
   @Test
   public void testListener() {
     new LottieTask<>(() -> new LottieResult<>(5), true)
@@ -87,4 +129,128 @@ public class LottieTaskTest extends BaseTest {
     verify(successListener, times(1)).onResult(5);
     verifyNoInteractions(failureListener);
   }
+
+  @Test
+  public void testRemovingListenersKeepsTaskRunning() throws InterruptedException {
+    List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+    LottieTask<Integer> task = new LottieTask<>(() -> {
+      ran.add(1);
+      return new LottieResult<>(1);
+    });
+    task.addListener(successListener);
+    task.addFailureListener(failureListener);
+    task.removeListener(successListener);
+    task.removeFailureListener(failureListener);
+    assertFalse(task.isCancelled());
+
+    runQueuedTasks();
+    assertEquals(Collections.singletonList(1), ran);
+  }
+
+  @Test
+  public void testCancelIfUnused() {
+    LottieTask<Integer> task = new LottieTask<>(() -> new LottieResult<>(1));
+    task.addListener(successListener);
+    assertFalse(task.cancelIfUnused());
+    task.removeListener(successListener);
+    assertTrue(task.cancelIfUnused());
+    assertTrue(task.isCancelled());
+  }
+
+  @Test
+  public void testCancelIfUnusedKeepsSharedTaskRunning() {
+    LottieTask<Integer> task = new LottieTask<>(() -> new LottieResult<>(1));
+    task.addHolder();
+    assertFalse(task.cancelIfUnused());
+    assertFalse(task.isCancelled());
+  }
+
+  @Test
+  public void testSettingTheSameInFlightAnimationAgain() throws InterruptedException {
+    LottieAnimationView view = new LottieAnimationView(RuntimeEnvironment.application);
+    // Like a view that is bound again while its animation is still loading.
+    view.setAnimationFromJson(Fixtures.SQUARES, "lottieTaskTest_squares");
+    view.setAnimationFromJson(Fixtures.SQUARES, "lottieTaskTest_squares");
+
+    runQueuedTasks();
+    ShadowLooper.idleMainLooper();
+    assertNotNull(view.getComposition());
+  }
+
+  @Test
+  public void testCancel() throws InterruptedException {
+    List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+    LottieTask<Integer> task = new LottieTask<Integer>(() -> {
+      ran.add(1);
+      return new LottieResult<>(1);
+    })
+        .addListener(successListener)
+        .addFailureListener(failureListener);
+    assertTrue(task.cancel());
+    assertTrue(task.isCancelled());
+
+    runQueuedTasks();
+    assertTrue(ran.isEmpty());
+    verifyNoInteractions(successListener);
+    verifyNoInteractions(failureListener);
+  }
+
+  @Test
+  public void testCancelAfterResult() {
+    LottieTask<Integer> task = new LottieTask<>(() -> new LottieResult<>(5), true);
+    assertFalse(task.cancel());
+    assertFalse(task.isCancelled());
+    task.addListener(successListener);
+    verify(successListener, times(1)).onResult(5);
+  }
+
+  @Test
+  public void testPriority() throws InterruptedException {
+    List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+    LottieTask<Integer> low = new LottieTask<>(() -> {
+      ran.add(1);
+      return new LottieResult<>(1);
+    }).setPriority(LottieTaskPriority.LOW);
+    new LottieTask<>(() -> {
+      ran.add(2);
+      return new LottieResult<>(2);
+    });
+    new LottieTask<>(() -> {
+      ran.add(3);
+      return new LottieResult<>(3);
+    }).setPriority(LottieTaskPriority.HIGH);
+    new LottieTask<>(() -> {
+      ran.add(4);
+      return new LottieResult<>(4);
+    });
+    low.setPriority(LottieTaskPriority.HIGH);
+
+    runQueuedTasks();
+    // Tasks of the same priority run in the order they were created.
+    assertEquals(Arrays.asList(1, 3, 2, 4), ran);
+  }
+
+  private void runQueuedTasks() throws InterruptedException {
+    blockingLatch.countDown();
+    CountDownLatch doneLatch = new CountDownLatch(1);
+    // The executor is single threaded and this has the lowest priority so it runs last.
+    LottieTask.EXECUTOR.execute(new LowPriorityRunnable(doneLatch::countDown));
+    assertTrue(doneLatch.await(5, TimeUnit.SECONDS));
+  }
+
+  private static class LowPriorityRunnable implements Runnable, PriorityExecutor.Prioritized {
+    private final Runnable runnable;
+
+    LowPriorityRunnable(Runnable runnable) {
+      this.runnable = runnable;
+    }
+
+    @Override public int getPriority() {
+      return Integer.MIN_VALUE;
+    }
+
+    @Override public void run() {
+      runnable.run();
+    }
+  }
 }
@@ -72,4 +72,55 @@ public class PerformanceTrackerTest {
     assertThat(sortedRenderTimes.get(1).first, equalTo("World"));
     assertThat(sortedRenderTimes.get(1).second, equalTo(6f));
   }
+
+  @Test
+  public void testLayerCounts() {
+    performanceTracker.recordLayerDrawn(true);
+    performanceTracker.recordLayerDrawn(false);
+    performanceTracker.recordLayerDrawn(true);
+    assertThat(performanceTracker.getDrawnLayerCount(), equalTo(2));
+    assertThat(performanceTracker.getCulledLayerCount(), equalTo(1));
+
+    performanceTracker.clearRenderTimes();
+    assertThat(performanceTracker.getDrawnLayerCount(), equalTo(0));
+    assertThat(performanceTracker.getCulledLayerCount(), equalTo(0));
+  }
+
+  @Test
+  public void testAsyncUpdateQueueLatency() {
+    performanceTracker.recordAsyncUpdateQueueLatency(2f);
+    performanceTracker.recordAsyncUpdateQueueLatency(6f);
+    performanceTracker.recordSupersededAsyncUpdate();
+    assertThat(performanceTracker.getMeanAsyncUpdateQueueLatency(), equalTo(4f));
+    assertThat(performanceTracker.getMaxAsyncUpdateQueueLatency(), equalTo(6f));
+    assertThat(performanceTracker.getSupersededAsyncUpdateCount(), equalTo(1));
+
+    performanceTracker.clearRenderTimes();
+    assertThat(performanceTracker.getMeanAsyncUpdateQueueLatency(), equalTo(0f));
+    assertThat(performanceTracker.getMaxAsyncUpdateQueueLatency(), equalTo(0f));
+    assertThat(performanceTracker.getSupersededAsyncUpdateCount(), equalTo(0));
+  }
+
+  @Test
+  public void testConcurrentRecords() throws InterruptedException {
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      String layerName = "Layer " + (i % 2);
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < 1000; j++) {
+          performanceTracker.recordRenderTime(layerName, 1f);
+          performanceTracker.recordInvalidation(j % 2 == 0);
+          performanceTracker.recordAsyncUpdateQueueLatency(1f);
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertThat(performanceTracker.getSortedRenderTimes().size(), equalTo(2));
+    assertThat(performanceTracker.getInvalidationCount(), equalTo(4000));
+    assertThat(performanceTracker.getCoalescedInvalidationCount(), equalTo(2000));
+    assertThat(performanceTracker.getMeanAsyncUpdateQueueLatency(), equalTo(1f));
+  }
 }
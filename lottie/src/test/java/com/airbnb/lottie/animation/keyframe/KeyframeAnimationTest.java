@@ -0,0 +1,160 @@
+package com.airbnb.lottie.animation.keyframe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.PointF;
+import android.graphics.Rect;
+import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
+
+import androidx.collection.LongSparseArray;
+import androidx.collection.SparseArrayCompat;
+
+import com.airbnb.lottie.BaseTest;
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.value.Keyframe;
+import com.airbnb.lottie.value.LottieValueCallback;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+public class KeyframeAnimationTest extends BaseTest {
+  private static final int KEYFRAME_COUNT = 5000;
+
+  @Test
+  public void testForwardPlayback() {
+    FloatKeyframeAnimation animation = new FloatKeyframeAnimation(holdKeyframes(KEYFRAME_COUNT));
+    for (int i = 0; i < KEYFRAME_COUNT; i++) {
+      assertValueAtFrame(animation, i);
+    }
+  }
+
+  @Test
+  public void testReversePlayback() {
+    FloatKeyframeAnimation animation = new FloatKeyframeAnimation(holdKeyframes(KEYFRAME_COUNT));
+    for (int i = KEYFRAME_COUNT - 1; i >= 0; i--) {
+      assertValueAtFrame(animation, i);
+    }
+  }
+
+  @Test
+  public void testScrubbing() {
+    FloatKeyframeAnimation animation = new FloatKeyframeAnimation(holdKeyframes(KEYFRAME_COUNT));
+    Random random = new Random(0);
+    for (int i = 0; i < 10_000; i++) {
+      assertValueAtFrame(animation, random.nextInt(KEYFRAME_COUNT));
+    }
+  }
+
+  @Test
+  public void testScrubbingMatchesLinearScan() {
+    List<Keyframe<Float>> keyframes = holdKeyframes(KEYFRAME_COUNT);
+    FloatKeyframeAnimation animation = new FloatKeyframeAnimation(keyframes);
+    Random random = new Random(0);
+    for (int i = 0; i < 1_000; i++) {
+      float progress = (random.nextInt(KEYFRAME_COUNT) + 0.5f) / KEYFRAME_COUNT;
+      animation.setProgress(progress);
+      assertEquals(linearScan(keyframes, progress).startValue, animation.getValue(), 0f);
+    }
+  }
+
+  @Test
+  public void testGapBetweenKeyframes() {
+    LottieComposition composition = createComposition(30);
+    List<Keyframe<Float>> keyframes = new ArrayList<>();
+    keyframes.add(new Keyframe<>(composition, 0f, 0f, null, 0f, 10f));
+    keyframes.add(new Keyframe<>(composition, 1f, 1f, null, 10f, 15f));
+    keyframes.add(new Keyframe<>(composition, 2f, 2f, null, 20f, null));
+    FloatKeyframeAnimation animation = new FloatKeyframeAnimation(keyframes);
+
+    animation.setProgress(17f / 30f);
+    // No keyframe contains frame 17 so the lookup falls back to the first keyframe.
+    assertEquals(0f, animation.getValue(), 0f);
+    animation.setProgress(12f / 30f);
+    assertEquals(1f, animation.getValue(), 0f);
+    animation.setProgress(25f / 30f);
+    assertEquals(2f, animation.getValue(), 0f);
+  }
+
+  @Test
+  public void testPrimitiveKeyframesMatchKeyframes() {
+    LottieComposition composition = createComposition(30);
+    Interpolator interpolator = new LinearInterpolator();
+    List<Keyframe<Float>> floatKeyframes = new ArrayList<>();
+    List<Keyframe<PointF>> pointKeyframes = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      floatKeyframes.add(new Keyframe<>(composition, i * 10f, i * 10f + 5f, interpolator, i * 10f, i * 10f + 10f));
+      pointKeyframes.add(new Keyframe<>(composition, new PointF(i, -i), new PointF(i + 1, -i - 1), interpolator, i * 10f, i * 10f + 10f));
+    }
+    FloatKeyframeAnimation floats = new FloatKeyframeAnimation(floatKeyframes);
+    FloatKeyframeAnimation primitiveFloats = new FloatKeyframeAnimation(floatKeyframes, PrimitiveKeyframes.ofFloats(floatKeyframes));
+    PointKeyframeAnimation points = new PointKeyframeAnimation(pointKeyframes);
+    PointKeyframeAnimation primitivePoints = new PointKeyframeAnimation(pointKeyframes, PrimitiveKeyframes.ofPoints(pointKeyframes));
+    for (int frame = 0; frame <= 30; frame++) {
+      float progress = frame / 30f;
+      floats.setProgress(progress);
+      primitiveFloats.setProgress(progress);
+      points.setProgress(progress);
+      primitivePoints.setProgress(progress);
+      assertEquals(floats.getFloatValue(), primitiveFloats.getFloatValue(), 0f);
+      assertEquals(points.getValue().x, primitivePoints.getValue().x, 0f);
+      assertEquals(points.getValue().y, primitivePoints.getValue().y, 0f);
+    }
+  }
+
+  @Test
+  public void testIsStatic() {
+    FloatKeyframeAnimation animation = new FloatKeyframeAnimation(Collections.singletonList(new Keyframe<>(1f)));
+    assertTrue(animation.isStatic());
+    animation.setValueCallback(new LottieValueCallback<>(2f));
+    assertFalse(animation.isStatic());
+    animation.setValueCallback(null);
+    assertTrue(animation.isStatic());
+
+    assertFalse(new FloatKeyframeAnimation(holdKeyframes(2)).isStatic());
+  }
+
+  /**
+   * The lookup that keyframe animations used before they binary searched.
+   */
+  private static Keyframe<Float> linearScan(List<Keyframe<Float>> keyframes, float progress) {
+    for (int i = keyframes.size() - 1; i >= 1; i--) {
+      Keyframe<Float> keyframe = keyframes.get(i);
+      if (keyframe.containsProgress(progress)) {
+        return keyframe;
+      }
+    }
+    return keyframes.get(0);
+  }
+
+  private static void assertValueAtFrame(FloatKeyframeAnimation animation, int frame) {
+    animation.setProgress((frame + 0.5f) / KEYFRAME_COUNT);
+    assertEquals(frame, animation.getValue(), 0f);
+  }
+
+  private static List<Keyframe<Float>> holdKeyframes(int count) {
+    LottieComposition composition = createComposition(count);
+    List<Keyframe<Float>> keyframes = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Float endFrame = i == count - 1 ? null : (float) (i + 1);
+      keyframes.add(new Keyframe<>(composition, (float) i, (float) i, null, i, endFrame));
+    }
+    return keyframes;
+  }
+
+  private static LottieComposition createComposition(int endFrame) {
+    LottieComposition composition = new LottieComposition();
+    composition.init(new Rect(), 0, endFrame, 60, new ArrayList<>(),
+        new LongSparseArray<>(0), new HashMap<>(0),
+        new HashMap<>(0), 1f, new SparseArrayCompat<>(0),
+        new HashMap<>(0), new ArrayList<>(), 0, 0);
+    return composition;
+  }
+}
@@ -0,0 +1,97 @@
+package com.airbnb.lottie.manager;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+
+import com.airbnb.lottie.BaseTest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class BitmapPoolTest extends BaseTest {
+
+  private static final long BITMAP_BYTES = 10 * 10 * 4;
+
+  private BitmapPool pool;
+
+  @Before
+  public void setup() {
+    // Room for four cached bitmaps and, in the reuse pool, one more.
+    pool = new BitmapPool(BITMAP_BYTES * 4);
+  }
+
+  @Test
+  public void testEmpty() {
+    assertNull(pool.acquire(key("foo")));
+  }
+
+  @Test
+  public void testAcquireAfterPut() {
+    Bitmap bitmap = createBitmap();
+    assertSame(bitmap, pool.put(key("foo"), bitmap));
+    assertSame(bitmap, pool.acquire(key("foo")));
+    assertNull(pool.acquire(new BitmapPool.Key("foo", 20, 20)));
+  }
+
+  @Test
+  public void testPutExistingKeyReturnsCachedBitmap() {
+    Bitmap bitmap = createBitmap();
+    pool.put(key("foo"), bitmap);
+    assertSame(bitmap, pool.put(key("foo"), createBitmap()));
+    assertEquals(BITMAP_BYTES, pool.getBytes());
+    assertEquals(BITMAP_BYTES, pool.getReusableBytes());
+  }
+
+  @Test
+  public void testReferencedBitmapsAreNotEvicted() {
+    for (int i = 0; i < 5; i++) {
+      pool.put(key("foo" + i), createBitmap());
+    }
+    assertEquals(BITMAP_BYTES * 5, pool.getBytes());
+
+    pool.release(key("foo0"));
+    assertEquals(BITMAP_BYTES * 4, pool.getBytes());
+    assertEquals(BITMAP_BYTES, pool.getReusableBytes());
+    assertNull(pool.acquire(key("foo0")));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedIsEvicted() {
+    for (int i = 0; i < 4; i++) {
+      pool.put(key("foo" + i), createBitmap());
+      pool.release(key("foo" + i));
+    }
+    // Use the first bitmap again so that the second one is the least recently used.
+    assertEquals(10, pool.acquire(key("foo0")).getWidth());
+    pool.release(key("foo0"));
+
+    pool.put(key("bar"), createBitmap());
+    assertEquals(BITMAP_BYTES * 4, pool.getBytes());
+    assertNull(pool.acquire(key("foo1")));
+    assertEquals(10, pool.acquire(key("foo0")).getWidth());
+  }
+
+  @Test
+  public void testTrimMemory() {
+    pool.put(key("foo"), createBitmap());
+    pool.put(key("bar"), createBitmap());
+    pool.release(key("foo"));
+
+    pool.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+    assertEquals(BITMAP_BYTES, pool.getBytes());
+    assertEquals(0, pool.getReusableBytes());
+    assertNull(pool.acquire(key("foo")));
+  }
+
+  private static BitmapPool.Key key(String path) {
+    return new BitmapPool.Key(path, 10, 10);
+  }
+
+  private static Bitmap createBitmap() {
+    return Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+  }
+}
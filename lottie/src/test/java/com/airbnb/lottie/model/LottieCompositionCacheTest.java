@@ -2,13 +2,16 @@ package com.airbnb.lottie.model;
 
 import com.airbnb.lottie.BaseTest;
 import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.LottieCompositionCacheStats;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class LottieCompositionCacheTest extends BaseTest  {
 
@@ -37,4 +40,59 @@ public class LottieCompositionCacheTest extends BaseTest  {
     cache.put("foo", composition);
     assertEquals(composition, cache.get("foo"));
   }
+
+  @Test
+  public void testStats() {
+    cache.get("foo");
+    cache.put("foo", composition);
+    cache.get("foo");
+    cache.get("foo");
+    cache.get(null);
+
+    LottieCompositionCacheStats stats = cache.getStats();
+    assertEquals(2, stats.getHitCount());
+    assertEquals(1, stats.getMissCount());
+    assertEquals(1, stats.getPutCount());
+    assertEquals(0, stats.getEvictionCount());
+    assertEquals(1, stats.getEntryCount());
+    assertEquals(1, stats.getSize());
+    assertFalse(stats.isSizeInBytes());
+  }
+
+  @Test
+  public void testByteBudget() {
+    LottieComposition small = Mockito.mock(LottieComposition.class);
+    LottieComposition large = Mockito.mock(LottieComposition.class);
+    cache = new LottieCompositionCache(c -> c == large ? 800 : 100);
+    cache.resizeBytes(900);
+
+    cache.put("foo", composition);
+    cache.put("bar", small);
+    assertEquals(200, cache.getStats().getSize());
+
+    cache.put("baz", large);
+    // The least recently used composition is evicted to make room.
+    assertNull(cache.get("foo"));
+    assertEquals(small, cache.get("bar"));
+    assertEquals(large, cache.get("baz"));
+
+    LottieCompositionCacheStats stats = cache.getStats();
+    assertTrue(stats.isSizeInBytes());
+    assertEquals(900, stats.getSize());
+    assertEquals(900, stats.getMaxSize());
+    assertEquals(1, stats.getEvictionCount());
+  }
+
+  @Test
+  public void testSwitchingToByteBudgetKeepsEntries() {
+    cache = new LottieCompositionCache(c -> 100);
+    cache.put("foo", composition);
+    cache.resizeBytes(1000);
+    assertEquals(composition, cache.get("foo"));
+    assertEquals(100, cache.getStats().getSize());
+
+    cache.resize(5);
+    assertEquals(composition, cache.get("foo"));
+    assertEquals(1, cache.getStats().getSize());
+  }
 }
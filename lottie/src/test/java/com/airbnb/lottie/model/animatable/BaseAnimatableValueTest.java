@@ -0,0 +1,29 @@
+package com.airbnb.lottie.model.animatable;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.airbnb.lottie.value.Keyframe;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class BaseAnimatableValueTest {
+  @Test
+  public void testPrimitiveKeyframesAreShared() {
+    AnimatableColorValue value = new AnimatableColorValue(Arrays.asList(
+        new Keyframe<>(null, 0, 1, null, 0f, 10f),
+        new Keyframe<>(null, 1, 2, null, 10f, 20f)));
+    assertNotNull(value.getPrimitiveKeyframes());
+    assertSame(value.getPrimitiveKeyframes(), value.getPrimitiveKeyframes());
+  }
+
+  @Test
+  public void testNoPrimitiveKeyframesForASingleKeyframe() {
+    AnimatableFloatValue value = new AnimatableFloatValue(Collections.singletonList(new Keyframe<>(1f)));
+    assertNull(value.getPrimitiveKeyframes());
+  }
+}
@@ -0,0 +1,109 @@
+package com.airbnb.lottie.network;
+
+import com.airbnb.lottie.BaseTest;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class NetworkCacheTest extends BaseTest {
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File cacheDir;
+
+  @Before
+  public void setup() {
+    cacheDir = temporaryFolder.getRoot();
+  }
+
+  @Test
+  public void testLeastRecentlyUsedIsEvicted() throws IOException {
+    NetworkCache cache = new NetworkCache(() -> cacheDir, 25, 0);
+    put(cache, "https://foo.com/1.json", null);
+    put(cache, "https://foo.com/2.json", null);
+    // Use the first animation again so that the second one is the least recently used.
+    assertNotNull(cache.fetch("https://foo.com/1.json"));
+
+    put(cache, "https://foo.com/3.json", null);
+    assertEquals(20, cache.getSize());
+    assertNotNull(cache.fetch("https://foo.com/1.json"));
+    assertNull(cache.fetch("https://foo.com/2.json"));
+    assertNotNull(cache.fetch("https://foo.com/3.json"));
+  }
+
+  @Test
+  public void testJournalIsRestored() throws IOException {
+    NetworkCache cache = new NetworkCache(() -> cacheDir, 25, 0);
+    put(cache, "https://foo.com/1.json", "\"v1\"");
+    put(cache, "https://foo.com/2.json", null);
+    assertNotNull(cache.fetch("https://foo.com/1.json"));
+
+    NetworkCache restoredCache = new NetworkCache(() -> cacheDir, 25, 0);
+    assertEquals(20, restoredCache.getSize());
+    put(restoredCache, "https://foo.com/3.json", null);
+    assertNull(restoredCache.fetch("https://foo.com/2.json"));
+
+    NetworkCache.Entry entry = restoredCache.getEntryToRevalidate("https://foo.com/1.json");
+    assertNotNull(entry);
+    assertEquals("\"v1\"", entry.eTag);
+    // There is nothing to revalidate an animation with if it wasn't served with validators.
+    assertNull(restoredCache.getEntryToRevalidate("https://foo.com/3.json"));
+  }
+
+  @Test
+  public void testRecentlyValidatedEntryIsNotRevalidated() throws IOException {
+    NetworkCache cache = new NetworkCache(() -> cacheDir, 25, 60_000);
+    put(cache, "https://foo.com/1.json", "\"v1\"");
+    assertNull(cache.getEntryToRevalidate("https://foo.com/1.json"));
+  }
+
+  @Test
+  public void testFilesWithoutJournalAreKept() throws IOException {
+    NetworkCache cache = new NetworkCache(() -> cacheDir, 25, 0);
+    put(cache, "https://foo.com/1.json", null);
+    assertEquals(true, new File(cacheDir, "lottie_journal").delete());
+
+    NetworkCache restoredCache = new NetworkCache(() -> cacheDir, 25, 0);
+    assertEquals(10, restoredCache.getSize());
+    assertNotNull(restoredCache.fetch("https://foo.com/1.json"));
+  }
+
+  @Test
+  public void testFramesAreEvictedWithAnimations() throws IOException {
+    NetworkCache cache = new NetworkCache(() -> cacheDir, 25, 0);
+    put(cache, "https://foo.com/1.json", null);
+    try (FileOutputStream output = new FileOutputStream(cache.framesTempFile("1_100x100"))) {
+      output.write(new byte[10]);
+    }
+    cache.commitFramesFile("1_100x100");
+    assertNotNull(cache.getFramesFile("1_100x100"));
+    assertNull(cache.getFramesFile("1_200x200"));
+
+    // The frames were used more recently than the first animation so it is evicted first.
+    put(cache, "https://foo.com/2.json", null);
+    assertEquals(20, cache.getSize());
+    assertNull(cache.fetch("https://foo.com/1.json"));
+    assertNotNull(cache.getFramesFile("1_100x100"));
+
+    NetworkCache restoredCache = new NetworkCache(() -> cacheDir, 25, 0);
+    assertNotNull(restoredCache.getFramesFile("1_100x100"));
+  }
+
+  private static void put(NetworkCache cache, String url, String eTag) throws IOException {
+    try (FileOutputStream output = new FileOutputStream(cache.tempCacheFile(url, FileExtension.JSON))) {
+      output.write(new byte[10]);
+    }
+    cache.renameTempFile(url, FileExtension.JSON, eTag, null);
+  }
+}
@@ -0,0 +1,230 @@
+package com.airbnb.lottie.network;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.airbnb.lottie.BaseTest;
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.LottieResult;
+import com.airbnb.lottie.LottieTask;
+import com.airbnb.lottie.model.LottieCompositionCache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+import okio.Okio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class NetworkFetcherTest extends BaseTest {
+
+  private static final String ETAG = "\"v1\"";
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+  private Executor originalExecutor;
+  private AnimationServer server;
+
+  @Before
+  public void setup() throws IOException {
+    originalExecutor = LottieTask.EXECUTOR;
+    LottieTask.EXECUTOR = Runnable::run;
+    LottieCompositionCache.getInstance().clear();
+    InputStream stream = Objects.requireNonNull(getClass().getClassLoader()).getResourceAsStream("test1.json");
+    server = new AnimationServer(Okio.buffer(Okio.source(stream)).readByteArray());
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    LottieTask.EXECUTOR = originalExecutor;
+    server.close();
+  }
+
+  @Test
+  public void testCacheHitIsRevalidated() {
+    NetworkCache cache = new NetworkCache(() -> temporaryFolder.getRoot(), NetworkCache.DEFAULT_MAX_BYTES, 0);
+    NetworkFetcher fetcher = new NetworkFetcher(cache, new DefaultLottieNetworkFetcher());
+    String url = server.getUrl();
+
+    LottieResult<LottieComposition> result = fetcher.fetchSync(context, url, url);
+    assertNotNull(result.getValue());
+    result = fetcher.fetchSync(context, url, url);
+    assertNotNull(result.getValue());
+
+    // The first request downloaded the animation. The second one revalidated the cached copy with its ETag.
+    assertEquals(Arrays.asList(null, ETAG), server.getIfNoneMatchHeaders());
+    assertEquals(Arrays.asList(200, 304), server.getResponseCodes());
+  }
+
+  @Test
+  public void testCacheHitLoadsSnapshot() throws IOException {
+    NetworkCache cache = new NetworkCache(() -> temporaryFolder.getRoot());
+    NetworkFetcher fetcher = new NetworkFetcher(cache, new DefaultLottieNetworkFetcher());
+    String url = server.getUrl();
+
+    LottieComposition composition = fetcher.fetchSync(context, url, url).getValue();
+    assertNotNull(composition);
+    File snapshotFile = cache.getSnapshotFile(url);
+    assertNotNull(snapshotFile);
+
+    LottieCompositionCache.getInstance().clear();
+    LottieComposition snapshotComposition = fetcher.fetchSync(context, url, url).getValue();
+    assertNotNull(snapshotComposition);
+    assertEquals(composition.getLayers().size(), snapshotComposition.getLayers().size());
+
+    // A snapshot in a format this version can't read is replaced.
+    try (FileOutputStream output = new FileOutputStream(snapshotFile)) {
+      output.write(new byte[]{'L', 'O', 'T', 'B', 0});
+    }
+    LottieCompositionCache.getInstance().clear();
+    assertNotNull(fetcher.fetchSync(context, url, url).getValue());
+    assertTrue(cache.getSnapshotFile(url).length() > 5);
+    assertEquals(1, server.getResponseCodes().size());
+  }
+
+  @Test
+  public void testParsedAnimationIsReturnedWhenCachingTheRestOfTheResponseFails() throws IOException {
+    NetworkCache cache = new NetworkCache(() -> temporaryFolder.getRoot());
+    byte[] body = Okio.buffer(Okio.source(Objects.requireNonNull(getClass().getClassLoader()).getResourceAsStream("test1.json")))
+        .readByteArray();
+    // The parser stops at the end of the animation so only copying the rest of the response reads past it.
+    InputStream bodyStream = new FilterInputStream(new ByteArrayInputStream(body)) {
+      @Override public int read(@NonNull byte[] b, int off, int len) throws IOException {
+        if (available() == 0) {
+          throw new IOException("Connection reset");
+        }
+        return super.read(b, off, len);
+      }
+    };
+    NetworkFetcher fetcher = new NetworkFetcher(cache, requestUrl -> new JsonFetchResult(bodyStream));
+    String url = "https://example.com/animation.json";
+
+    assertNotNull(fetcher.fetchSync(context, url, url).getValue());
+    assertNull(cache.fetch(url));
+    assertFalse(cache.tempCacheFile(url, FileExtension.JSON).exists());
+  }
+
+  private static class JsonFetchResult implements LottieFetchResult {
+    private final InputStream body;
+
+    JsonFetchResult(InputStream body) {
+      this.body = body;
+    }
+
+    @Override public boolean isSuccessful() {
+      return true;
+    }
+
+    @NonNull @Override public InputStream bodyByteStream() {
+      return body;
+    }
+
+    @Override public String contentType() {
+      return "application/json";
+    }
+
+    @Override public String error() {
+      return null;
+    }
+
+    @Override public void close() {
+    }
+  }
+
+  /**
+   * A minimal HTTP server that serves one animation with an ETag and answers conditional requests for it with
+   * 304 Not Modified.
+   */
+  private static class AnimationServer implements Runnable {
+    private final ServerSocket serverSocket = new ServerSocket(0);
+    private final byte[] body;
+    private final List<String> ifNoneMatchHeaders = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> responseCodes = Collections.synchronizedList(new ArrayList<>());
+
+    AnimationServer(byte[] body) throws IOException {
+      this.body = body;
+      Thread thread = new Thread(this, "AnimationServer");
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    String getUrl() {
+      return "http://127.0.0.1:" + serverSocket.getLocalPort() + "/animation.json";
+    }
+
+    List<String> getIfNoneMatchHeaders() {
+      return ifNoneMatchHeaders;
+    }
+
+    List<Integer> getResponseCodes() {
+      return responseCodes;
+    }
+
+    @Override public void run() {
+      while (!serverSocket.isClosed()) {
+        try (Socket socket = serverSocket.accept()) {
+          handle(socket);
+        } catch (IOException e) {
+          // The server was closed.
+        }
+      }
+    }
+
+    private void handle(Socket socket) throws IOException {
+      BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+      String ifNoneMatch = null;
+      String line;
+      while ((line = reader.readLine()) != null && !line.isEmpty()) {
+        if (line.toLowerCase().startsWith("if-none-match:")) {
+          ifNoneMatch = line.substring("if-none-match:".length()).trim();
+        }
+      }
+      ifNoneMatchHeaders.add(ifNoneMatch);
+
+      OutputStream output = socket.getOutputStream();
+      if (ETAG.equals(ifNoneMatch)) {
+        responseCodes.add(304);
+        output.write(("HTTP/1.1 304 Not Modified\r\nETag: " + ETAG + "\r\nConnection: close\r\n\r\n").getBytes("UTF-8"));
+      } else {
+        responseCodes.add(200);
+        output.write(("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nETag: " + ETAG + "\r\nContent-Length: " + body.length +
+            "\r\nConnection: close\r\n\r\n").getBytes("UTF-8"));
+        output.write(body);
+      }
+      output.flush();
+    }
+
+    void close() throws IOException {
+      serverSocket.close();
+    }
+  }
+}
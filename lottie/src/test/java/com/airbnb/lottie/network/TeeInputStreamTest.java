@@ -0,0 +1,38 @@
+package com.airbnb.lottie.network;
+
+import com.airbnb.lottie.BaseTest;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TeeInputStreamTest extends BaseTest {
+
+  @Test
+  public void testCopiesWhatIsRead() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    TeeInputStream stream = new TeeInputStream(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5}), output);
+    assertEquals(1, stream.read());
+    assertEquals(2, stream.skip(2));
+    byte[] buffer = new byte[1];
+    assertEquals(1, stream.read(buffer, 0, 1));
+    assertEquals(4, buffer[0]);
+    assertArrayEquals(new byte[]{1, 2, 3, 4}, output.toByteArray());
+  }
+
+  @Test
+  public void testFinishCopiesTheRest() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    TeeInputStream stream = new TeeInputStream(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5}), output);
+    assertEquals(1, stream.read());
+    // Parsers close the stream once they are done with it.
+    stream.close();
+    stream.finish();
+    assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, output.toByteArray());
+  }
+}